@@ -0,0 +1,408 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.criteria.EntropyLDiversity;
+import org.deidentifier.arx.criteria.EqualDistanceTCloseness;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.io.CSVHierarchyInput;
+import org.deidentifier.arx.metric.Metric;
+
+/**
+ * Prepares the internal data structures of the framework for micro benchmarks. The
+ * environment is set up in the same way as by the anonymizer.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class BenchmarkEnvironment {
+
+    /**
+     * The configurations used for benchmarking
+     *
+     * @author Fabian Prasser
+     */
+    public static enum BenchmarkConfiguration {
+        K_ANONYMITY,
+        K_ANONYMITY_NO_SUPPRESSION,
+        L_DIVERSITY,
+        T_CLOSENESS
+    }
+
+    /**
+     * The datasets used for benchmarking
+     *
+     * @author Fabian Prasser
+     */
+    public static enum BenchmarkDataset {
+        /** The adult dataset, which provides up to nine quasi-identifiers */
+        ADULT,
+        /** A synthetic dataset, which provides up to {@link BenchmarkEnvironment#SYNTHETIC_COLUMNS} quasi-identifiers */
+        SYNTHETIC
+    }
+
+    /** The dataset */
+    public static final String DATASET            = "./data/adult.csv";
+
+    /** The number of quasi-identifiers in the synthetic dataset */
+    public static final int    SYNTHETIC_COLUMNS  = 20;
+
+    /** The number of records in the synthetic dataset */
+    public static final int    SYNTHETIC_ROWS     = 30000;
+
+    /** The number of distinct values of each attribute of the synthetic dataset */
+    public static final int    SYNTHETIC_VALUES   = 16;
+
+    /** The sensitive attribute */
+    public static final String SENSITIVE_ATTRIBUTE = "occupation";
+
+    /**
+     * Returns the given configuration.
+     *
+     * @param configuration
+     * @return
+     */
+    public static ARXConfiguration getConfiguration(BenchmarkConfiguration configuration) {
+        switch (configuration) {
+        case K_ANONYMITY:
+            return ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(5));
+        case K_ANONYMITY_NO_SUPPRESSION:
+            return ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(100));
+        case L_DIVERSITY:
+            return ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addCriterion(new EntropyLDiversity(SENSITIVE_ATTRIBUTE, 5));
+        case T_CLOSENESS:
+            return ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addCriterion(new EqualDistanceTCloseness(SENSITIVE_ATTRIBUTE, 0.2d));
+        default:
+            throw new IllegalArgumentException("Unknown configuration: " + configuration);
+        }
+    }
+
+    /**
+     * Loads the given dataset. The first <code>numQIs</code> attributes are quasi-identifiers,
+     * the sensitive attribute is only defined if required by the configuration.
+     *
+     * @param dataset
+     * @param configuration
+     * @param numQIs
+     * @return
+     * @throws IOException
+     */
+    public static Data getData(BenchmarkDataset dataset, BenchmarkConfiguration configuration, int numQIs) throws IOException {
+        switch (dataset) {
+        case ADULT:
+            return getData(configuration, numQIs);
+        case SYNTHETIC:
+            return getSyntheticData(configuration, numQIs);
+        default:
+            throw new IllegalArgumentException("Unknown dataset: " + dataset);
+        }
+    }
+
+    /**
+     * Loads the dataset. The first <code>numQIs</code> attributes are quasi-identifiers,
+     * the sensitive attribute is only defined if required by the configuration.
+     *
+     * @param configuration
+     * @param numQIs
+     * @return
+     * @throws IOException
+     */
+    public static Data getData(BenchmarkConfiguration configuration, int numQIs) throws IOException {
+
+        Data data = Data.create(DATASET, StandardCharsets.UTF_8, ';');
+        boolean sensitive = configuration == BenchmarkConfiguration.L_DIVERSITY ||
+                            configuration == BenchmarkConfiguration.T_CLOSENESS;
+        DataHandle handle = data.getHandle();
+        String directory = DATASET.substring(0, DATASET.lastIndexOf("/"));
+        String name = DATASET.substring(DATASET.lastIndexOf("/") + 1, DATASET.length() - 4);
+
+        int qis = 0;
+        for (int column = 0; column < handle.getNumColumns(); column++) {
+            String attribute = handle.getAttributeName(column);
+            if (sensitive && attribute.equals(SENSITIVE_ATTRIBUTE)) {
+                data.getDefinition().setAttributeType(attribute, AttributeType.SENSITIVE_ATTRIBUTE);
+            } else if (qis < numQIs) {
+                File file = new File(directory, name + "_hierarchy_" + attribute + ".csv");
+                CSVHierarchyInput hierarchy = new CSVHierarchyInput(file, StandardCharsets.UTF_8, ';');
+                data.getDefinition().setAttributeType(attribute, Hierarchy.create(hierarchy.getHierarchy()));
+                qis++;
+            } else {
+                data.getDefinition().setAttributeType(attribute, AttributeType.INSENSITIVE_ATTRIBUTE);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Creates a synthetic dataset with {@link #SYNTHETIC_COLUMNS} uniformly distributed attributes and
+     * an additional sensitive attribute. Each attribute has a hierarchy with three levels. The data is
+     * generated with a fixed seed, so that all runs use the same records. The first <code>numQIs</code>
+     * attributes are quasi-identifiers, the sensitive attribute is only defined if required by the
+     * configuration.
+     *
+     * @param configuration
+     * @param numQIs
+     * @return
+     */
+    public static Data getSyntheticData(BenchmarkConfiguration configuration, int numQIs) {
+
+        if (numQIs > SYNTHETIC_COLUMNS) {
+            throw new IllegalArgumentException("The synthetic dataset contains only " + SYNTHETIC_COLUMNS + " attributes");
+        }
+
+        // Header
+        DefaultData data = Data.create();
+        String[] row = new String[SYNTHETIC_COLUMNS + 1];
+        for (int column = 0; column < SYNTHETIC_COLUMNS; column++) {
+            row[column] = "attribute" + column;
+        }
+        row[SYNTHETIC_COLUMNS] = SENSITIVE_ATTRIBUTE;
+        data.add(row.clone());
+
+        // Records
+        Random random = new Random(0xDEADBEEF);
+        for (int i = 0; i < SYNTHETIC_ROWS; i++) {
+            for (int column = 0; column < row.length; column++) {
+                row[column] = String.valueOf(random.nextInt(SYNTHETIC_VALUES));
+            }
+            data.add(row.clone());
+        }
+
+        // Hierarchy
+        DefaultHierarchy hierarchy = Hierarchy.create();
+        for (int value = 0; value < SYNTHETIC_VALUES; value++) {
+            hierarchy.add(String.valueOf(value), "[" + (value / 4 * 4) + ", " + (value / 4 * 4 + 4) + "[", "*");
+        }
+
+        // Definition
+        boolean sensitive = configuration == BenchmarkConfiguration.L_DIVERSITY ||
+                            configuration == BenchmarkConfiguration.T_CLOSENESS;
+        for (int column = 0; column < SYNTHETIC_COLUMNS; column++) {
+            String attribute = "attribute" + column;
+            if (column < numQIs) {
+                data.getDefinition().setAttributeType(attribute, hierarchy);
+            } else {
+                data.getDefinition().setAttributeType(attribute, AttributeType.INSENSITIVE_ATTRIBUTE);
+            }
+        }
+        data.getDefinition().setAttributeType(SENSITIVE_ATTRIBUTE, sensitive ? AttributeType.SENSITIVE_ATTRIBUTE : AttributeType.INSENSITIVE_ATTRIBUTE);
+        return data;
+    }
+
+    /** The node checker */
+    private final NodeChecker      checker;
+
+    /** The configuration */
+    private final ARXConfiguration config;
+
+    /** The data manager */
+    private final DataManager      manager;
+
+    /** The solution space */
+    private final SolutionSpace    solutionSpace;
+
+    /**
+     * Creates a new environment.
+     *
+     * @param configuration
+     * @param numQIs
+     * @param historySize
+     * @throws IOException
+     */
+    public BenchmarkEnvironment(BenchmarkConfiguration configuration, int numQIs, int historySize) throws IOException {
+        this(configuration, null, numQIs, historySize);
+    }
+
+    /**
+     * Creates a new environment.
+     *
+     * @param configuration
+     * @param metric The metric to use instead of the default one, may be null
+     * @param numQIs
+     * @param historySize
+     * @throws IOException
+     */
+    public BenchmarkEnvironment(BenchmarkConfiguration configuration, Metric<?> metric, int numQIs, int historySize) throws IOException {
+        this(BenchmarkDataset.ADULT, configuration, metric, numQIs, historySize);
+    }
+
+    /**
+     * Creates a new environment.
+     *
+     * @param dataset
+     * @param configuration
+     * @param metric The metric to use instead of the default one, may be null
+     * @param numQIs
+     * @param historySize
+     * @throws IOException
+     */
+    public BenchmarkEnvironment(BenchmarkDataset dataset, BenchmarkConfiguration configuration, Metric<?> metric, int numQIs, int historySize) throws IOException {
+
+        // Prepare data
+        Data data = getData(dataset, configuration, numQIs);
+        DataHandleInput handle = (DataHandleInput) data.getHandle();
+        handle.getDefinition().materializeHierarchies(handle);
+        handle.getRegistry().reset();
+
+        // Encode
+        this.config = getConfiguration(configuration);
+        if (metric != null) {
+            this.config.setMetric(metric);
+        }
+        this.manager = new DataManager(handle.header,
+                                       handle.data,
+                                       handle.dictionary,
+                                       handle.getDefinition(),
+                                       config.getCriteria(),
+                                       new HashMap<String, DistributionAggregateFunction>());
+        handle.getRegistry().createInputSubset(config);
+        handle.update(manager.getDataGeneralized().getArray(),
+                      manager.getDataAnalyzed().getArray(),
+                      manager.getDataStatic().getArray());
+
+        // Initialize
+        this.config.initialize(manager);
+        this.solutionSpace = new SolutionSpace(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+        this.checker = new NodeChecker(manager,
+                                       config.getMetric(),
+                                       config.getInternalConfiguration(),
+                                       historySize,
+                                       0.2d,
+                                       0.8d,
+                                       solutionSpace);
+        this.config.getMetric().initialize(manager, handle.getDefinition(), manager.getDataGeneralized(), manager.getHierarchies(), config);
+    }
+
+    /**
+     * Returns the node checker.
+     *
+     * @return
+     */
+    public NodeChecker getChecker() {
+        return checker;
+    }
+
+    /**
+     * Returns the configuration.
+     *
+     * @return
+     */
+    public ARXConfiguration getConfiguration() {
+        return config;
+    }
+
+    /**
+     * Returns the internal configuration.
+     *
+     * @return
+     */
+    public ARXConfiguration.ARXConfigurationInternal getInternalConfiguration() {
+        return config.getInternalConfiguration();
+    }
+
+    /**
+     * Returns the data manager.
+     *
+     * @return
+     */
+    public DataManager getManager() {
+        return manager;
+    }
+
+    /**
+     * Creates a new transformer for the data managed by this environment.
+     *
+     * @return
+     */
+    public Transformer getTransformer() {
+        return new Transformer(manager.getDataGeneralized().getArray(),
+                               manager.getDataAnalyzed().getArray(),
+                               manager.getHierarchies(),
+                               config.getInternalConfiguration(),
+                               checker.getHistory().getDictionarySensValue(),
+                               checker.getHistory().getDictionarySensFreq());
+    }
+
+    /**
+     * Returns the solution space.
+     *
+     * @return
+     */
+    public SolutionSpace getSolutionSpace() {
+        return solutionSpace;
+    }
+
+    /**
+     * Returns the transformation in the middle of the solution space, which generalizes
+     * each attribute to half of the height of its hierarchy.
+     *
+     * @return
+     */
+    public Transformation getTransformation() {
+        int[] min = manager.getHierarchiesMinLevels();
+        int[] max = manager.getHierarchiesMaxLevels();
+        int[] generalization = new int[min.length];
+        for (int i = 0; i < generalization.length; i++) {
+            generalization[i] = (min[i] + max[i]) / 2;
+        }
+        return solutionSpace.getTransformation(generalization);
+    }
+
+    /**
+     * Returns a path of transformations from the bottom to the top of the solution space,
+     * in which each transformation is a direct successor of the previous one.
+     *
+     * @return
+     */
+    public Transformation[] getPath() {
+        int[] min = manager.getHierarchiesMinLevels();
+        int[] max = manager.getHierarchiesMaxLevels();
+        int[] generalization = min.clone();
+        int length = 1;
+        for (int i = 0; i < min.length; i++) {
+            length += max[i] - min[i];
+        }
+        Transformation[] path = new Transformation[length];
+        path[0] = solutionSpace.getTransformation(generalization.clone());
+        int index = 1;
+        while (index < length) {
+            for (int i = 0; i < generalization.length && index < length; i++) {
+                if (generalization[i] < max[i]) {
+                    generalization[i]++;
+                    path[index++] = solutionSpace.getTransformation(generalization.clone());
+                }
+            }
+        }
+        return path;
+    }
+}
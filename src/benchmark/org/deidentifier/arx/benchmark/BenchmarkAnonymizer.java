@@ -0,0 +1,82 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.BenchmarkEnvironment.BenchmarkConfiguration;
+import org.deidentifier.arx.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for anonymizing the complete dataset.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BenchmarkAnonymizer {
+
+    /** The configuration */
+    @Param({ "K_ANONYMITY", "K_ANONYMITY_NO_SUPPRESSION", "L_DIVERSITY", "T_CLOSENESS" })
+    public BenchmarkConfiguration configuration;
+
+    /** The data */
+    private Data                  data;
+
+    /**
+     * Loads the data.
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        this.data = BenchmarkEnvironment.getData(configuration, 9);
+    }
+
+    /**
+     * Anonymizes the dataset.
+     *
+     * @return
+     * @throws IOException
+     */
+    @Benchmark
+    public ARXResult anonymize() throws IOException {
+        data.getHandle().release();
+        return new ARXAnonymizer().anonymize(data, BenchmarkEnvironment.getConfiguration(configuration));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for merging frequency distributions, as performed during roll-ups.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BenchmarkDistribution {
+
+    /** The number of distributions to merge */
+    private static final int NUM_DISTRIBUTIONS = 1000;
+
+    /** The number of distinct values */
+    @Param({ "10", "100", "1000" })
+    public int               numValues;
+
+    /** The packed elements */
+    private int[][]          elements;
+
+    /** The packed frequencies */
+    private int[][]          frequencies;
+
+    /**
+     * Creates random distributions.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(0xDECAFBAD);
+        this.elements = new int[NUM_DISTRIBUTIONS][];
+        this.frequencies = new int[NUM_DISTRIBUTIONS][];
+        for (int i = 0; i < NUM_DISTRIBUTIONS; i++) {
+            Distribution distribution = new Distribution();
+            int size = 1 + random.nextInt(20);
+            for (int j = 0; j < size; j++) {
+                distribution.add(random.nextInt(numValues));
+            }
+            distribution.pack();
+            elements[i] = distribution.getPackedElements();
+            frequencies[i] = distribution.getPackedFrequency();
+        }
+    }
+
+    /**
+     * Merges all distributions into one.
+     *
+     * @return
+     */
+    @Benchmark
+    public int merge() {
+        Distribution result = new Distribution();
+        for (int i = 0; i < NUM_DISTRIBUTIONS; i++) {
+            result.merge(elements[i], frequencies[i]);
+        }
+        return result.size();
+    }
+}
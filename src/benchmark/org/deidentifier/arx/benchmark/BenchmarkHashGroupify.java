@@ -0,0 +1,100 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.BenchmarkEnvironment.BenchmarkConfiguration;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for adding generalized records to the hash table.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BenchmarkHashGroupify {
+
+    /** The configuration */
+    @Param({ "K_ANONYMITY", "L_DIVERSITY" })
+    public BenchmarkConfiguration configuration;
+
+    /** The generalized records */
+    private int[][]               records;
+
+    /** The values of the sensitive attribute */
+    private int[][]               sensitive;
+
+    /** The hash table */
+    private HashGroupify          groupify;
+
+    /**
+     * Generalizes the records with the transformation in the middle of the solution space.
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(configuration, 9, 0);
+        int[][] input = environment.getManager().getDataGeneralized().getArray();
+        int[] generalization = environment.getTransformation().getGeneralization();
+        GeneralizationHierarchy[] hierarchies = environment.getManager().getHierarchies();
+        this.records = new int[input.length][generalization.length];
+        for (int row = 0; row < input.length; row++) {
+            for (int column = 0; column < generalization.length; column++) {
+                records[row][column] = hierarchies[column].getArray()[input[row][column]][generalization[column]];
+            }
+        }
+        this.sensitive = configuration == BenchmarkConfiguration.L_DIVERSITY ? environment.getManager().getDataAnalyzed().getArray() : null;
+        this.groupify = new HashGroupify(input.length / 100, environment.getInternalConfiguration());
+    }
+
+    /**
+     * Adds all records.
+     *
+     * @return
+     */
+    @Benchmark
+    public int addFromBuffer() {
+        groupify.stateClear();
+        for (int row = 0; row < records.length; row++) {
+            groupify.addFromBuffer(records[row], sensitive == null ? null : sensitive[row], row, 1, -1);
+        }
+        return groupify.getNumberOfEquivalenceClasses();
+    }
+}
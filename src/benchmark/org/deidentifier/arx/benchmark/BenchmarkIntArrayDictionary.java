@@ -0,0 +1,93 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for probing the dictionary used for storing distributions in snapshots.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BenchmarkIntArrayDictionary {
+
+    /** The number of keys */
+    private static final int NUM_KEYS = 10000;
+
+    /** The fraction of distinct keys */
+    @Param({ "0.1", "1.0" })
+    public double            distinct;
+
+    /** The keys */
+    private int[][]          keys;
+
+    /**
+     * Creates random keys.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(0xDECAFBAD);
+        int numDistinct = Math.max(1, (int) (NUM_KEYS * distinct));
+        int[][] distinctKeys = new int[numDistinct][];
+        for (int i = 0; i < numDistinct; i++) {
+            distinctKeys[i] = new int[1 + random.nextInt(20)];
+            for (int j = 0; j < distinctKeys[i].length; j++) {
+                distinctKeys[i][j] = random.nextInt(1000);
+            }
+        }
+        this.keys = new int[NUM_KEYS][];
+        for (int i = 0; i < NUM_KEYS; i++) {
+            keys[i] = distinctKeys[random.nextInt(numDistinct)].clone();
+        }
+    }
+
+    /**
+     * Probes all keys.
+     *
+     * @return
+     */
+    @Benchmark
+    public int probe() {
+        IntArrayDictionary dictionary = new IntArrayDictionary(NUM_KEYS / 100);
+        for (int i = 0; i < NUM_KEYS; i++) {
+            dictionary.probe(keys[i]);
+        }
+        return dictionary.size();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.BenchmarkEnvironment.BenchmarkConfiguration;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for evaluating utility measures on a transformed dataset.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BenchmarkMetric {
+
+    /** The utility measure */
+    @Param({ "AECS", "DISCERNABILITY", "ENTROPY", "PRECOMPUTED_ENTROPY", "HEIGHT", "LOSS", "PRECISION" })
+    public String         metric;
+
+    /** The hash table */
+    private HashGroupify  groupify;
+
+    /** The measure */
+    private Metric<?>     instance;
+
+    /** The transformation */
+    private Transformation transformation;
+
+    /**
+     * Transforms the dataset with the transformation in the middle of the solution space.
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(BenchmarkConfiguration.K_ANONYMITY, getMetric(metric), 9, 0);
+        this.instance = environment.getConfiguration().getMetric();
+        this.transformation = environment.getTransformation();
+        this.groupify = new HashGroupify(environment.getManager().getDataGeneralized().getDataLength() / 100,
+                                         environment.getInternalConfiguration());
+        this.groupify = environment.getTransformer().apply(0L, transformation.getGeneralization(), groupify);
+        this.groupify.stateAnalyze(transformation, true);
+    }
+
+    /**
+     * Evaluates the measure.
+     *
+     * @return
+     */
+    @Benchmark
+    public Object getInformationLoss() {
+        return instance.getInformationLoss(transformation, groupify);
+    }
+
+    /**
+     * Returns the measure with the given name.
+     *
+     * @param name
+     * @return
+     */
+    private Metric<?> getMetric(String name) {
+        if (name.equals("AECS")) {
+            return Metric.createAECSMetric();
+        } else if (name.equals("DISCERNABILITY")) {
+            return Metric.createDiscernabilityMetric();
+        } else if (name.equals("ENTROPY")) {
+            return Metric.createEntropyMetric();
+        } else if (name.equals("PRECOMPUTED_ENTROPY")) {
+            return Metric.createPrecomputedEntropyMetric(0.1d, true);
+        } else if (name.equals("HEIGHT")) {
+            return Metric.createHeightMetric();
+        } else if (name.equals("LOSS")) {
+            return Metric.createLossMetric();
+        } else if (name.equals("PRECISION")) {
+            return Metric.createPrecisionMetric();
+        } else {
+            throw new IllegalArgumentException("Unknown measure: " + name);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.BenchmarkEnvironment.BenchmarkConfiguration;
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for checking a path of transformations from the bottom to the top of the
+ * solution space. With a history, the state machine will use snapshots and roll-ups
+ * for the transitions between the transformations. Without a history, each transformation
+ * is computed from the input.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BenchmarkStateMachine {
+
+    /** The configuration */
+    @Param({ "K_ANONYMITY", "L_DIVERSITY" })
+    public BenchmarkConfiguration configuration;
+
+    /** The size of the history */
+    @Param({ "0", "200" })
+    public int                    historySize;
+
+    /** The node checker */
+    private NodeChecker           checker;
+
+    /** The transformations */
+    private Transformation[]      path;
+
+    /**
+     * Prepares the node checker.
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(configuration, 9, historySize);
+        this.checker = environment.getChecker();
+        this.checker.getHistory().setStorageStrategy(StorageStrategy.ALL);
+        this.path = environment.getPath();
+    }
+
+    /**
+     * Checks all transformations on the path.
+     *
+     * @param blackhole
+     */
+    @Benchmark
+    public void checkPath(Blackhole blackhole) {
+        checker.getHistory().reset();
+        for (Transformation transformation : path) {
+            blackhole.consume(checker.check(transformation, true));
+        }
+    }
+}
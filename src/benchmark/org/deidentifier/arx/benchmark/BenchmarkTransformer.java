@@ -0,0 +1,102 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.BenchmarkEnvironment.BenchmarkConfiguration;
+import org.deidentifier.arx.BenchmarkEnvironment.BenchmarkDataset;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for transforming the complete dataset. The number of quasi-identifiers
+ * determines which of the specialized transformers is used. The synthetic dataset
+ * covers all of them, from one up to fifteen quasi-identifiers, as well as the
+ * generic transformer, which is used for more than fifteen quasi-identifiers.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BenchmarkTransformer {
+
+    /** The configuration */
+    @Param({ "K_ANONYMITY", "L_DIVERSITY" })
+    public BenchmarkConfiguration configuration;
+
+    /** The dataset */
+    @Param({ "SYNTHETIC" })
+    public BenchmarkDataset       dataset;
+
+    /** The number of quasi-identifiers */
+    @Param({ "1", "2", "3", "4", "5", "6", "7", "8", "9", "10",
+             "11", "12", "13", "14", "15", "16", "20" })
+    public int                    numQIs;
+
+    /** The transformation */
+    private int[]                 generalization;
+
+    /** The hash table */
+    private HashGroupify          groupify;
+
+    /** The transformer */
+    private Transformer           transformer;
+
+    /**
+     * Prepares the transformer.
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(dataset, configuration, null, numQIs, 0);
+        this.generalization = environment.getTransformation().getGeneralization();
+        this.transformer = environment.getTransformer();
+        this.groupify = new HashGroupify(environment.getManager().getDataGeneralized().getDataLength() / 100,
+                                         environment.getInternalConfiguration());
+    }
+
+    /**
+     * Transforms the dataset.
+     *
+     * @return
+     */
+    @Benchmark
+    public int transform() {
+        return transformer.apply(0L, generalization, groupify).getNumberOfEquivalenceClasses();
+    }
+}
@@ -93,6 +93,7 @@ public class WorkerImport extends Worker<Data> {
             close(config);
             arg0.done();
         } catch (final Exception e) {
+            adapter.close();
             close(config);
             error = e;
             stop = true;
@@ -18,11 +18,13 @@
 package org.deidentifier.arx;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.deidentifier.arx.ARXLattice.ARXNode;
 import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
 import org.deidentifier.arx.algorithm.AbstractAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHAlgorithm;
@@ -35,6 +37,8 @@ import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.criteria.LDiversity;
 import org.deidentifier.arx.criteria.TCloseness;
 import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.NodeCheckerPool;
+import org.deidentifier.arx.framework.check.NodeCheckerStatistics;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction.DistributionAggregateFunctionGeneralization;
 import org.deidentifier.arx.framework.data.DataManager;
@@ -82,6 +86,9 @@ public class ARXAnonymizer {
         /** The global optimum */
         final Transformation    optimum;
 
+        /** Statistics about the search */
+        final NodeCheckerStatistics statistics;
+
         /**
          * Creates a new instance.
          *
@@ -91,13 +98,15 @@ public class ARXAnonymizer {
          * @param manager the manager
          * @param algorithm
          * @param time
+         * @param statistics
          */
         Result(final Metric<?> metric,
                final NodeChecker checker,
                final SolutionSpace solutionSpace,
                final DataManager manager,
                final AbstractAlgorithm algorithm,
-               final long time) {
+               final long time,
+               final NodeCheckerStatistics statistics) {
             this.metric = metric;
             this.checker = checker;
             this.solutionSpace = solutionSpace;
@@ -105,6 +114,7 @@ public class ARXAnonymizer {
             this.algorithm = algorithm;
             this.time = time;
             this.optimum = algorithm.getGlobalOptimum();
+            this.statistics = statistics;
         }
 
         /**
@@ -125,31 +135,84 @@ public class ARXAnonymizer {
 
 			// Create output handle
 	        ((DataHandleInput)handle).setLocked(true);
+	        long duration = System.currentTimeMillis() - time;
             return new ARXResult(handle.getRegistry(),
                                  this.manager,
                                  this.checker,
                                  handle.getDefinition(),
                                  config,
                                  lattice,
-                                 System.currentTimeMillis() - time,
-                                 solutionSpace);      
+                                 duration,
+                                 solutionSpace,
+                                 new ARXSearchStatistics(statistics,
+                                                         duration,
+                                                         algorithm.getNumPrunedTransformations(),
+                                                         config.getCriteriaAsArray(),
+                                                         config.getSampleBasedCriteriaAsArray()));      
 		}
     }
 
+    /**
+     * A search which is currently being performed.
+     * 
+     * @author Fabian Prasser
+     */
+    private static class Search {
+
+        /** The configuration. */
+        final ARXConfiguration  config;
+
+        /** The algorithm. */
+        final AbstractAlgorithm algorithm;
+
+        /** The checker. */
+        final NodeChecker       checker;
+
+        /** The pool of checkers, if any. */
+        final NodeCheckerPool   pool;
+
+        /** The time. */
+        final long              time;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param config
+         * @param algorithm
+         * @param checker
+         * @param pool
+         * @param time
+         */
+        Search(final ARXConfiguration config,
+               final AbstractAlgorithm algorithm,
+               final NodeChecker checker,
+               final NodeCheckerPool pool,
+               final long time) {
+            this.config = config;
+            this.algorithm = algorithm;
+            this.checker = checker;
+            this.pool = pool;
+            this.time = time;
+        }
+    }
+
     /** History size. */
-    private int         historySize          = 200;
+    private int             historySize          = 200;
 
     /** The listener, if any. */
-    private ARXListener listener             = null;
+    private ARXListener     listener             = null;
 
     /** Snapshot size. */
-    private double      snapshotSizeDataset  = 0.2d;
+    private double          snapshotSizeDataset  = 0.2d;
 
     /** Snapshot size snapshot. */
-    private double      snapshotSizeSnapshot = 0.8d;
+    private double          snapshotSizeSnapshot = 0.8d;
 
     /** The maximal number of QIs that can be processed. */
-    private int         maxQuasiIdentifiers  = Integer.MAX_VALUE;
+    private int             maxQuasiIdentifiers  = Integer.MAX_VALUE;
+
+    /** The search which is currently being performed, if any. */
+    private volatile Search search               = null;
 
 
     /**
@@ -187,6 +250,25 @@ public class ARXAnonymizer {
      * @throws IOException
      */
     public ARXResult anonymize(final Data data, ARXConfiguration config) throws IOException {
+        return anonymize(data, config, null);
+    }
+
+    /**
+     * Performs data anonymization, reusing knowledge from a previous execution on similar data,
+     * e.g. a dataset to which records have been appended. The optimum of the previous result is
+     * checked first. If it is still private, it serves as an initial optimum, which allows
+     * pruning large parts of the search space. All properties are re-checked on the given data,
+     * so the result is guaranteed to fulfill the privacy models. It may differ from a result
+     * obtained from scratch, if multiple transformations are optimal or if a heuristic search
+     * is performed.
+     *
+     * @param data The data
+     * @param config The privacy config
+     * @param previous The result of a previous execution, may be null
+     * @return ARXResult
+     * @throws IOException
+     */
+    public ARXResult anonymize(final Data data, ARXConfiguration config, ARXResult previous) throws IOException {
         
         if (((DataHandleInput)data.getHandle()).isLocked()){
             throw new RuntimeException("This data handle is locked. Please release it first");
@@ -211,7 +293,8 @@ public class ARXAnonymizer {
 
 
         // Execute
-        return anonymize(manager, handle.getDefinition(), config).asResult(config, handle);
+        int[] warmStart = previous != null ? getWarmStart(previous, manager) : null;
+        return anonymize(manager, handle.getDefinition(), config, warmStart).asResult(config, handle);
     }
     
     /**
@@ -250,6 +333,28 @@ public class ARXAnonymizer {
         return maxQuasiIdentifiers;
     }
 
+    /**
+     * Returns statistics about the search which is currently being performed by this
+     * anonymizer, e.g. to monitor its progress from a listener or from another thread.
+     * The counters are updated by the threads performing the search without
+     * synchronization and the values returned are thus approximate. Returns null, if
+     * no search is being performed. Statistics about a completed search are available
+     * via {@link ARXResult#getSearchStatistics()}.
+     * 
+     * @return The statistics, if any
+     */
+    public ARXSearchStatistics getSearchStatistics() {
+        Search search = this.search;
+        if (search == null) {
+            return null;
+        }
+        return new ARXSearchStatistics(getStatistics(search.config, search.checker, search.pool),
+                                       System.currentTimeMillis() - search.time,
+                                       search.algorithm.getNumPrunedTransformations(),
+                                       search.config.getCriteriaAsArray(),
+                                       search.config.getSampleBasedCriteriaAsArray());
+    }
+
     /**
      * Sets the maximum number of snapshots allowed to store in the history.
      * 
@@ -314,6 +419,23 @@ public class ARXAnonymizer {
     protected Result anonymize(final DataManager manager,
                                final DataDefinition definition,
                                final ARXConfiguration config) throws IOException {
+        return anonymize(manager, definition, config, null);
+    }
+
+    /**
+     * Reset a previous lattice and run the algorithm, starting with the given transformation.
+     *
+     * @param manager
+     * @param definition
+     * @param config
+     * @param warmStart A transformation to check first, may be null
+     * @return
+     * @throws IOException
+     */
+    protected Result anonymize(final DataManager manager,
+                               final DataDefinition definition,
+                               final ARXConfiguration config,
+                               final int[] warmStart) throws IOException {
 
         // Initialize
         config.initialize(manager);
@@ -342,19 +464,47 @@ public class ARXAnonymizer {
                                                    solutionSpace,
                                                    checker);
         algorithm.setListener(listener);
-
+        algorithm.setWarmStart(warmStart);
+
+        // Build a pool of node checkers, if transformations are to be checked concurrently
+        NodeCheckerPool pool = null;
+        if (config.getNumConcurrentChecks() > 1) {
+            pool = new NodeCheckerPool(manager,
+                                       config.getMetric(),
+                                       config.getInternalConfiguration(),
+                                       historySize,
+                                       snapshotSizeDataset,
+                                       snapshotSizeSnapshot,
+                                       solutionSpace,
+                                       config.getNumConcurrentChecks());
+            algorithm.setCheckerPool(pool);
+        }
         
         // Execute
-
         final long time = System.currentTimeMillis();
-        algorithm.traverse();
-        
-        // Deactivate history to prevent bugs when sorting data
-        checker.getHistory().reset();
-        checker.getHistory().setSize(0);
+        NodeCheckerStatistics statistics = null;
+        this.search = new Search(config, algorithm, checker, pool, time);
+        try {
+            algorithm.traverse();
+            statistics = getStatistics(config, checker, pool);
+        } finally {
+            
+            // The search has ended
+            this.search = null;
+            
+            // Release the pool
+            if (pool != null) {
+                algorithm.setCheckerPool(null);
+                pool.shutdown();
+            }
+            
+            // Deactivate history to prevent bugs when sorting data. This also deletes spilled snapshots.
+            checker.getHistory().reset();
+            checker.getHistory().setSize(0);
+        }
         
         // Return the result
-        return new Result(config.getMetric(), checker, solutionSpace, manager, algorithm, time);
+        return new Result(config.getMetric(), checker, solutionSpace, manager, algorithm, time, statistics);
     }
 
     /**
@@ -558,6 +708,64 @@ public class ARXAnonymizer {
         }
     }
 
+    /**
+     * Collects the statistics of the given checker and of the given pool of checkers, if any.
+     *
+     * @param config
+     * @param checker
+     * @param pool
+     * @return
+     */
+    private NodeCheckerStatistics getStatistics(final ARXConfiguration config,
+                                                final NodeChecker checker,
+                                                final NodeCheckerPool pool) {
+        NodeCheckerStatistics statistics = new NodeCheckerStatistics(config.getCriteriaAsArray().length,
+                                                                     config.getSampleBasedCriteriaAsArray().length);
+        statistics.add(checker.getStatistics());
+        if (pool != null) {
+            pool.addStatistics(statistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns the global optimum of the given result as a transformation for the given data manager.
+     * Returns null, if there is no optimum or if it does not match the quasi-identifiers and the
+     * generalization levels allowed in the solution space.
+     *
+     * @param previous
+     * @param manager
+     * @return
+     */
+    private int[] getWarmStart(final ARXResult previous, final DataManager manager) {
+        
+        // Check
+        ARXNode optimum = previous.getGlobalOptimum();
+        if (optimum == null) {
+            return null;
+        }
+        String[] header = manager.getDataGeneralized().getHeader();
+        if (optimum.getQuasiIdentifyingAttributes().length != header.length) {
+            return null;
+        }
+        
+        // Map by attribute name
+        int[] min = manager.getHierarchiesMinLevels();
+        int[] max = manager.getHierarchiesMaxLevels();
+        int[] result = new int[header.length];
+        Set<String> attributes = new HashSet<String>(Arrays.asList(optimum.getQuasiIdentifyingAttributes()));
+        for (int i = 0; i < header.length; i++) {
+            if (!attributes.contains(header[i])) {
+                return null;
+            }
+            result[i] = optimum.getGeneralization(header[i]);
+            if (result[i] < min[i] || result[i] > max[i]) {
+                return null;
+            }
+        }
+        return result;
+    }
+
     /**
      * Prepares the data manager.
      *
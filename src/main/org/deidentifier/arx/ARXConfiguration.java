@@ -115,6 +115,15 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getCriterion(clazz);
         }
 
+        /**
+         * Returns the maximal number of bytes of snapshots that may be spilled to disk.
+         *
+         * @return
+         */
+        public long getHistorySpillSize() {
+            return config.getHistorySpillSize();
+        }
+
         /**
          * Returns the max relative number of outliers.
          *
@@ -158,6 +167,24 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getMonotonicityOfUtility();
         }
 
+        /**
+         * Returns the number of transformations that are checked concurrently.
+         *
+         * @return
+         */
+        public int getNumConcurrentChecks() {
+            return config.getNumConcurrentChecks();
+        }
+
+        /**
+         * Returns the number of threads used for checking transformations.
+         *
+         * @return
+         */
+        public int getNumThreads() {
+            return config.getNumThreads();
+        }
+
         /**
          * Returns the criteria's requirements.
          *
@@ -366,6 +393,15 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** The heuristic algorithm will terminate after the given time limit */
     private Integer                            heuristicSearchTimeLimit              = 30000;
 
+    /** The number of threads used for checking transformations */
+    private Integer                            numThreads                            = 1;
+
+    /** The number of transformations that are checked concurrently */
+    private Integer                            numConcurrentChecks                   = 1;
+
+    /** The maximal number of bytes of snapshots that are spilled to disk */
+    private Long                               historySpillSize                      = 0L;
+
     /**
      * Creates a new configuration without tuple suppression.
      */
@@ -467,6 +503,9 @@ public class ARXConfiguration implements Serializable, Cloneable {
         result.heuristicSearchEnabled = this.heuristicSearchEnabled;
         result.heuristicSearchThreshold = this.heuristicSearchThreshold;
         result.heuristicSearchTimeLimit = this.heuristicSearchTimeLimit;
+        result.numThreads = this.numThreads;
+        result.numConcurrentChecks = this.numConcurrentChecks;
+        result.historySpillSize = this.historySpillSize;
         result.utilityBasedMicroaggregation = this.utilityBasedMicroaggregation;
         if (this.attributeWeights != null) {
             result.attributeWeights = new HashMap<String, Double>(this.attributeWeights);
@@ -597,6 +636,21 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.heuristicSearchTimeLimit;
     }
 
+    /**
+     * Returns the maximal number of bytes of snapshots that are spilled to a temporary file
+     * when they are evicted from the in-memory history. Spilled snapshots are loaded again
+     * when they are needed for computing a transformation. The default is 0, which disables
+     * spilling.
+     * @return
+     */
+    public long getHistorySpillSize() {
+        // Ensure backwards compatibility
+        if (this.historySpillSize == null) {
+            this.historySpillSize = 0L;
+        }
+        return this.historySpillSize;
+    }
+
     /**
      * Returns the maximum number of allowed outliers.
      *
@@ -606,6 +660,34 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return relMaxOutliers;
     }
     
+    /**
+     * Returns the number of transformations that are checked concurrently by the search
+     * algorithm. Each concurrent check requires a separate copy of the output buffer.
+     * The default is 1.
+     * @return
+     */
+    public int getNumConcurrentChecks() {
+        // Ensure backwards compatibility
+        if (this.numConcurrentChecks == null) {
+            this.numConcurrentChecks = 1;
+        }
+        return this.numConcurrentChecks;
+    }
+
+    /**
+     * Returns the number of threads used for checking transformations. If more than one
+     * thread is used, the rows of the dataset will be partitioned and groupified concurrently.
+     * The default is 1.
+     * @return
+     */
+    public int getNumThreads() {
+        // Ensure backwards compatibility
+        if (this.numThreads == null) {
+            this.numThreads = 1;
+        }
+        return this.numThreads;
+    }
+
     /**
      * Returns the metric used for measuring information loss.
      *
@@ -851,6 +933,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
         if (timeInMillis <= 0) { throw new IllegalArgumentException("Parameter must be >= 0"); }
         this.heuristicSearchTimeLimit = timeInMillis;
     }
+
+    /**
+     * Sets the maximal number of bytes of snapshots that are spilled to a temporary file
+     * when they are evicted from the in-memory history. Spilled snapshots are loaded again
+     * when they are needed for computing a transformation. The default is 0, which disables
+     * spilling.
+     * @param bytes
+     */
+    public void setHistorySpillSize(long bytes) {
+        if (bytes < 0) { throw new IllegalArgumentException("Parameter must be >= 0"); }
+        this.historySpillSize = bytes;
+    }
     
     /**
      * Allows for a certain percentage of outliers and thus
@@ -872,6 +966,28 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.metric = metric;
     }
 
+    /**
+     * Sets the number of transformations that are checked concurrently by the search
+     * algorithm. Each concurrent check requires a separate copy of the output buffer.
+     * The default is 1.
+     * @param numConcurrentChecks
+     */
+    public void setNumConcurrentChecks(int numConcurrentChecks) {
+        if (numConcurrentChecks <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.numConcurrentChecks = numConcurrentChecks;
+    }
+
+    /**
+     * Sets the number of threads used for checking transformations. If more than one
+     * thread is used, the rows of the dataset will be partitioned and groupified concurrently.
+     * The default is 1.
+     * @param numThreads
+     */
+    public void setNumThreads(int numThreads) {
+        if (numThreads <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.numThreads = numThreads;
+    }
+
     /**
      * Set, if practical monotonicity assumed.
      *
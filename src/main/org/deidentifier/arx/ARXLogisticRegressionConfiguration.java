@@ -62,6 +62,8 @@ public class ARXLogisticRegressionConfiguration implements Serializable {
     private int           seed          = Integer.MAX_VALUE;
     /** Folds */
     private int           numberOfFolds = 10;
+    /** Threads, 0 for the default */
+    private int           numberOfThreads = 0;
     /** Deterministic */
     private boolean       deterministic = true;
     /** Configuration */
@@ -116,6 +118,14 @@ public class ARXLogisticRegressionConfiguration implements Serializable {
         return numberOfFolds;
     }
     
+    /**
+     * Returns the number of threads used for training and evaluating the classifiers
+     * @return the numberOfThreads
+     */
+    public int getNumThreads() {
+        return numberOfThreads > 0 ? numberOfThreads : Runtime.getRuntime().availableProcessors();
+    }
+    
     /**
      * @return the priorFunction
      */
@@ -216,6 +226,19 @@ public class ARXLogisticRegressionConfiguration implements Serializable {
         return this;
     }
 
+    /**
+     * Sets the number of threads used for training and evaluating the classifiers.
+     * Set to 0 for the default.
+     * @param numberOfThreads the numberOfThreads to set
+     */
+    public ARXLogisticRegressionConfiguration setNumThreads(int numberOfThreads) {
+        if (numberOfThreads < 0) {
+            throw new IllegalArgumentException("Must be >=0");
+        }
+        this.numberOfThreads = numberOfThreads;
+        return this;
+    }
+
     /**
      * @param priorFunction the priorFunction to set
      */
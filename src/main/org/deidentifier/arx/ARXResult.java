@@ -18,11 +18,20 @@
 package org.deidentifier.arx;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.ARXAnonymizer.Result;
 import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.common.ThreadPool;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
 import org.deidentifier.arx.exceptions.RollbackRequiredException;
 import org.deidentifier.arx.framework.check.NodeChecker;
@@ -76,6 +85,9 @@ public class ARXResult {
     /** The registry. */
     private final SolutionSpace    solutionSpace;
 
+    /** Statistics about the search, if any. */
+    private final ARXSearchStatistics statistics;
+
     /**
      * Internal constructor for deserialization.
      *
@@ -154,6 +166,7 @@ public class ARXResult {
         this.optimalNode = lattice.getOptimum();
         this.duration = time;
         this.solutionSpace = solutionSpace;
+        this.statistics = null;
     }
     
     /**
@@ -167,6 +180,7 @@ public class ARXResult {
      * @param lattice
      * @param duration
      * @param solutionSpace
+     * @param statistics
      */
     protected ARXResult(DataRegistry registry,
                         DataManager manager,
@@ -175,7 +189,8 @@ public class ARXResult {
                         ARXConfiguration config,
                         ARXLattice lattice,
                         long duration,
-                        SolutionSpace solutionSpace) {
+                        SolutionSpace solutionSpace,
+                        ARXSearchStatistics statistics) {
 
         this.registry = registry;
         this.manager = manager;
@@ -186,6 +201,7 @@ public class ARXResult {
         this.optimalNode = lattice.getOptimum();
         this.duration = duration;
         this.solutionSpace = solutionSpace;
+        this.statistics = statistics;
     }
 
 
@@ -372,6 +388,18 @@ public class ARXResult {
         return getOutput(optimalNode, fork);
     }
 
+    /**
+     * Returns statistics about the search process, e.g. the number of checked transformations,
+     * the types of transitions performed and the time spent in its different steps. Returns
+     * null if the result has not been computed in this session, e.g. if it has been loaded
+     * from a project.
+     *
+     * @return
+     */
+    public ARXSearchStatistics getSearchStatistics() {
+        return statistics;
+    }
+
     /**
      * Returns the execution time (wall clock).
      *
@@ -488,6 +516,26 @@ public class ARXResult {
      * @return The number of optimized records
      */
     public int optimize(DataHandle handle, double gsFactor, ARXListener listener) throws RollbackRequiredException {
+        return this.optimize(handle, gsFactor, 1, listener);
+    }
+
+    /**
+     * This method optimizes the given data output with local recoding to improve its utility.
+     * If more than one thread is used, the records to optimize are split into strata of similar
+     * records, which are anonymized independently and concurrently. This typically reduces
+     * execution times but may lead to different results than optimizing all records at once.
+     * @param handle
+     * @param gsFactor A factor [0,1] weighting generalization and suppression.
+     *            The default value is 0.5, which means that generalization
+     *            and suppression will be treated equally. A factor of 0
+     *            will favor suppression, and a factor of 1 will favor
+     *            generalization. The values in between can be used for
+     *            balancing both methods.
+     * @param numThreads The number of threads to use
+     * @param listener 
+     * @return The number of optimized records
+     */
+    public int optimize(DataHandle handle, double gsFactor, int numThreads, ARXListener listener) throws RollbackRequiredException {
         
         // Check if null
         if (listener == null) {
@@ -504,6 +552,11 @@ public class ARXResult {
             throw new IllegalArgumentException("Generalization/suppression factor must be in [0, 1]");
         }
         
+        // Check bounds
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be > 0");
+        }
+        
         // Check if output
         if (!(handle instanceof DataHandleOutput)) {
             throw new IllegalArgumentException("Local recoding can only be applied to output data");
@@ -531,71 +584,22 @@ public class ARXResult {
             }
         }
         
-        // Everything that is used from here on, needs to be either
-        // (a) state-less, or
-        // (b) a fresh copy of the original configuration.
-
-        // We start by creating a projected instance of the configuration
-        // - All privacy models will be cloned
-        // - Subsets in d-presence will be projected accordingly
-        // - Utility measures will be cloned
-        ARXConfiguration config = this.config.getSubsetInstance(rowset, gsFactor);
-
-        // In the data definition, only MicroAggregationFunctions maintain a state, but these 
-        // are cloned, when cloning the definition
-        // TODO: This is probably not necessary, because they are used from the data manager,
-        //       which in turn creates a clone by itself
-        DataDefinition definition = this.definition.clone();
-        
-        // Clone the data manager
-        DataManager manager = this.manager.getSubsetInstance(rowset);
+        // Split into strata and anonymize
+        RowSet[] strata = getStrata(rowset, numThreads);
+        Result[] results = strata.length == 1 ? new Result[] { anonymize(strata[0], gsFactor, listener) } :
+                                                anonymize(strata, gsFactor, listener);
         
-        // Create an anonymizer
-        // TODO: It stores some values that should be transferred?
-        ARXAnonymizer anonymizer = new ARXAnonymizer();
-        anonymizer.setListener(listener);
-        
-        // Anonymize
-        Result result = null;
+        // Merge the results back into the given handle
         try {
-            result = anonymizer.anonymize(manager, definition, config);
-        } catch (IOException e) {
-            // This should not happen at this point in time, as data has already been read from the source
-            throw new RuntimeException("Internal error");
-        }
-        
-        // Break, if no solution has been found
-        if (result.optimum == null) {
-            return 0;
-        }
-        
-        // Else, merge the results back into the given handle
-        TransformedData data = result.checker.applyTransformation(result.optimum, output.getOutputBufferMicroaggregated().getDictionary());
-        int newIndex = -1;
-        int[][] oldGeneralized = output.getOutputBufferGeneralized().getArray();
-        int[][] oldMicroaggregated = output.getOutputBufferMicroaggregated().getArray();
-        int[][] newGeneralized = data.bufferGeneralized.getArray();
-        int[][] newMicroaggregated = data.bufferMicroaggregated.getArray();
-        
-        try {
-            
             int optimized = 0;
-            for (int oldIndex = 0; oldIndex < rowset.length(); oldIndex++) {
-                if (rowset.contains(oldIndex)) {
-                    newIndex++;
-                    if (oldGeneralized != null && oldGeneralized.length != 0) {
-                        System.arraycopy(newGeneralized[newIndex], 0, oldGeneralized[oldIndex], 0, newGeneralized[newIndex].length);
-                        optimized += (newGeneralized[newIndex][0] & Data.OUTLIER_MASK) != 0 ? 0 : 1;
-                    }
-                    if (oldMicroaggregated != null && oldMicroaggregated.length != 0) {
-                        System.arraycopy(newMicroaggregated[newIndex], 0, oldMicroaggregated[oldIndex], 0, newMicroaggregated[newIndex].length);
-                    }
+            for (int i = 0; i < strata.length; i++) {
+                
+                // Skip, if no solution has been found
+                if (results[i].optimum != null) {
+                    optimized += merge(output, strata[i], results[i]);
                 }
             }
             
-            // Update data types
-            output.updateDataTypes(result.optimum.getGeneralization());
-            
             // Mark as optimized
             if (optimized != 0) {
                 output.setOptimized(true);
@@ -656,6 +660,32 @@ public class ARXResult {
                                   final int maxIterations,
                                   final double adaptionFactor,
                                   final ARXListener listener) throws RollbackRequiredException {
+        this.optimizeIterative(handle, gsFactor, maxIterations, adaptionFactor, 1, listener);
+    }
+    
+    /**
+     * This method optimizes the given data output with local recoding to improve its utility.
+     * If more than one thread is used, the records to optimize are split into strata of similar
+     * records in each iteration, which are anonymized independently and concurrently.
+     * @param handle
+     * @param gsFactor A factor [0,1] weighting generalization and suppression.
+     *            The default value is 0.5, which means that generalization
+     *            and suppression will be treated equally. A factor of 0
+     *            will favor suppression, and a factor of 1 will favor
+     *            generalization. The values in between can be used for
+     *            balancing both methods.
+     * @param maxIterations The maximal number of iterations to perform
+     * @param adaptionFactor Is added to the gsFactor when reaching a fixpoint 
+     * @param numThreads The number of threads to use
+     * @param listener 
+     * @throws RollbackRequiredException 
+     */
+    public void optimizeIterative(final DataHandle handle,
+                                  double gsFactor,
+                                  final int maxIterations,
+                                  final double adaptionFactor,
+                                  final int numThreads,
+                                  final ARXListener listener) throws RollbackRequiredException {
         
         if (gsFactor < 0d || gsFactor > 1d) {
             throw new IllegalArgumentException("Generalization/suppression factor must be in [0, 1]");
@@ -666,6 +696,9 @@ public class ARXResult {
         if (maxIterations <= 0) {
             throw new IllegalArgumentException("Max. iterations must be > zero");
         }
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be > 0");
+        }
 
         // Outer loop
         int iterations = 0;
@@ -687,7 +720,7 @@ public class ARXResult {
             };
 
             // Perform individual optimization
-            optimized = optimize(handle, gsFactor, wrapper);
+            optimized = optimize(handle, gsFactor, numThreads, wrapper);
             
             // Try to adapt, if possible
             if (optimized == 0 && adaptionFactor > 0d) {
@@ -703,6 +736,114 @@ public class ARXResult {
         }
     }
 
+    /**
+     * Anonymizes the given subset of records with a fresh anonymizer
+     * @param rowset
+     * @param gsFactor
+     * @param listener
+     * @return
+     */
+    private Result anonymize(RowSet rowset, double gsFactor, ARXListener listener) {
+        
+        // Everything that is used from here on, needs to be either
+        // (a) state-less, or
+        // (b) a fresh copy of the original configuration.
+
+        // We start by creating a projected instance of the configuration
+        // - All privacy models will be cloned
+        // - Subsets in d-presence will be projected accordingly
+        // - Utility measures will be cloned
+        ARXConfiguration config = this.config.getSubsetInstance(rowset, gsFactor);
+
+        // In the data definition, only MicroAggregationFunctions maintain a state, but these 
+        // are cloned, when cloning the definition
+        // TODO: This is probably not necessary, because they are used from the data manager,
+        //       which in turn creates a clone by itself
+        DataDefinition definition = this.definition.clone();
+        
+        // Clone the data manager
+        DataManager manager = this.manager.getSubsetInstance(rowset);
+        
+        // Create an anonymizer
+        // TODO: It stores some values that should be transferred?
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setListener(listener);
+        
+        // Anonymize
+        try {
+            return anonymizer.anonymize(manager, definition, config);
+        } catch (IOException e) {
+            // This should not happen at this point in time, as data has already been read from the source
+            throw new RuntimeException("Internal error");
+        }
+    }
+    
+    /**
+     * Anonymizes the given strata concurrently, using one thread per stratum. Progress is
+     * reported as the average progress over all strata. Each stratum is anonymized with
+     * its own copies of the configuration, the data definition, the data manager and the
+     * data types, as formatted data types are not thread-safe.
+     * @param strata
+     * @param gsFactor
+     * @param listener
+     * @return
+     */
+    private Result[] anonymize(final RowSet[] strata, final double gsFactor, final ARXListener listener) {
+        
+        // Prepare
+        final Result[] results = new Result[strata.length];
+        final double[] progress = new double[strata.length];
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        ExecutorService executor = ThreadPool.create("ARX LocalRecoding", strata.length);
+        
+        try {
+            
+            // Submit
+            for (int i = 0; i < strata.length; i++) {
+                final int stratum = i;
+                final ARXListener wrapper = new ARXListener() {
+                    @Override
+                    public void progress(double value) {
+                        synchronized (progress) {
+                            progress[stratum] = value;
+                            double total = 0d;
+                            for (double p : progress) {
+                                total += p;
+                            }
+                            listener.progress(total / (double) progress.length);
+                        }
+                    }
+                };
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        results[stratum] = anonymize(strata[stratum], gsFactor, wrapper);
+                        return null;
+                    }
+                }));
+            }
+            
+            // Wait
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        // Return
+        return results;
+    }
+
     /**
      * Returns a map of all microaggregation functions
      * @param definition
@@ -715,6 +856,112 @@ public class ARXResult {
         }
         return result;
     }
+
+    /**
+     * Splits the given records into at most <code>numThreads</code> strata of similar records.
+     * Records are ordered by their values in the input data and split into contiguous blocks,
+     * which are only cut between records with different values. Strata are not made smaller
+     * than the minimal size of equivalence classes required by the privacy models.
+     * @param rowset
+     * @param numThreads
+     * @return
+     */
+    private RowSet[] getStrata(RowSet rowset, int numThreads) {
+        
+        // Determine number of strata
+        int size = rowset.size();
+        int minimalGroupSize = this.config.getMinimalGroupSize();
+        minimalGroupSize = minimalGroupSize != Integer.MAX_VALUE ? Math.max(minimalGroupSize, 1) : 1;
+        int count = Math.min(numThreads, size / minimalGroupSize);
+        if (count <= 1) {
+            return new RowSet[] { rowset };
+        }
+        
+        // Collect and sort records
+        final int[][] data = this.manager.getDataGeneralized().getArray();
+        Integer[] rows = new Integer[size];
+        int index = 0;
+        for (int row = 0; row < rowset.length(); row++) {
+            if (rowset.contains(row)) {
+                rows[index++] = row;
+            }
+        }
+        Comparator<Integer> comparator = new Comparator<Integer>() {
+            @Override
+            public int compare(Integer row1, Integer row2) {
+                int[] values1 = data[row1];
+                int[] values2 = data[row2];
+                for (int i = 0; i < values1.length; i++) {
+                    int cmp = Integer.compare(values1[i], values2[i]);
+                    if (cmp != 0) {
+                        return cmp;
+                    }
+                }
+                return 0;
+            }
+        };
+        Arrays.sort(rows, comparator);
+        
+        // Split into contiguous blocks
+        List<RowSet> strata = new ArrayList<RowSet>();
+        int start = 0;
+        for (int i = 1; i <= count && start < size; i++) {
+            int end = i == count ? size : Math.max(start + minimalGroupSize, (int) ((long) size * i / count));
+            end = Math.min(end, size);
+            while (end < size && comparator.compare(rows[end - 1], rows[end]) == 0) {
+                end++;
+            }
+            if (i < count && size - end < minimalGroupSize) {
+                end = size;
+            }
+            RowSet stratum = RowSet.create(rowset.length());
+            for (int j = start; j < end; j++) {
+                stratum.add(rows[j]);
+            }
+            strata.add(stratum);
+            start = end;
+        }
+        
+        // Return
+        return strata.toArray(new RowSet[strata.size()]);
+    }
+
+    /**
+     * Merges the result of anonymizing the given subset of records back into the given handle
+     * @param output
+     * @param rowset
+     * @param result
+     * @return The number of optimized records
+     */
+    private int merge(DataHandleOutput output, RowSet rowset, Result result) {
+        
+        TransformedData data = result.checker.applyTransformation(result.optimum, output.getOutputBufferMicroaggregated().getDictionary());
+        int newIndex = -1;
+        int[][] oldGeneralized = output.getOutputBufferGeneralized().getArray();
+        int[][] oldMicroaggregated = output.getOutputBufferMicroaggregated().getArray();
+        int[][] newGeneralized = data.bufferGeneralized.getArray();
+        int[][] newMicroaggregated = data.bufferMicroaggregated.getArray();
+        
+        int optimized = 0;
+        for (int oldIndex = 0; oldIndex < rowset.length(); oldIndex++) {
+            if (rowset.contains(oldIndex)) {
+                newIndex++;
+                if (oldGeneralized != null && oldGeneralized.length != 0) {
+                    System.arraycopy(newGeneralized[newIndex], 0, oldGeneralized[oldIndex], 0, newGeneralized[newIndex].length);
+                    optimized += (newGeneralized[newIndex][0] & Data.OUTLIER_MASK) != 0 ? 0 : 1;
+                }
+                if (oldMicroaggregated != null && oldMicroaggregated.length != 0) {
+                    System.arraycopy(newMicroaggregated[newIndex], 0, oldMicroaggregated[oldIndex], 0, newMicroaggregated[newIndex].length);
+                }
+            }
+        }
+        
+        // Update data types
+        output.updateDataTypes(result.optimum.getGeneralization());
+        
+        // Return
+        return optimized;
+    }
     
     /**
      * Releases the buffer.
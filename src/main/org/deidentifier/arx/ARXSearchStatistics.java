@@ -0,0 +1,296 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.framework.check.NodeCheckerStatistics;
+
+/**
+ * Statistics about the search process performed by the anonymizer, which can be used to
+ * analyze where time is spent. Counters are collected by all node checkers involved.
+ * Times are given in milliseconds and are measured per check, which means that they
+ * add up across concurrent checks.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class ARXSearchStatistics {
+
+    /** Counters */
+    private final NodeCheckerStatistics statistics;
+
+    /** Execution time in milliseconds */
+    private final long                  duration;
+
+    /** Number of transformations pruned because of insufficient utility */
+    private final long                  pruned;
+
+    /** Class-based criteria */
+    private final PrivacyCriterion[]    classBasedCriteria;
+
+    /** Sample-based criteria */
+    private final PrivacyCriterion[]    sampleBasedCriteria;
+
+    /**
+     * Creates a new instance
+     * @param statistics
+     * @param duration
+     * @param pruned
+     * @param classBasedCriteria
+     * @param sampleBasedCriteria
+     */
+    ARXSearchStatistics(NodeCheckerStatistics statistics,
+                        long duration,
+                        long pruned,
+                        PrivacyCriterion[] classBasedCriteria,
+                        PrivacyCriterion[] sampleBasedCriteria) {
+        this.statistics = statistics;
+        this.duration = duration;
+        this.pruned = pruned;
+        this.classBasedCriteria = classBasedCriteria;
+        this.sampleBasedCriteria = sampleBasedCriteria;
+    }
+
+    /**
+     * Returns the average number of equivalence classes of checked transformations
+     * @return
+     */
+    public double getAverageNumberOfClasses() {
+        return statistics.checks == 0 ? 0d : (double) statistics.classesTotal / (double) statistics.checks;
+    }
+
+    /**
+     * Returns the number of transformations checked per second
+     * @return
+     */
+    public double getChecksPerSecond() {
+        return duration == 0 ? 0d : (double) statistics.checks * 1000d / (double) duration;
+    }
+
+    /**
+     * Returns the execution time of the search in milliseconds
+     * @return
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the maximal number of equivalence classes of a checked transformation
+     * @return
+     */
+    public long getMaximalNumberOfClasses() {
+        return statistics.classesMax;
+    }
+
+    /**
+     * Returns the number of checked transformations
+     * @return
+     */
+    public long getNumberOfChecks() {
+        return statistics.checks;
+    }
+
+    /**
+     * Returns the number of equivalence classes scanned by transitions using the roll-up
+     * or snapshot optimization
+     * @return
+     */
+    public long getNumberOfClassesScanned() {
+        return statistics.classesScanned;
+    }
+
+    /**
+     * Returns the number of equivalence classes which did not fulfill each class-based
+     * privacy criterion. Criteria are checked in order until the first one is violated.
+     * Classes violating the minimal class size implied by k-anonymity are not included.
+     * @return
+     */
+    public Map<PrivacyCriterion, Long> getNumberOfClassesRejected() {
+        Map<PrivacyCriterion, Long> result = new LinkedHashMap<PrivacyCriterion, Long>();
+        for (int i = 0; i < classBasedCriteria.length; i++) {
+            result.put(classBasedCriteria[i], statistics.classesRejected[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of transformations which have been pruned because their information
+     * loss cannot be better than the current optimum. The transformations above them in the
+     * lattice have been discarded without being checked as well.
+     * @return
+     */
+    public long getNumberOfPrunedTransformations() {
+        return pruned;
+    }
+
+    /**
+     * Returns the number of transitions using the roll-up optimization
+     * @return
+     */
+    public long getNumberOfRollups() {
+        return statistics.transitionsRollup;
+    }
+
+    /**
+     * Returns the number of rows scanned by unoptimized transitions
+     * @return
+     */
+    public long getNumberOfRowsScanned() {
+        return statistics.rowsScanned;
+    }
+
+    /**
+     * Returns the number of lookups in the history that returned a snapshot
+     * @return
+     */
+    public long getNumberOfSnapshotHits() {
+        return statistics.snapshotHits;
+    }
+
+    /**
+     * Returns the number of lookups in the history that returned no snapshot
+     * @return
+     */
+    public long getNumberOfSnapshotMisses() {
+        return statistics.snapshotMisses;
+    }
+
+    /**
+     * Returns the number of snapshots that have been evicted from the in-memory history
+     * @return
+     */
+    public long getNumberOfSnapshotsEvicted() {
+        return statistics.snapshotsEvicted;
+    }
+
+    /**
+     * Returns the number of spilled snapshots that have been loaded back from disk
+     * @return
+     */
+    public long getNumberOfSnapshotsLoaded() {
+        return statistics.snapshotsLoaded;
+    }
+
+    /**
+     * Returns the number of snapshots that have been stored in the history
+     * @return
+     */
+    public long getNumberOfSnapshotsStored() {
+        return statistics.snapshotsStored;
+    }
+
+    /**
+     * Returns the number of transitions using the snapshot optimization
+     * @return
+     */
+    public long getNumberOfSnapshotTransitions() {
+        return statistics.transitionsSnapshot;
+    }
+
+    /**
+     * Returns the number of transitions in which all rows had to be transformed
+     * @return
+     */
+    public long getNumberOfUnoptimizedTransitions() {
+        return statistics.transitionsUnoptimized;
+    }
+
+    /**
+     * Returns the time spent in the history and in determining transitions
+     * @return
+     */
+    public double getTimeHistory() {
+        return toMillis(statistics.timeHistory);
+    }
+
+    /**
+     * Returns the time spent evaluating privacy models, including sample-based criteria
+     * @return
+     */
+    public double getTimePrivacyModel() {
+        return toMillis(statistics.timePrivacyModel);
+    }
+
+    /**
+     * Returns the time spent enforcing each sample-based privacy criterion
+     * @return
+     */
+    public Map<PrivacyCriterion, Double> getTimeSampleBasedCriteria() {
+        Map<PrivacyCriterion, Double> result = new LinkedHashMap<PrivacyCriterion, Double>();
+        for (int i = 0; i < sampleBasedCriteria.length; i++) {
+            result.put(sampleBasedCriteria[i], toMillis(statistics.timeSampleBasedCriteria[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time spent transforming data
+     * @return
+     */
+    public double getTimeTransformation() {
+        return toMillis(statistics.timeTransformation);
+    }
+
+    /**
+     * Returns the time spent evaluating utility
+     * @return
+     */
+    public double getTimeUtility() {
+        return toMillis(statistics.timeUtility);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Search statistics\n");
+        builder.append(" - Checks: ").append(getNumberOfChecks()).append(" (").append(String.format("%.1f", getChecksPerSecond())).append(" per second), ");
+        builder.append(getNumberOfPrunedTransformations()).append(" pruned\n");
+        builder.append(" - Transitions: ").append(getNumberOfUnoptimizedTransitions()).append(" unoptimized, ");
+        builder.append(getNumberOfRollups()).append(" roll-up, ").append(getNumberOfSnapshotTransitions()).append(" snapshot\n");
+        builder.append(" - Scanned: ").append(getNumberOfRowsScanned()).append(" rows, ").append(getNumberOfClassesScanned()).append(" classes\n");
+        builder.append(" - Classes: ").append(String.format("%.1f", getAverageNumberOfClasses())).append(" on average, ").append(getMaximalNumberOfClasses()).append(" at most\n");
+        builder.append(" - History: ").append(getNumberOfSnapshotHits()).append(" hits, ").append(getNumberOfSnapshotMisses()).append(" misses, ");
+        builder.append(getNumberOfSnapshotsStored()).append(" stored, ").append(getNumberOfSnapshotsEvicted()).append(" evicted, ");
+        builder.append(getNumberOfSnapshotsLoaded()).append(" loaded\n");
+        builder.append(" - Time [ms]: ").append(getDuration()).append(" total, ");
+        builder.append(String.format("%.1f", getTimeHistory())).append(" history, ");
+        builder.append(String.format("%.1f", getTimeTransformation())).append(" transformation, ");
+        builder.append(String.format("%.1f", getTimePrivacyModel())).append(" privacy model, ");
+        builder.append(String.format("%.1f", getTimeUtility())).append(" utility\n");
+        for (Map.Entry<PrivacyCriterion, Long> entry : getNumberOfClassesRejected().entrySet()) {
+            builder.append(" - ").append(entry.getKey()).append(": ").append(entry.getValue()).append(" classes rejected\n");
+        }
+        for (Map.Entry<PrivacyCriterion, Double> entry : getTimeSampleBasedCriteria().entrySet()) {
+            builder.append(" - ").append(entry.getKey()).append(": ").append(String.format("%.1f", entry.getValue())).append(" ms\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds
+     * @param nanos
+     * @return
+     */
+    private double toMillis(long nanos) {
+        return (double) nanos / 1000000d;
+    }
+}
@@ -40,6 +40,9 @@ public class ARXSolverConfiguration extends NewtonRaphsonConfiguration<ARXSolver
     
     /** Modified*/
     private boolean modified = false;
+
+    /** Number of threads, 0 for the default */
+    private int     numThreads = 0;
     
     /**
      * Creates a new instance
@@ -73,9 +76,18 @@ public class ARXSolverConfiguration extends NewtonRaphsonConfiguration<ARXSolver
         result.timePerTry(this.getTimePerTry());
         result.timeTotal(this.getTimeTotal());
         result.preparedStartValues(this.getStartValues().clone());
+        result.numThreads(this.numThreads);
         return result;
     }
 
+    /**
+     * Returns the number of threads used for computing risk estimates
+     * @return
+     */
+    public int getNumThreads() {
+        return this.numThreads > 0 ? this.numThreads : Runtime.getRuntime().availableProcessors();
+    }
+
     /**
      * Modified
      * @return
@@ -110,6 +122,22 @@ public class ARXSolverConfiguration extends NewtonRaphsonConfiguration<ARXSolver
         return super.preparedStartValues(values);
     }
 
+    /**
+     * Sets the number of threads used for computing risk estimates, 0 for the default
+     * @param arg0
+     * @return
+     */
+    public ARXSolverConfiguration numThreads(int arg0) {
+        if (arg0 < 0) {
+            throw new IllegalArgumentException("Number of threads must not be negative");
+        }
+        if (arg0 != this.numThreads) {
+            modified = true;
+        }
+        this.numThreads = arg0;
+        return this;
+    }
+
     /**
      * Modified
      */
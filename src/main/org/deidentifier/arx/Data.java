@@ -139,7 +139,12 @@ public abstract class Data {
 
         @Override
         protected Iterator<String[]> iterator() {
-            return iterator;
+            
+            // The iterator can only be consumed once. Releasing it allows to
+            // garbage collect the underlying parser and its buffers
+            Iterator<String[]> result = iterator;
+            iterator = null;
+            return result;
         }
     }
 
@@ -42,6 +42,7 @@ import org.deidentifier.arx.DataType.ARXDecimal;
 import org.deidentifier.arx.DataType.ARXInteger;
 import org.deidentifier.arx.DataType.DataTypeDescription;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
+import org.deidentifier.arx.io.BinaryDataOutput;
 import org.deidentifier.arx.io.CSVDataOutput;
 import org.deidentifier.arx.io.CSVSyntax;
 import org.deidentifier.arx.risk.RiskEstimateBuilder;
@@ -640,8 +641,7 @@ public abstract class DataHandle {
      */
     public void save(final File file) throws IOException {
         checkRegistry();
-        final CSVDataOutput output = new CSVDataOutput(file);
-        output.write(iterator());
+        write(file, new CSVSyntax());
     }
 
     /**
@@ -653,8 +653,7 @@ public abstract class DataHandle {
      */
     public void save(final File file, final char separator) throws IOException {
         checkRegistry();
-        final CSVDataOutput output = new CSVDataOutput(file, separator);
-        output.write(iterator());
+        write(file, new CSVSyntax(separator));
     }
 
     /**
@@ -666,8 +665,7 @@ public abstract class DataHandle {
      */
     public void save(final File file, final CSVSyntax config) throws IOException {
         checkRegistry();
-        final CSVDataOutput output = new CSVDataOutput(file, config);
-        output.write(iterator());
+        write(file, config);
     }
 
     /**
@@ -678,8 +676,7 @@ public abstract class DataHandle {
      */
     public void save(final OutputStream out) throws IOException {
         checkRegistry();
-        final CSVDataOutput output = new CSVDataOutput(out);
-        output.write(iterator());
+        write(out, new CSVSyntax());
     }
 
     /**
@@ -691,8 +688,7 @@ public abstract class DataHandle {
      */
     public void save(final OutputStream out, final char separator) throws IOException {
         checkRegistry();
-        final CSVDataOutput output = new CSVDataOutput(out, separator);
-        output.write(iterator());
+        write(out, new CSVSyntax(separator));
     }
 
     /**
@@ -704,8 +700,7 @@ public abstract class DataHandle {
      */
     public void save(final OutputStream out, final CSVSyntax config) throws IOException {
         checkRegistry();
-        final CSVDataOutput output = new CSVDataOutput(out, config);
-        output.write(iterator());
+        write(out, config);
     }
 
     /**
@@ -716,8 +711,7 @@ public abstract class DataHandle {
      */
     public void save(final String path) throws IOException {
         checkRegistry();
-        final CSVDataOutput output = new CSVDataOutput(path);
-        output.write(iterator());
+        write(new File(path), new CSVSyntax());
     }
 
     /**
@@ -729,8 +723,7 @@ public abstract class DataHandle {
      */
     public void save(final String path, final char separator) throws IOException {
         checkRegistry();
-        final CSVDataOutput output = new CSVDataOutput(path, separator);
-        output.write(iterator());
+        write(new File(path), new CSVSyntax(separator));
     }
 
     /**
@@ -742,8 +735,33 @@ public abstract class DataHandle {
      */
     public void save(final String path, final CSVSyntax config) throws IOException {
         checkRegistry();
-        final CSVDataOutput output = new CSVDataOutput(path, config);
-        output.write(iterator());
+        write(new File(path), config);
+    }
+
+    /**
+     * Writes the data to a binary file, which stores a dictionary and bit-packed codes
+     * for each column as well as a bitmap marking outliers. The file can be imported with
+     * {@link DataSource#createBinarySource(File)}.
+     *
+     * @param file the file
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void saveBinary(final File file) throws IOException {
+        checkRegistry();
+        writeBinary(file);
+    }
+
+    /**
+     * Writes the data to a binary file, which stores a dictionary and bit-packed codes
+     * for each column as well as a bitmap marking outliers. The file can be imported with
+     * {@link DataSource#createBinarySource(String)}.
+     *
+     * @param path the path
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void saveBinary(final String path) throws IOException {
+        checkRegistry();
+        writeBinary(new File(path));
     }
 
     /**
@@ -952,6 +970,18 @@ public abstract class DataHandle {
         }
     }
 
+    /**
+     * Internal representation of get value, which returns the code of the value in the
+     * dictionary of the given column. Equal codes in a column represent equal values. Suppressed
+     * and removed values are represented by <code>-1</code>.
+     *
+     * @param row the row
+     * @param col the col
+     * @param ignoreSuppression
+     * @return the code
+     */
+    protected abstract int internalGetEncodedValue(int row, int col, boolean ignoreSuppression);
+
     /**
      * Internal representation of get value.
      *
@@ -996,4 +1026,75 @@ public abstract class DataHandle {
     protected void setView(DataHandle handle) {
         subset = handle;
     }
+
+    /**
+     * Writes the data to a CSV file.
+     *
+     * @param file the file
+     * @param config the config
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    protected void write(final File file, final CSVSyntax config) throws IOException {
+        final CSVDataOutput output = new CSVDataOutput(file, config);
+        output.write(iterator());
+    }
+
+    /**
+     * Writes the data to a CSV stream.
+     *
+     * @param out the out
+     * @param config the config
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    protected void write(final OutputStream out, final CSVSyntax config) throws IOException {
+        final CSVDataOutput output = new CSVDataOutput(out, config);
+        output.write(iterator());
+    }
+
+    /**
+     * Writes the data to a binary file.
+     *
+     * @param file the file
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    protected void writeBinary(final File file) throws IOException {
+
+        // Prepare
+        int rows = getNumRows();
+        int columns = getNumColumns();
+        BinaryDataOutput output = new BinaryDataOutput(file, rows, columns);
+
+        try {
+
+            // Write columns
+            for (int column = 0; column < columns; column++) {
+                Map<String, Integer> dictionary = new HashMap<String, Integer>();
+                List<String> values = new ArrayList<String>();
+                int[] codes = new int[rows];
+                for (int row = 0; row < rows; row++) {
+                    String value = internalGetValue(row, column, false);
+                    Integer code = dictionary.get(value);
+                    if (code == null) {
+                        code = values.size();
+                        dictionary.put(value, code);
+                        values.add(value);
+                    }
+                    codes[row] = code;
+                }
+                output.writeColumn(getAttributeName(column), values.toArray(new String[values.size()]), codes);
+            }
+
+            // Write outliers
+            RowSet outliers = RowSet.create(rows);
+            for (int row = 0; row < rows; row++) {
+                if (isOutlier(row)) {
+                    outliers.add(row);
+                }
+            }
+            output.writeOutliers(outliers);
+
+        } finally {
+            output.close();
+        }
+    }
 }
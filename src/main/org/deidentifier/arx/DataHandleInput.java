@@ -17,10 +17,8 @@
 
 package org.deidentifier.arx;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 
 import org.deidentifier.arx.DataHandleInternal.InterruptHandler;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
@@ -77,8 +75,10 @@ public class DataHandleInput extends DataHandle {
         // Init dictionary
         this.dictionary = new Dictionary(header.length);
 
-        // Encode data
-        List<int[]> vals = new ArrayList<int[]>();
+        // Encode data while reading it. Strings are only kept in the dictionary
+        // and rows are written directly into the resulting array
+        int[][] vals = new int[1024][];
+        int rows = 0;
         while (iterator.hasNext()) {
 
             // Process a tuple
@@ -87,11 +87,14 @@ public class DataHandleInput extends DataHandle {
             for (int i = 0; i < strings.length; i++) {
                 tuple[i] = dictionary.register(i, strings[i]);
             }
-            vals.add(tuple);
+            if (rows == vals.length) {
+                vals = Arrays.copyOf(vals, vals.length + (vals.length >> 1));
+            }
+            vals[rows++] = tuple;
         }
 
         // Build array
-        this.data = vals.toArray(new int[vals.size()][]);
+        this.data = rows == vals.length ? vals : Arrays.copyOf(vals, rows);
 
         // finalize dictionary
         this.dictionary.finalizeAll();
@@ -246,6 +249,11 @@ public class DataHandleInput extends DataHandle {
         return this.dataGH;
     }
 
+    @Override
+    protected int internalGetEncodedValue(final int row, final int column, final boolean ignoreSuppression) {
+        return data[row][column];
+    }
+
     @Override
     protected String internalGetValue(final int row, final int column, final boolean ignoreSuppression) {
         return dictionary.getMapping()[column][data[row][column]];
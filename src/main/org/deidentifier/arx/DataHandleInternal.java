@@ -197,6 +197,19 @@ public class DataHandleInternal {
         }
     }
 
+    /**
+     * Returns the code of the value in the dictionary of the given column. Equal codes
+     * represent equal values. In output data, equal values may have different codes, e.g.
+     * suppressed values, which are represented by <code>-1</code>.
+     * @param row
+     * @param column
+     * @param ignoreSuppression
+     * @return
+     */
+    public int getEncodedValue(final int row, final int column, final boolean ignoreSuppression) {
+        return handle.internalGetEncodedValue(row, column, ignoreSuppression);
+    }
+
     /**
      * Method
      * @param row
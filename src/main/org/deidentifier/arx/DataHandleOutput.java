@@ -17,19 +17,39 @@
 
 package org.deidentifier.arx;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.ARXLattice.ARXNode;
 import org.deidentifier.arx.ARXLattice.Anonymity;
 import org.deidentifier.arx.DataHandleInternal.InterruptHandler;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
+import org.deidentifier.arx.common.ThreadPool;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.data.DataManager.AttributeTypeInternal;
 import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.io.BinaryDataOutput;
+import org.deidentifier.arx.io.CSVDataOutput;
+import org.deidentifier.arx.io.CSVSyntax;
 
 /**
  * An implementation of the class DataHandle for output data.
@@ -84,6 +104,208 @@ public class DataHandleOutput extends DataHandle {
         }
     }
 
+    /**
+     * A chunk of work executed by one thread
+     * 
+     * @author Fabian Prasser
+     */
+    private interface Chunk {
+
+        /**
+         * Processes the chunk with the given index
+         * @param chunk
+         * @throws IOException
+         */
+        void run(int chunk) throws IOException;
+    }
+
+    /**
+     * Writes rows as CSV directly from the encoded buffers. Each value of each dictionary
+     * is quoted, escaped and converted to bytes only once. Rows are assembled in a reusable
+     * buffer, which is written to a channel.
+     * 
+     * @author Fabian Prasser
+     */
+    private class CSVEncoder {
+
+        /** Size of the buffer */
+        private static final int BUFFER_SIZE = 1 << 20;
+
+        /** Encoded values per column */
+        private final byte[][][] values;
+
+        /** Buffers per column */
+        private final int[][][]  data;
+
+        /** Indices in buffers per column */
+        private final int[]      indices;
+
+        /** Whether values in the column are removed from suppressed rows */
+        private final boolean[]  suppressible;
+
+        /** Buffer containing outlier flags */
+        private final int[][]    outliers;
+
+        /** Encoded suppressed value */
+        private final byte[]     suppressed;
+
+        /** Encoded delimiter */
+        private final byte[]     delimiter;
+
+        /** Encoded line break */
+        private final byte[]     linebreak;
+
+        /** Encoded header */
+        private final byte[]     header;
+
+        /** Maximal length of an encoded row */
+        private final int        length;
+
+        /**
+         * Creates a new instance
+         * @param config
+         * @param charset
+         */
+        private CSVEncoder(CSVSyntax config, Charset charset) {
+
+            // Prepare
+            int columns = DataHandleOutput.this.header.length;
+            this.values = new byte[columns][][];
+            this.data = new int[columns][][];
+            this.indices = new int[columns];
+            this.suppressible = new boolean[columns];
+            this.outliers = outputGeneralized.getArray();
+            this.suppressed = CSVDataOutput.encode(new String[] { DataType.ANY_VALUE }, config, charset)[0];
+            this.delimiter = String.valueOf(config.getDelimiter()).getBytes(charset);
+            this.linebreak = new String(config.getLinebreak()).getBytes(charset);
+            byte[][] header = CSVDataOutput.encode(DataHandleOutput.this.header, config, charset);
+
+            // Encode dictionaries
+            int length = linebreak.length;
+            int headerLength = linebreak.length;
+            for (int column = 0; column < columns; column++) {
+                int type = inverseMap[column * 2];
+                int max = suppressed.length;
+                if (type != AttributeTypeInternal.IDENTIFYING) {
+                    this.indices[column] = inverseMap[column * 2 + 1];
+                    this.data[column] = inverseData[type];
+                    this.suppressible[column] = (suppressedAttributeTypes & (1 << type)) != 0;
+                    this.values[column] = CSVDataOutput.encode(inverseDictionaries[type].getMapping()[indices[column]], config, charset);
+                    for (byte[] value : values[column]) {
+                        max = Math.max(max, value.length);
+                    }
+                }
+                length += max + (column == 0 ? 0 : delimiter.length);
+                headerLength += header[column].length + (column == 0 ? 0 : delimiter.length);
+            }
+            this.length = length;
+
+            // Encode header
+            ByteBuffer buffer = ByteBuffer.allocate(headerLength);
+            for (int column = 0; column < columns; column++) {
+                if (column != 0) {
+                    buffer.put(delimiter);
+                }
+                buffer.put(header[column]);
+            }
+            buffer.put(linebreak);
+            this.header = buffer.array();
+        }
+
+        /**
+         * Returns the number of bytes of the given range of rows
+         * @param from
+         * @param to
+         * @return
+         */
+        private long getSize(int from, int to) {
+            long size = (long) (to - from) * (long) (linebreak.length + (values.length - 1) * delimiter.length);
+            for (int row = from; row < to; row++) {
+                for (int column = 0; column < values.length; column++) {
+                    size += getValue(row, column).length;
+                }
+            }
+            return size;
+        }
+
+        /**
+         * Returns the encoded value of the given cell
+         * @param row
+         * @param column
+         * @return
+         */
+        private byte[] getValue(int row, int column) {
+            if (values[column] == null || (suppressible[column] && (outliers[row][0] & Data.OUTLIER_MASK) != 0)) {
+                return suppressed;
+            }
+            return values[column][data[column][row][indices[column]] & Data.REMOVE_OUTLIER_MASK];
+        }
+
+        /**
+         * Writes the given range of rows to the channel. If a file channel and a position are
+         * given, data is written to the file at this position, which allows writing chunks
+         * in parallel.
+         * 
+         * @param channel
+         * @param position Position or -1 to write at the channel's current position
+         * @param from
+         * @param to
+         * @throws IOException
+         */
+        private void write(WritableByteChannel channel, long position, int from, int to) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, length));
+            for (int row = from; row < to; row++) {
+                if (buffer.remaining() < length) {
+                    position = write(channel, position, buffer);
+                }
+                for (int column = 0; column < values.length; column++) {
+                    if (column != 0) {
+                        buffer.put(delimiter);
+                    }
+                    buffer.put(getValue(row, column));
+                }
+                buffer.put(linebreak);
+            }
+            write(channel, position, buffer);
+        }
+
+        /**
+         * Writes the header to the channel.
+         * @param channel
+         * @param position Position or -1 to write at the channel's current position
+         * @throws IOException
+         */
+        private void writeHeader(WritableByteChannel channel, long position) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(header);
+            buffer.position(header.length);
+            write(channel, position, buffer);
+        }
+
+        /**
+         * Writes the content of the buffer and clears it. Returns the new position.
+         * @param channel
+         * @param position
+         * @param buffer
+         * @return
+         * @throws IOException
+         */
+        private long write(WritableByteChannel channel, long position, ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                if (position == -1) {
+                    channel.write(buffer);
+                } else {
+                    position += ((FileChannel) channel).write(buffer, position);
+                }
+            }
+            buffer.clear();
+            return position;
+        }
+    }
+
+    /** Minimal number of rows written by each thread */
+    private static final int CHUNK_SIZE = 100000;
+
     /** The data. */
     private Data         inputAnalyzed;
 
@@ -628,6 +850,26 @@ public class DataHandleOutput extends DataHandle {
         return 0;
     }
     
+    @Override
+    protected int internalGetEncodedValue(final int row, 
+                                          final int col,
+                                          final boolean ignoreSuppression) {
+        
+        // Return the according values
+        final int key = col * 2;
+        final int type = inverseMap[key];
+        switch (type) {
+        case AttributeTypeInternal.IDENTIFYING:
+            return -1;
+        default:
+            if (!ignoreSuppression && (suppressedAttributeTypes & (1 << type)) != 0 &&
+                ((outputGeneralized.getArray()[row][0] & Data.OUTLIER_MASK) != 0)) {
+                return -1;
+            }
+            return inverseData[type][row][inverseMap[key + 1]] & Data.REMOVE_OUTLIER_MASK;
+        }
+    }
+    
     /**
      * Gets the value internal.
      * 
@@ -756,4 +998,193 @@ public class DataHandleOutput extends DataHandle {
             }
         }
     }
+
+    /**
+     * Executes the given number of chunks with one thread each.
+     * 
+     * @param threads
+     * @param chunk
+     * @throws IOException
+     */
+    private void runInParallel(int threads, final Chunk chunk) throws IOException {
+
+        // Start
+        ExecutorService executor = ThreadPool.create("ARX CSV export", threads);
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (int i = 0; i < threads; i++) {
+            final int index = i;
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    chunk.run(index);
+                    return null;
+                }
+            }));
+        }
+
+        // Wait and check
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            throw new IOException("Interrupted while writing data");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the data to a CSV file. Data is written directly from the encoded buffers.
+     * Large datasets are split into chunks, which are written to the file in parallel,
+     * using the number of threads specified in the configuration of the anonymization process.
+     *
+     * @param file the file
+     * @param config the config
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Override
+    protected void write(final File file, final CSVSyntax config) throws IOException {
+
+        // Prepare
+        final CSVEncoder encoder = new CSVEncoder(config, Charset.defaultCharset());
+        final int rows = outputGeneralized.getArray().length;
+        final int threads = Math.max(1, Math.min(getConfiguration().getNumThreads(), rows / CHUNK_SIZE));
+        FileOutputStream out = new FileOutputStream(file);
+        final FileChannel channel = out.getChannel();
+
+        try {
+
+            // Header
+            encoder.writeHeader(channel, 0);
+
+            // Single chunk
+            if (threads == 1) {
+                encoder.write(channel, encoder.header.length, 0, rows);
+                return;
+            }
+
+            // Determine chunks
+            final int[] offsets = new int[threads + 1];
+            for (int i = 0; i <= threads; i++) {
+                offsets[i] = (int) ((long) rows * i / threads);
+            }
+
+            // Determine positions
+            final long[] positions = new long[threads + 1];
+            positions[0] = encoder.header.length;
+            runInParallel(threads, new Chunk() {
+                @Override
+                public void run(int chunk) throws IOException {
+                    positions[chunk + 1] = encoder.getSize(offsets[chunk], offsets[chunk + 1]);
+                }
+            });
+            for (int i = 1; i <= threads; i++) {
+                positions[i] += positions[i - 1];
+            }
+
+            // Write
+            runInParallel(threads, new Chunk() {
+                @Override
+                public void run(int chunk) throws IOException {
+                    encoder.write(channel, positions[chunk], offsets[chunk], offsets[chunk + 1]);
+                }
+            });
+
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the data to a CSV stream. Data is written directly from the encoded buffers.
+     *
+     * @param out the out
+     * @param config the config
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Override
+    protected void write(final OutputStream out, final CSVSyntax config) throws IOException {
+        CSVEncoder encoder = new CSVEncoder(config, Charset.defaultCharset());
+        WritableByteChannel channel = Channels.newChannel(out);
+        encoder.writeHeader(channel, -1);
+        encoder.write(channel, -1, 0, outputGeneralized.getArray().length);
+        out.flush();
+    }
+
+    /**
+     * Writes the data to a binary file. Codes are taken directly from the encoded buffers
+     * and compacted to the values that actually occur in each column.
+     *
+     * @param file the file
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Override
+    protected void writeBinary(final File file) throws IOException {
+
+        // Prepare
+        final int[][] outliers = outputGeneralized.getArray();
+        final int rows = outliers.length;
+        BinaryDataOutput output = new BinaryDataOutput(file, rows, header.length);
+
+        try {
+
+            // Write columns
+            int[] codes = new int[rows];
+            for (int column = 0; column < header.length; column++) {
+
+                // Identifying attributes are removed completely
+                int type = inverseMap[column * 2];
+                if (type == AttributeTypeInternal.IDENTIFYING) {
+                    Arrays.fill(codes, 0);
+                    output.writeColumn(header[column], new String[] { DataType.ANY_VALUE }, codes);
+                    continue;
+                }
+
+                // Suppressed values are mapped to the existing code of the suppressed value, if any
+                int index = inverseMap[column * 2 + 1];
+                int[][] data = inverseData[type];
+                String[] mapping = inverseDictionaries[type].getMapping()[index];
+                boolean suppressible = (suppressedAttributeTypes & (1 << type)) != 0;
+                int suppressed = mapping.length;
+                for (int i = 0; i < mapping.length; i++) {
+                    if (mapping[i].equals(DataType.ANY_VALUE)) {
+                        suppressed = i;
+                        break;
+                    }
+                }
+
+                // Compact codes
+                int[] remap = new int[mapping.length + 1];
+                Arrays.fill(remap, -1);
+                List<String> dictionary = new ArrayList<String>();
+                for (int row = 0; row < rows; row++) {
+                    int code = suppressible && (outliers[row][0] & Data.OUTLIER_MASK) != 0 ? suppressed : data[row][index] & Data.REMOVE_OUTLIER_MASK;
+                    if (remap[code] == -1) {
+                        remap[code] = dictionary.size();
+                        dictionary.add(code == mapping.length ? DataType.ANY_VALUE : mapping[code]);
+                    }
+                    codes[row] = remap[code];
+                }
+                output.writeColumn(header[column], dictionary.toArray(new String[dictionary.size()]), codes);
+            }
+
+            // Write outliers
+            RowSet set = RowSet.create(rows);
+            for (int row = 0; row < rows; row++) {
+                if ((outliers[row][0] & Data.OUTLIER_MASK) != 0) {
+                    set.add(row);
+                }
+            }
+            output.writeOutliers(set);
+
+        } finally {
+            output.close();
+        }
+    }
 }
@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -28,6 +29,9 @@ import cern.colt.GenericSorting;
 import cern.colt.Swapper;
 import cern.colt.function.IntComparator;
 
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
 /**
  * This class implements sorting and swapping for a set of paired data handles.
  *
@@ -99,6 +103,204 @@ class DataRegistry {
         return subset;
     }
     
+    /**
+     * Returns the rank of the value of each row in the given range within the order defined by
+     * the data type of the column. Equal values have equal ranks. The order of distinct values is
+     * determined by comparing one representative row per code, which means that values are only
+     * parsed once per code instead of once per comparison. The number of distinct ranks is
+     * returned in the last element of the array.
+     * 
+     * @param handle
+     * @param from
+     * @param to
+     * @param column
+     * @return
+     */
+    private int[] getRanks(final DataHandle handle, final int from, final int to, final int column) {
+        
+        // Collect a representative row for each code
+        int[] result = new int[to - from + 1];
+        IntIntOpenHashMap map = new IntIntOpenHashMap();
+        IntArrayList representatives = new IntArrayList();
+        for (int row = from; row < to; row++) {
+            int code = handle.internalGetEncodedValue(row, column, false);
+            int index = map.get(code) - 1;
+            if (index == -1) {
+                index = representatives.size();
+                representatives.add(row);
+                map.put(code, index + 1);
+            }
+            result[row - from] = index;
+        }
+        
+        // Sort codes by their representatives
+        final int[] rows = representatives.toArray();
+        final int[] order = new int[representatives.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        final int[] columns = new int[] { column };
+        GenericSorting.mergeSort(0, order.length, new IntComparator() {
+            @Override
+            public int compare(int arg0, int arg1) {
+                return handle.internalCompare(rows[order[arg0]], rows[order[arg1]], columns, true);
+            }
+        }, new Swapper() {
+            @Override
+            public void swap(int arg0, int arg1) {
+                int temp = order[arg0];
+                order[arg0] = order[arg1];
+                order[arg1] = temp;
+            }
+        });
+        
+        // Assign ranks
+        int[] ranks = new int[order.length];
+        int rank = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (i > 0 && handle.internalCompare(rows[order[i - 1]], rows[order[i]], columns, true) != 0) {
+                rank++;
+            }
+            ranks[order[i]] = rank;
+        }
+        
+        // Map rows
+        for (int i = 0; i < result.length - 1; i++) {
+            result[i] = ranks[result[i]];
+        }
+        result[result.length - 1] = order.length == 0 ? 0 : rank + 1;
+        return result;
+    }
+
+    /**
+     * Stable sort of the given range of rows. Values are replaced by their ranks, which are packed
+     * into a single key per row and sorted with a radix sort, if possible. Otherwise, the rows are 
+     * sorted by comparing their ranks. The resulting permutation is applied with the given swapper.
+     * 
+     * @param handle
+     * @param swapper
+     * @param from
+     * @param to
+     * @param ascending
+     * @param columns
+     */
+    private void sortByRanks(final DataHandle handle,
+                             final Swapper swapper,
+                             final int from,
+                             final int to,
+                             final boolean ascending,
+                             final int[] columns) {
+        
+        // Check
+        final int size = to - from;
+        if (size < 2) {
+            return;
+        }
+        
+        // Determine ranks
+        final int[][] ranks = new int[columns.length][];
+        int[] bits = new int[columns.length];
+        int width = 0;
+        for (int i = 0; i < columns.length; i++) {
+            ranks[i] = getRanks(handle, from, to, columns[i]);
+            int count = ranks[i][size];
+            if (!ascending) {
+                for (int row = 0; row < size; row++) {
+                    ranks[i][row] = count - 1 - ranks[i][row];
+                }
+            }
+            bits[i] = count <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(count - 1);
+            width += bits[i];
+        }
+        
+        // Sort
+        int[] order;
+        if (width <= 63) {
+            
+            // Pack
+            long[] keys = new long[size];
+            for (int i = 0; i < columns.length; i++) {
+                if (bits[i] != 0) {
+                    for (int row = 0; row < size; row++) {
+                        keys[row] = (keys[row] << bits[i]) | ranks[i][row];
+                    }
+                }
+            }
+            
+            // Radix sort
+            order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            int[] buffer = new int[size];
+            int[] counts = new int[(1 << 16) + 1];
+            for (int shift = 0; shift < width; shift += 16) {
+                Arrays.fill(counts, 0);
+                for (int i = 0; i < size; i++) {
+                    counts[(int) ((keys[i] >>> shift) & 0xFFFF) + 1]++;
+                }
+                for (int i = 1; i < counts.length; i++) {
+                    counts[i] += counts[i - 1];
+                }
+                for (int i = 0; i < size; i++) {
+                    int row = order[i];
+                    buffer[counts[(int) ((keys[row] >>> shift) & 0xFFFF)]++] = row;
+                }
+                int[] temp = order;
+                order = buffer;
+                buffer = temp;
+            }
+        } else {
+            
+            // Merge sort
+            final int[] _order = new int[size];
+            for (int i = 0; i < size; i++) {
+                _order[i] = i;
+            }
+            GenericSorting.mergeSort(0, size, new IntComparator() {
+                @Override
+                public int compare(int arg0, int arg1) {
+                    int row1 = _order[arg0];
+                    int row2 = _order[arg1];
+                    for (int[] column : ranks) {
+                        int cmp = column[row1] - column[row2];
+                        if (cmp != 0) {
+                            return cmp;
+                        }
+                    }
+                    return 0;
+                }
+            }, new Swapper() {
+                @Override
+                public void swap(int arg0, int arg1) {
+                    int temp = _order[arg0];
+                    _order[arg0] = _order[arg1];
+                    _order[arg1] = temp;
+                }
+            });
+            order = _order;
+        }
+        
+        // Apply the permutation. Positions and rows are tracked relative to "from".
+        int[] rowAtPosition = new int[size];
+        int[] positionOfRow = new int[size];
+        for (int i = 0; i < size; i++) {
+            rowAtPosition[i] = i;
+            positionOfRow[i] = i;
+        }
+        for (int i = 0; i < size; i++) {
+            int position = positionOfRow[order[i]];
+            if (position != i) {
+                swapper.swap(from + i, from + position);
+                int row = rowAtPosition[i];
+                rowAtPosition[position] = row;
+                positionOfRow[row] = position;
+                rowAtPosition[i] = order[i];
+                positionOfRow[order[i]] = i;
+            }
+        }
+    }
+
     /**
      * Sort.
      *
@@ -116,15 +318,8 @@ class DataRegistry {
                          final boolean ascending,
                          final int... columns) {
 
-        final DataHandle outer = handle;
         final DataHandleSubset subset = getSubset();
         
-        final IntComparator c = new IntComparator() {
-            @Override
-            public int compare(final int arg0, final int arg1) {
-                return outer.internalCompare(arg0, arg1, columns, ascending);
-            }
-        };
         final Swapper s = new Swapper() {
             @Override
             public void swap(final int arg0, final int arg1) {
@@ -135,7 +330,7 @@ class DataRegistry {
             }
         };
         
-        GenericSorting.mergeSort(from, to, c, s);
+        sortByRanks(handle, s, from, to, ascending, columns);
         
         if (subset != null){
             subset.internalRebuild();
@@ -160,12 +355,6 @@ class DataRegistry {
                               final int... columns) {
 
         final DataHandleSubset outer = handle;
-        final IntComparator c = new IntComparator() {
-            @Override
-            public int compare(final int arg0, final int arg1) {
-                return outer.internalCompare(arg0, arg1, columns, ascending);
-            }
-        };
         final Swapper s = new Swapper() {
             @Override
             public void swap(final int arg0, final int arg1) {
@@ -176,7 +365,7 @@ class DataRegistry {
         };
         
         // No need to swap and rebuild the subset views
-        GenericSorting.mergeSort(from, to, c, s);
+        sortByRanks(handle, s, from, to, ascending, columns);
     }
     
     /**
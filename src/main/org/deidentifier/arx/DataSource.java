@@ -17,20 +17,29 @@
 package org.deidentifier.arx;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+import org.deidentifier.arx.io.ImportColumnBinary;
 import org.deidentifier.arx.io.ImportColumnCSV;
 import org.deidentifier.arx.io.ImportColumnExcel;
 import org.deidentifier.arx.io.ImportColumnJDBC;
 import org.deidentifier.arx.io.ImportConfiguration;
+import org.deidentifier.arx.io.ImportConfigurationBinary;
 import org.deidentifier.arx.io.ImportConfigurationCSV;
 import org.deidentifier.arx.io.ImportConfigurationExcel;
 import org.deidentifier.arx.io.ImportConfigurationJDBC;
 
 /**
- * This class provides configuration options for importing data from CSV-files, from Excel-files
- * or via a JDBC connection.
+ * This class provides configuration options for importing data from CSV-files, from Excel-files,
+ * from binary files or via a JDBC connection.
  *
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -49,6 +58,63 @@ public class DataSource {
         return new DataSource(file, charset, separator, containsHeader);
     }
     
+    /**
+     * Creates a CSV data source from multiple files with the same structure, e.g. shards
+     * of an extract, which are parsed in parallel and imported in the given order. If the
+     * files contain a header, each file must contain the same one. Gzip-compressed files
+     * are decompressed transparently.
+     *
+     * @param files
+     * @param charset
+     * @param separator
+     * @param containsHeader
+     * @return
+     */
+    public static DataSource createCSVSource(File[] files, Charset charset, char separator, boolean containsHeader) {
+        if (files.length == 0) {
+            throw new IllegalArgumentException("No files specified");
+        }
+        DataSource source = new DataSource(files[0], charset, separator, containsHeader);
+        String[] locations = new String[files.length - 1];
+        for (int i = 1; i < files.length; i++) {
+            locations[i - 1] = files[i].getAbsolutePath();
+        }
+        ((ImportConfigurationCSV) source.config).setAdditionalFileLocations(locations);
+        return source;
+    }
+    
+    /**
+     * Creates a CSV data source from all files in the given directory that match the given
+     * glob pattern, e.g. "*.csv.gz". Files are imported in lexicographical order of their names.
+     *
+     * @param directory
+     * @param glob
+     * @param separator
+     * @param containsHeader
+     * @return
+     * @throws IOException
+     */
+    public static DataSource createCSVSource(String directory, String glob, Charset charset, char separator, boolean containsHeader) throws IOException {
+        List<String> names = new ArrayList<String>();
+        DirectoryStream<Path> stream = Files.newDirectoryStream(new File(directory).toPath(), glob);
+        try {
+            for (Path path : stream) {
+                names.add(path.getFileName().toString());
+            }
+        } finally {
+            stream.close();
+        }
+        if (names.isEmpty()) {
+            throw new IOException("No files matching '" + glob + "' found");
+        }
+        Collections.sort(names);
+        File[] files = new File[names.size()];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = new File(directory, names.get(i));
+        }
+        return createCSVSource(files, charset, separator, containsHeader);
+    }
+    
     /**
      * Creates a CSV data source.
      *
@@ -61,6 +127,26 @@ public class DataSource {
         return createCSVSource(new File(file), charset, separator, containsHeader);
     }
     
+    /**
+     * Creates a data source for a binary file written with {@link DataHandle#saveBinary(File)}.
+     *
+     * @param file
+     * @return
+     */
+    public static DataSource createBinarySource(File file) {
+        return new DataSource(file);
+    }
+    
+    /**
+     * Creates a data source for a binary file written with {@link DataHandle#saveBinary(String)}.
+     *
+     * @param file
+     * @return
+     */
+    public static DataSource createBinarySource(String file) {
+        return createBinarySource(new File(file));
+    }
+    
     /**
      * Creates an Excel data source.
      *
@@ -114,6 +200,15 @@ public class DataSource {
     /** The config. */
     private final ImportConfiguration config;
     
+    /**
+     * Creates a binary source.
+     *
+     * @param file
+     */
+    private DataSource(File file) {
+        config = new ImportConfigurationBinary(file.getAbsolutePath());
+    }
+    
     /**
      * Creates a CSV source.
      *
@@ -180,6 +275,8 @@ public class DataSource {
             config.addColumn(new ImportColumnCSV(index, datatype));
         } else if (config instanceof ImportConfigurationExcel) {
             config.addColumn(new ImportColumnExcel(index, datatype));
+        } else if (config instanceof ImportConfigurationBinary) {
+            config.addColumn(new ImportColumnBinary(index, datatype));
         } else if (config instanceof ImportConfigurationJDBC) {
             config.addColumn(new ImportColumnJDBC(index, datatype));
         }
@@ -196,6 +293,8 @@ public class DataSource {
             config.addColumn(new ImportColumnCSV(index, datatype, cleansing));
         } else if (config instanceof ImportConfigurationExcel) {
             config.addColumn(new ImportColumnExcel(index, datatype, cleansing));
+        } else if (config instanceof ImportConfigurationBinary) {
+            config.addColumn(new ImportColumnBinary(index, datatype, cleansing));
         } else if (config instanceof ImportConfigurationJDBC) {
             config.addColumn(new ImportColumnJDBC(index, datatype, cleansing));
         }
@@ -223,6 +322,8 @@ public class DataSource {
             config.addColumn(new ImportColumnCSV(index, alias, datatype));
         } else if (config instanceof ImportConfigurationExcel) {
             config.addColumn(new ImportColumnExcel(index, alias, datatype));
+        } else if (config instanceof ImportConfigurationBinary) {
+            config.addColumn(new ImportColumnBinary(index, alias, datatype));
         } else if (config instanceof ImportConfigurationJDBC) {
             config.addColumn(new ImportColumnJDBC(index, alias, datatype));
         }
@@ -241,6 +342,8 @@ public class DataSource {
             config.addColumn(new ImportColumnCSV(index, alias, datatype, cleansing));
         } else if (config instanceof ImportConfigurationExcel) {
             config.addColumn(new ImportColumnExcel(index, alias, datatype, cleansing));
+        } else if (config instanceof ImportConfigurationBinary) {
+            config.addColumn(new ImportColumnBinary(index, alias, datatype, cleansing));
         } else if (config instanceof ImportConfigurationJDBC) {
             config.addColumn(new ImportColumnJDBC(index, alias, datatype, cleansing));
         }
@@ -266,6 +369,8 @@ public class DataSource {
             config.addColumn(new ImportColumnCSV(name, datatype));
         } else if (config instanceof ImportConfigurationExcel) {
             config.addColumn(new ImportColumnExcel(name, datatype));
+        } else if (config instanceof ImportConfigurationBinary) {
+            config.addColumn(new ImportColumnBinary(name, datatype));
         } else if (config instanceof ImportConfigurationJDBC) {
             config.addColumn(new ImportColumnJDBC(name, datatype));
         }
@@ -283,6 +388,8 @@ public class DataSource {
             config.addColumn(new ImportColumnCSV(name, datatype, cleansing));
         } else if (config instanceof ImportConfigurationExcel) {
             config.addColumn(new ImportColumnExcel(name, datatype, cleansing));
+        } else if (config instanceof ImportConfigurationBinary) {
+            config.addColumn(new ImportColumnBinary(name, datatype, cleansing));
         } else if (config instanceof ImportConfigurationJDBC) {
             config.addColumn(new ImportColumnJDBC(name, datatype, cleansing));
         }
@@ -310,6 +417,8 @@ public class DataSource {
             config.addColumn(new ImportColumnCSV(name, alias, datatype));
         } else if (config instanceof ImportConfigurationExcel) {
             config.addColumn(new ImportColumnExcel(name, alias, datatype));
+        } else if (config instanceof ImportConfigurationBinary) {
+            config.addColumn(new ImportColumnBinary(name, alias, datatype));
         } else if (config instanceof ImportConfigurationJDBC) {
             config.addColumn(new ImportColumnJDBC(name, alias, datatype));
         }
@@ -327,11 +436,40 @@ public class DataSource {
             config.addColumn(new ImportColumnCSV(name, alias, datatype, cleansing));
         } else if (config instanceof ImportConfigurationExcel) {
             config.addColumn(new ImportColumnExcel(name, alias, datatype, cleansing));
+        } else if (config instanceof ImportConfigurationBinary) {
+            config.addColumn(new ImportColumnBinary(name, alias, datatype, cleansing));
         } else if (config instanceof ImportConfigurationJDBC) {
             config.addColumn(new ImportColumnJDBC(name, alias, datatype, cleansing));
         }
     }
     
+    /**
+     * Enables streaming for JDBC sources. Rows are fetched with a forward-only cursor,
+     * the given number of rows at a time.
+     *
+     * @param fetchSize Number of rows to fetch at once, 0 to use the driver's default behavior
+     */
+    public void setFetchSize(int fetchSize) {
+        if (!(config instanceof ImportConfigurationJDBC)) {
+            throw new UnsupportedOperationException("Only supported for JDBC sources");
+        }
+        ((ImportConfigurationJDBC) config).setFetchSize(fetchSize);
+    }
+    
+    /**
+     * Reads ranges of the given integral key column of a JDBC source in parallel
+     * on separate connections. The order in which rows are imported is undefined.
+     *
+     * @param keyColumn
+     * @param numConnections
+     */
+    public void setParallelScan(String keyColumn, int numConnections) {
+        if (!(config instanceof ImportConfigurationJDBC)) {
+            throw new UnsupportedOperationException("Only supported for JDBC sources");
+        }
+        ((ImportConfigurationJDBC) config).setParallelScan(keyColumn, numConnections);
+    }
+    
     /**
      * Returns the configuration.
      *
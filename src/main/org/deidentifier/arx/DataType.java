@@ -131,7 +131,8 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
 
         @Override
         public DataType<Date> clone() {
-            return this;
+            // SimpleDateFormat is not thread-safe, each clone has its own instance
+            return locale == null ? new ARXDate(string) : new ARXDate(string, locale);
         }
 
         @Override
@@ -410,7 +411,11 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
         
         @Override
         public DataType<Double> clone() {
-            return this;
+            // DecimalFormat is not thread-safe, each clone has its own instance
+            if (format == null) {
+                return this;
+            }
+            return locale == null ? new ARXDecimal(string) : new ARXDecimal(string, locale);
         }
 
         @Override
@@ -691,7 +696,11 @@ public abstract class DataType<T> implements Serializable, Comparator<T> {
         
         @Override
         public DataType<Long> clone() {
-            return this;
+            // DecimalFormat is not thread-safe, each clone has its own instance
+            if (format == null) {
+                return this;
+            }
+            return locale == null ? new ARXInteger(string) : new ARXInteger(string, locale);
         }
 
         @Override
@@ -28,8 +28,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
-import org.apache.commons.math3.stat.descriptive.moment.GeometricMean;
 import org.deidentifier.arx.ARXLogisticRegressionConfiguration;
 import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.DataHandleInternal.InterruptHandler;
@@ -38,6 +36,7 @@ import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.DataType.ARXString;
 import org.deidentifier.arx.DataType.DataTypeWithRatioScale;
 import org.deidentifier.arx.aggregates.StatisticsContingencyTable.Entry;
+import org.deidentifier.arx.aggregates.StatisticsSummary.StatisticsSummaryMoments;
 import org.deidentifier.arx.aggregates.StatisticsSummary.StatisticsSummaryOrdinal;
 import org.deidentifier.arx.common.Groupify;
 import org.deidentifier.arx.common.Groupify.Group;
@@ -49,6 +48,8 @@ import cern.colt.GenericSorting;
 import cern.colt.Swapper;
 import cern.colt.function.IntComparator;
 
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
 /**
  * A class offering basic descriptive statistics about data handles.
  *
@@ -681,10 +682,9 @@ public class StatisticsBuilder {
         // Reset stop flag
         interrupt.value = false;
         
-        Map<String, DescriptiveStatistics> statistics = new HashMap<String, DescriptiveStatistics>();
+        Map<String, StatisticsSummaryMoments> statistics = new HashMap<String, StatisticsSummaryMoments>();
         Map<String, StatisticsSummaryOrdinal> ordinal = new HashMap<String, StatisticsSummaryOrdinal>();
         Map<String, DataScale> scales = new HashMap<String, DataScale>();
-        Map<String, GeometricMean> geomean = new HashMap<String, GeometricMean>();
         
         // Detect scales
         for (int col = 0; col < handle.getNumColumns(); col++) {
@@ -706,25 +706,37 @@ public class StatisticsBuilder {
             
             // Store
             scales.put(attribute, scale);
-            statistics.put(attribute, new DescriptiveStatistics());
-            geomean.put(attribute, new GeometricMean());
+            statistics.put(attribute, new StatisticsSummaryMoments());
             ordinal.put(attribute, getSummaryStatisticsOrdinal(handle.getGeneralization(attribute),
                                                                handle.getDataType(attribute),
                                                                handle.getBaseDataType(attribute),
                                                                getHierarchy(col, true)));
         }
         
-        // Compute summary statistics
+        // Count the frequencies of the encoded values of each column. For each code, a
+        // representative row is stored, which is used to obtain the value
+        int numColumns = handle.getNumColumns();
+        IntIntOpenHashMap[] frequencies = new IntIntOpenHashMap[numColumns];
+        IntIntOpenHashMap[] representatives = new IntIntOpenHashMap[numColumns];
+        IntIntOpenHashMap[] nulls = new IntIntOpenHashMap[numColumns];
+        for (int col = 0; col < numColumns; col++) {
+            frequencies[col] = new IntIntOpenHashMap();
+            representatives[col] = new IntIntOpenHashMap();
+            nulls[col] = new IntIntOpenHashMap();
+        }
+        int[] codes = new int[numColumns];
         for (int row = 0; row < handle.getNumRows(); row++) {
             
             // Check, if we should include this row
-            boolean include = true;
-            if (listwiseDeletion) {
-                for (int col = 0; col < handle.getNumColumns(); col++) {
-                    if (handle.isOutlier(row) || DataType.isNull(handle.getValue(row, col))) {
-                        include = false;
-                        break;
+            boolean include = !listwiseDeletion || !handle.isOutlier(row);
+            for (int col = 0; col < numColumns; col++) {
+                codes[col] = handle.getEncodedValue(row, col, false);
+                if (listwiseDeletion && include) {
+                    IntIntOpenHashMap map = nulls[col];
+                    if (!map.containsKey(codes[col])) {
+                        map.put(codes[col], DataType.isNull(handle.getValue(row, col)) ? 1 : 0);
                     }
+                    include = map.get(codes[col]) == 0;
                 }
             }
             
@@ -733,22 +745,35 @@ public class StatisticsBuilder {
             
             // If yes, add
             if (include) {
-                
-                // For each column
-                for (int col = 0; col < handle.getNumColumns(); col++) {
-                    
-                    // Meta
-                    String value = handle.getValue(row, col);
-                    String attribute = handle.getAttributeName(col);
-                    DataType<?> type = handle.getDataType(attribute);
-                    
-                    // Analyze
+                for (int col = 0; col < numColumns; col++) {
+                    if (frequencies[col].putOrAdd(codes[col], 1, 1) == 1) {
+                        representatives[col].put(codes[col], row);
+                    }
+                }
+            }
+        }
+        
+        // Analyze each distinct value once
+        for (int col = 0; col < numColumns; col++) {
+            
+            // Meta
+            String attribute = handle.getAttributeName(col);
+            DataType<?> type = handle.getDataType(attribute);
+            IntIntOpenHashMap map = frequencies[col];
+            
+            // Analyze
+            final int[] keys = map.keys;
+            final int[] values = map.values;
+            final boolean[] allocated = map.allocated;
+            for (int i = 0; i < allocated.length; i++) {
+                if (allocated[i]) {
+                    checkInterrupt();
+                    String value = handle.getValue(representatives[col].get(keys[i]), col);
                     if (!DataType.isAny(value) && !DataType.isNull(value)) {
-                        ordinal.get(attribute).addValue(value);
+                        ordinal.get(attribute).addValue(value, values[i]);
                         if (type instanceof DataTypeWithRatioScale) {
                             double doubleValue = ((DataTypeWithRatioScale) type).toDouble(type.parse(value));
-                            statistics.get(attribute).addValue(doubleValue);
-                            geomean.get(attribute).increment(doubleValue + 1d);
+                            statistics.get(attribute).addValue(doubleValue, values[i]);
                         }
                     }
                 }
@@ -787,7 +812,7 @@ public class StatisticsBuilder {
                                                                type.parse(stats.getMax())));
             } else if (scale == DataScale.INTERVAL) {
                 StatisticsSummaryOrdinal stats = ordinal.get(attribute);
-                DescriptiveStatistics stats2 = statistics.get(attribute);
+                StatisticsSummaryMoments stats2 = statistics.get(attribute);
                 boolean isPeriod = type.getDescription().getWrappedClass() == Date.class;
                 
                 // TODO: Something is wrong with commons math's kurtosis
@@ -826,8 +851,7 @@ public class StatisticsBuilder {
                                                                kurtosis));
             } else if (scale == DataScale.RATIO) {
                 StatisticsSummaryOrdinal stats = ordinal.get(attribute);
-                DescriptiveStatistics stats2 = statistics.get(attribute);
-                GeometricMean geo = geomean.get(attribute);
+                StatisticsSummaryMoments stats2 = statistics.get(attribute);
                 
                 // TODO: Something is wrong with commons math's kurtosis
                 double kurtosis = stats2.getKurtosis();
@@ -863,8 +887,8 @@ public class StatisticsBuilder {
                                                                toString(type, kurtosis, false, false),
                                                                toValue(type, kurtosis),
                                                                kurtosis,
-                                                               toString(type, geo.getResult() - 1d, false, false),
-                                                               toValue(type, geo.getResult() - 1d),
+                                                               toString(type, stats2.getGeometricMeanPlus1() - 1d, false, false),
+                                                               toValue(type, stats2.getGeometricMeanPlus1() - 1d),
                                                                stats2.getGeometricMean()));
             }
         }
@@ -21,14 +21,20 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.ARXLogisticRegressionConfiguration;
 import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.aggregates.classification.ClassificationDataSpecification;
+import org.deidentifier.arx.aggregates.classification.ClassificationFeatureVectors;
 import org.deidentifier.arx.aggregates.classification.ClassificationMethod;
 import org.deidentifier.arx.aggregates.classification.ClassificationResult;
 import org.deidentifier.arx.aggregates.classification.MultiClassLogisticRegression;
 import org.deidentifier.arx.aggregates.classification.MultiClassZeroR;
+import org.deidentifier.arx.common.ThreadPool;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
 
@@ -150,10 +156,10 @@ public class StatisticsClassification {
      * @throws ParseException 
      */
     StatisticsClassification(DataHandleInternal inputHandle,
-                             DataHandleInternal outputHandle,
+                             final DataHandleInternal outputHandle,
                              String[] features,
                              String clazz,
-                             ARXLogisticRegressionConfiguration config,
+                             final ARXLogisticRegressionConfiguration config,
                              WrappedBoolean interrupt) throws ParseException {
 
         // Init
@@ -177,96 +183,94 @@ public class StatisticsClassification {
         }
         
         // TODO: Feature is not used. Continuous variables are treated as categorical.
-        ClassificationDataSpecification specification = new ClassificationDataSpecification(inputHandle, 
+        final ClassificationDataSpecification specification = new ClassificationDataSpecification(inputHandle, 
                                                                                             outputHandle, 
                                                                                             features,
                                                                                             clazz,
                                                                                             interrupt);
         
+        // Encode features once, to be shared by all classifiers
+        final ClassificationFeatureVectors inputVectors = new ClassificationFeatureVectors(inputHandle, specification, config, interrupt);
+        final ClassificationFeatureVectors outputVectors = inputHandle == outputHandle ? null : 
+                                                           new ClassificationFeatureVectors(outputHandle, specification, config, interrupt);
+        
         // Train and evaluate
         int k = inputHandle.getNumRows() > config.getNumFolds() ? config.getNumFolds() : inputHandle.getNumRows();
-        List<List<Integer>> folds = getFolds(inputHandle.getNumRows(), k);
+        final List<List<Integer>> folds = getFolds(inputHandle.getNumRows(), k);
 
         // Track
         int classifications = 0;
         
-        // For each fold as a validation set
-        for (int evaluationFold = 0; evaluationFold < folds.size(); evaluationFold++) {
+        // For each fold as a validation set, classifiers are trained on the input and on the output
+        // concurrently. Results are collected in the order of the folds to obtain deterministic sums
+        List<Future<double[]>> inputResults = new ArrayList<Future<double[]>>();
+        List<Future<double[]>> outputResults = new ArrayList<Future<double[]>>();
+        ExecutorService executor = ThreadPool.create("ARX Classification",
+                                                     Math.min(config.getNumThreads(),
+                                                              outputVectors == null ? folds.size() : 2 * folds.size()));
+        
+        // Try
+        try {
             
-            // Create classifiers
-            ClassificationMethod inputLR = new MultiClassLogisticRegression(specification, config);
-            ClassificationMethod inputZR = new MultiClassZeroR(specification);
-            ClassificationMethod outputLR = null;
-            if (inputHandle != outputHandle) {
-                outputLR = new MultiClassLogisticRegression(specification, config);
+            // Submit
+            for (int fold = 0; fold < folds.size(); fold++) {
+                final int evaluationFold = fold;
+                inputResults.add(executor.submit(new Callable<double[]>() {
+                    @Override
+                    public double[] call() throws Exception {
+                        return evaluate(specification, config, inputVectors, outputHandle, folds, evaluationFold, false);
+                    }
+                }));
+                if (outputVectors != null) {
+                    outputResults.add(executor.submit(new Callable<double[]>() {
+                        @Override
+                        public double[] call() throws Exception {
+                            return evaluate(specification, config, outputVectors, outputHandle, folds, evaluationFold, true);
+                        }
+                    }));
+                }
             }
             
-            // Try
-            try {
+            // Collect
+            for (int evaluationFold = 0; evaluationFold < folds.size(); evaluationFold++) {
                 
-                // Train with all training sets
-                boolean trained = false;
-                for (int trainingFold = 0; trainingFold < folds.size(); trainingFold++) {
-                    if (trainingFold != evaluationFold) {                        
-                        for (int index : folds.get(trainingFold)) {
-                            checkInterrupt();
-                            inputLR.train(inputHandle, outputHandle, index);
-                            inputZR.train(inputHandle, outputHandle, index);
-                            if (outputLR != null && !outputHandle.isOutlier(index)) {
-                                outputLR.train(outputHandle, outputHandle, index);
-                            }
-                            trained = true;
-                        }
-                    }
-                }
+                // Check
+                checkInterrupt();
                 
-                // Close
-                inputLR.close();
-                inputZR.close();
-                if (outputLR != null) {
-                    outputLR.close();
-                }
+                double[] resultsInput = inputResults.get(evaluationFold).get();
+                double[] resultsOutput = outputVectors == null ? null : outputResults.get(evaluationFold).get();
                 
-                // Now validate
-                for (int index : folds.get(evaluationFold)) {
+                // If trained
+                for (int i = 0; i < resultsInput.length; i += 5) {
+                    classifications++;
                     
-                    // Check
-                    checkInterrupt();
+                    // Maintain data about inputZR
+                    this.zeroRAverageError += resultsInput[i + 3];
+                    this.zeroRAccuracy += resultsInput[i + 4];
                     
-                    // If trained
-                    if (trained) {
-                        
-                        // Classify
-                        ClassificationResult resultInputLR = inputLR.classify(inputHandle, index);
-                        ClassificationResult resultInputZR = inputZR.classify(inputHandle, index);
-                        ClassificationResult resultOutputLR = outputLR == null ? null : outputLR.classify(outputHandle, index);
-                        classifications++;
-                        
-                        // Correct result
-                        String actualValue = outputHandle.getValue(index, specification.classIndex, true);
-                        
-                        // Maintain data about inputZR
-                        this.zeroRAverageError += resultInputZR.error(actualValue);
-                        this.zeroRAccuracy += resultInputZR.correct(actualValue) ? 1d : 0d;
-
-                        // Maintain data about inputLR
-                        boolean correct = resultInputLR.correct(actualValue);
-                        this.originalAverageError += resultInputLR.error(actualValue);
-                        this.originalAccuracy += correct ? 1d : 0d;
-                        this.originalMatrix.add(resultInputLR.confidence(), correct);
-
-                        // Maintain data about outputLR                        
-                        if (resultOutputLR != null) {
-                            correct = resultOutputLR.correct(actualValue);
-                            this.averageError += resultOutputLR.error(actualValue);
-                            this.accuracy += correct ? 1d : 0d;
-                            this.matrix.add(resultOutputLR.confidence(), correct);
-                        }
+                    // Maintain data about inputLR
+                    this.originalAverageError += resultsInput[i];
+                    this.originalAccuracy += resultsInput[i + 1];
+                    this.originalMatrix.add(resultsInput[i + 2], resultsInput[i + 1] == 1d);
+                    
+                    // Maintain data about outputLR
+                    if (resultsOutput != null) {
+                        int j = i / 5 * 3;
+                        this.averageError += resultsOutput[j];
+                        this.accuracy += resultsOutput[j + 1];
+                        this.matrix.add(resultsOutput[j + 2], resultsOutput[j + 1] == 1d);
                     }
                 }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
             }
+        } catch (InterruptedException e) {
+            throw new ComputationInterruptedException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ComputationInterruptedException) {
+                throw (ComputationInterruptedException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
         
         
@@ -413,6 +417,90 @@ public class StatisticsClassification {
         }
     }
     
+    /**
+     * Trains classifiers with all folds except the given one and evaluates them with the
+     * given fold. Returns the error, correctness and confidence of logistic regression for
+     * each classified row. When evaluating the input, the error and correctness of ZeroR
+     * are returned as well. Rows are only classified if training data is available.
+     * 
+     * @param specification
+     * @param config
+     * @param vectors The features
+     * @param classHandle The classes
+     * @param folds
+     * @param evaluationFold
+     * @param output Whether the output is evaluated
+     * @return
+     */
+    private double[] evaluate(ClassificationDataSpecification specification,
+                              ARXLogisticRegressionConfiguration config,
+                              ClassificationFeatureVectors vectors,
+                              DataHandleInternal classHandle,
+                              List<List<Integer>> folds,
+                              int evaluationFold,
+                              boolean output) {
+        
+        // Create classifiers
+        DataHandleInternal handle = vectors.getHandle();
+        ClassificationMethod lr = new MultiClassLogisticRegression(specification, config, vectors);
+        ClassificationMethod zr = output ? null : new MultiClassZeroR(specification);
+        
+        // Train with all training sets
+        boolean trained = false;
+        for (int trainingFold = 0; trainingFold < folds.size(); trainingFold++) {
+            if (trainingFold != evaluationFold) {                        
+                for (int index : folds.get(trainingFold)) {
+                    checkInterrupt();
+                    if (!output || !handle.isOutlier(index)) {
+                        lr.train(handle, classHandle, index);
+                    }
+                    if (zr != null) {
+                        zr.train(handle, classHandle, index);
+                    }
+                    trained = true;
+                }
+            }
+        }
+        
+        // Close
+        lr.close();
+        if (zr != null) {
+            zr.close();
+        }
+        
+        // If trained
+        if (!trained) {
+            return new double[0];
+        }
+        
+        // Now validate
+        int width = output ? 3 : 5;
+        List<Integer> fold = folds.get(evaluationFold);
+        double[] results = new double[fold.size() * width];
+        int offset = 0;
+        for (int index : fold) {
+            
+            // Check
+            checkInterrupt();
+            
+            // Correct result
+            String actualValue = classHandle.getValue(index, specification.classIndex, true);
+            
+            // Classify
+            ClassificationResult resultLR = lr.classify(handle, index);
+            results[offset] = resultLR.error(actualValue);
+            results[offset + 1] = resultLR.correct(actualValue) ? 1d : 0d;
+            results[offset + 2] = resultLR.confidence();
+            if (zr != null) {
+                ClassificationResult resultZR = zr.classify(handle, index);
+                results[offset + 3] = resultZR.error(actualValue);
+                results[offset + 4] = resultZR.correct(actualValue) ? 1d : 0d;
+            }
+            offset += width;
+        }
+        return results;
+    }
+    
     /**
      * Creates the folds
      * @param length
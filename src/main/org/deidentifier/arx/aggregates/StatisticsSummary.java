@@ -20,7 +20,9 @@ import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.deidentifier.arx.DataScale;
 import org.deidentifier.arx.DataType;
@@ -33,6 +35,133 @@ import org.deidentifier.arx.DataType.DataTypeWithRatioScale;
  */
 public class StatisticsSummary<T> {
     
+    /**
+     * Summary statistics for variables with interval or ratio scale. Moments are
+     * accumulated in a single pass, without storing the values.
+     * @author Fabian Prasser
+     *
+     */
+    static final class StatisticsSummaryMoments {
+
+        /** Var */
+        private double n           = 0d;
+        /** Var */
+        private double mean        = 0d;
+        /** Var */
+        private double m2          = 0d;
+        /** Var */
+        private double m3          = 0d;
+        /** Var */
+        private double m4          = 0d;
+        /** Var */
+        private double min         = Double.NaN;
+        /** Var */
+        private double max         = Double.NaN;
+        /** Var */
+        private double logSum      = 0d;
+        /** Var */
+        private double logSumPlus1 = 0d;
+
+        /**
+         * Adds a value, which occurs the given number of times
+         * @param value
+         * @param count
+         */
+        public void addValue(double value, int count) {
+
+            // Update central moments by combining with a sample of identical values
+            double na = n;
+            double nb = count;
+            double nn = na + nb;
+            double delta = value - mean;
+            double delta2 = delta * delta;
+            m4 += delta2 * delta2 * na * nb * (na * na - na * nb + nb * nb) / (nn * nn * nn) +
+                  6d * delta2 * nb * nb * m2 / (nn * nn) -
+                  4d * delta * nb * m3 / nn;
+            m3 += delta2 * delta * na * nb * (na - nb) / (nn * nn) -
+                  3d * delta * nb * m2 / nn;
+            m2 += delta2 * na * nb / nn;
+            mean += delta * nb / nn;
+            n = nn;
+
+            // Update other statistics
+            min = Double.isNaN(min) ? value : Math.min(min, value);
+            max = Double.isNaN(max) ? value : Math.max(max, value);
+            logSum += nb * Math.log(value);
+            logSumPlus1 += nb * Math.log(value + 1d);
+        }
+
+        /**
+         * Returns the geometric mean
+         * @return
+         */
+        public double getGeometricMean() {
+            return n == 0d ? Double.NaN : Math.exp(logSum / n);
+        }
+
+        /**
+         * Returns the geometric mean of all values plus one, which is defined for zero values
+         * @return
+         */
+        public double getGeometricMeanPlus1() {
+            return n == 0d ? Double.NaN : Math.exp(logSumPlus1 / n);
+        }
+
+        /**
+         * Returns the bias-corrected kurtosis, as computed by commons math
+         * @return
+         */
+        public double getKurtosis() {
+            if (n <= 3d) {
+                return Double.NaN;
+            }
+            double variance = getVariance();
+            double coefficientOne = (n * (n + 1d)) / ((n - 1d) * (n - 2d) * (n - 3d));
+            double termTwo = (3d * (n - 1d) * (n - 1d)) / ((n - 2d) * (n - 3d));
+            return coefficientOne * (m4 / (variance * variance)) - termTwo;
+        }
+
+        /**
+         * Returns the maximum
+         * @return
+         */
+        public double getMax() {
+            return max;
+        }
+
+        /**
+         * Returns the arithmetic mean
+         * @return
+         */
+        public double getMean() {
+            return n == 0d ? Double.NaN : mean;
+        }
+
+        /**
+         * Returns the minimum
+         * @return
+         */
+        public double getMin() {
+            return min;
+        }
+
+        /**
+         * Returns the population variance
+         * @return
+         */
+        public double getPopulationVariance() {
+            return n == 0d ? Double.NaN : m2 / n;
+        }
+
+        /**
+         * Returns the bias-corrected sample variance
+         * @return
+         */
+        public double getVariance() {
+            return n == 0d ? Double.NaN : (n == 1d ? 0d : m2 / (n - 1d));
+        }
+    }
+    
     /**
      * Summary statistics for variables with ordinal scale
      * @author Fabian Prasser
@@ -43,7 +172,7 @@ public class StatisticsSummary<T> {
         /** Var */
         private final Comparator<String> comparator;
         /** Var */
-        private final List<String>       values = new ArrayList<String>();
+        private final Map<String, Integer> values = new HashMap<String, Integer>();
         /** Var */
         private String                   mode;
         /** Var */
@@ -125,18 +254,19 @@ public class StatisticsSummary<T> {
         }
 
         /**
-         * Returns the index of the next element that does not equal the element at the given index
+         * Returns the element at the given position in the sorted list of values
          * @param index
-         * @param values
+         * @param sorted Distinct values
          * @return
          */
-        private int moveWhileEqual(int index, List<String> values) {
-            String element = values.get(index);
-            // We can do == because of dictionary compression
-            while (index < values.size() && values.get(index) == element) { 
-                index++;
+        private String get(int index, List<String> sorted) {
+            for (String value : sorted) {
+                index -= values.get(value);
+                if (index < 0) {
+                    return value;
+                }
             }
-            return index;
+            throw new IndexOutOfBoundsException();
         }
 
         /**
@@ -144,7 +274,17 @@ public class StatisticsSummary<T> {
          * @param value
          */
         public void addValue(String value) {
-            this.values.add(value);
+            addValue(value, 1);
+        }
+
+        /**
+         * Adds a value, which occurs the given number of times
+         * @param value
+         * @param count
+         */
+        public void addValue(String value, int count) {
+            Integer previous = this.values.get(value);
+            this.values.put(value, previous == null ? count : previous + count);
         }
         
         /**
@@ -158,9 +298,14 @@ public class StatisticsSummary<T> {
          * Analyzes the data
          */
         <T> void analyze() {
-            Collections.sort(values, comparator);
+            List<String> sorted = new ArrayList<String>(values.keySet());
+            Collections.sort(sorted, comparator);
+            int size = 0;
+            for (Integer count : values.values()) {
+                size += count;
+            }
             
-            if (values.size() == 0) {
+            if (size == 0) {
                 min = DataType.NULL_VALUE;
                 max = DataType.NULL_VALUE;
                 mode = DataType.NULL_VALUE;
@@ -169,41 +314,38 @@ public class StatisticsSummary<T> {
             } else {
                 
                 // Determine simple things
-                min = values.get(0);
-                max = values.get(values.size() - 1);
-                if (values.size() % 2 == 1) {
-                    median = values.get(values.size() / 2);
+                min = sorted.get(0);
+                max = sorted.get(sorted.size() - 1);
+                if (size % 2 == 1) {
+                    median = get(size / 2, sorted);
                 } else if (type != null && type instanceof DataTypeWithRatioScale<?>) {
                     @SuppressWarnings("unchecked")
                     DataType<T> dType = (DataType<T>)type;
                     @SuppressWarnings("unchecked")
                     DataTypeWithRatioScale<T> rType = (DataTypeWithRatioScale<T>)dType;
-                    double median1 = rType.toDouble(dType.parse(values.get(values.size() / 2 - 1)));
-                    double median2 = rType.toDouble(dType.parse(values.get(values.size() / 2)));
+                    double median1 = rType.toDouble(dType.parse(get(size / 2 - 1, sorted)));
+                    double median2 = rType.toDouble(dType.parse(get(size / 2, sorted)));
                     median = dType.format(rType.fromDouble((median1 + median2) / 2d));
                 } else {
-                    String median1 = values.get(values.size() / 2 - 1);
-                    String median2 = values.get(values.size() / 2);
+                    String median1 = get(size / 2 - 1, sorted);
+                    String median2 = get(size / 2, sorted);
                     if (median1 == median2) {
                         median = median1;
                     } else {
                         median = DataType.NULL_VALUE;
                     }
                 }
-                numberOfMeasures = values.size();
+                numberOfMeasures = size;
                 
                 // Determine mode
                 int count = 0;
-                int index = 0;
-                mode = values.get(0);
-                while (index < values.size()) {
-                    int nIndex = moveWhileEqual(index, values);
-                    int nCount = nIndex - index;
+                mode = sorted.get(0);
+                for (String value : sorted) {
+                    int nCount = values.get(value);
                     if (nCount > count) {
-                        mode = values.get(index);
+                        mode = value;
                         count = nCount;
                     }
-                    index = nIndex;
                 }
             }
             
@@ -0,0 +1,166 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.aggregates.classification;
+
+import org.apache.mahout.math.DenseVector;
+import org.apache.mahout.math.Vector;
+import org.apache.mahout.math.Vector.Element;
+import org.apache.mahout.vectorizer.encoders.ConstantValueEncoder;
+import org.apache.mahout.vectorizer.encoders.StaticWordValueEncoder;
+import org.deidentifier.arx.ARXLogisticRegressionConfiguration;
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.common.WrappedBoolean;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
+
+/**
+ * Hashed feature vectors for all rows of a data handle. Features are encoded once
+ * and can then be shared by all classifiers that are trained or evaluated with the
+ * handle, e.g. for each fold of a cross validation. Vectors are stored sparsely.
+ *
+ * @author Fabian Prasser
+ */
+public class ClassificationFeatureVectors {
+
+    /**
+     * Encodes the features of the given row
+     * @param specification
+     * @param handle
+     * @param row
+     * @param interceptEncoder
+     * @param wordEncoder
+     * @param vector
+     */
+    static void encode(ClassificationDataSpecification specification,
+                       DataHandleInternal handle,
+                       int row,
+                       ConstantValueEncoder interceptEncoder,
+                       StaticWordValueEncoder wordEncoder,
+                       Vector vector) {
+
+        // Prepare
+        interceptEncoder.addToVector("1", vector);
+
+        // Special case where there are no features
+        if (specification.featureIndices.length == 0) {
+            wordEncoder.addToVector("Feature:1", 1, vector);
+            return;
+        }
+
+        // TODO: Consider difference between continuous and categorical
+
+        // For each attribute
+        for (int index : specification.featureIndices) {
+
+            // Obtain data
+            String name = "Attribute-"+index;
+            String value = handle.getValue(row, index, true);
+            wordEncoder.addToVector(name + ":" + value, 1, vector);
+        }
+    }
+
+    /** Handle */
+    private final DataHandleInternal handle;
+    /** Indices of non-zero elements */
+    private final int[][]            indices;
+    /** Values of non-zero elements */
+    private final double[][]         values;
+    /** Length */
+    private final int                length;
+
+    /**
+     * Creates a new instance
+     * @param handle
+     * @param specification
+     * @param config
+     * @param interrupt
+     */
+    public ClassificationFeatureVectors(DataHandleInternal handle,
+                                        ClassificationDataSpecification specification,
+                                        ARXLogisticRegressionConfiguration config,
+                                        WrappedBoolean interrupt) {
+
+        // Store
+        this.handle = handle;
+        this.length = config.getVectorLength();
+        this.indices = new int[handle.getNumRows()][];
+        this.values = new double[handle.getNumRows()][];
+
+        // Prepare
+        ConstantValueEncoder interceptEncoder = new ConstantValueEncoder("intercept");
+        StaticWordValueEncoder wordEncoder = new StaticWordValueEncoder("feature");
+        DenseVector vector = new DenseVector(length);
+
+        // Encode each row
+        for (int row = 0; row < indices.length; row++) {
+
+            // Check
+            if (interrupt.value) {
+                throw new ComputationInterruptedException("Interrupted");
+            }
+
+            // Encode
+            encode(specification, handle, row, interceptEncoder, wordEncoder, vector);
+            int size = vector.getNumNonZeroElements();
+            indices[row] = new int[size];
+            values[row] = new double[size];
+            int index = 0;
+            for (Element element : vector.nonZeroes()) {
+                indices[row][index] = element.index();
+                values[row][index] = element.get();
+                index++;
+            }
+
+            // Reset
+            for (int i : indices[row]) {
+                vector.setQuick(i, 0d);
+            }
+        }
+    }
+
+    /**
+     * Returns the handle
+     * @return
+     */
+    public DataHandleInternal getHandle() {
+        return handle;
+    }
+
+    /**
+     * Returns the length of the vectors
+     * @return
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Writes the vector of the given row into the given vector, which must
+     * only contain zeros. Returns the indices of all non-zero elements,
+     * which must be reset by the caller.
+     * @param row
+     * @param vector
+     * @return
+     */
+    public int[] get(int row, Vector vector) {
+        int[] indices = this.indices[row];
+        double[] values = this.values[row];
+        for (int i = 0; i < indices.length; i++) {
+            vector.setQuick(indices[i], values[i]);
+        }
+        return indices;
+    }
+}
@@ -45,6 +45,12 @@ public class MultiClassLogisticRegression implements ClassificationMethod {
     private final ClassificationDataSpecification    specification;
     /** Encoder */
     private final StaticWordValueEncoder             wordEncoder;
+    /** Pre-encoded features, may be null */
+    private final ClassificationFeatureVectors       vectors;
+    /** Buffer for pre-encoded features */
+    private final DenseVector                        buffer;
+    /** Non-zero elements of the buffer */
+    private int[]                                    bufferIndices;
 
     /**
      * Creates a new instance
@@ -53,10 +59,25 @@ public class MultiClassLogisticRegression implements ClassificationMethod {
      */
     public MultiClassLogisticRegression(ClassificationDataSpecification specification,
                                         ARXLogisticRegressionConfiguration config) {
+        this(specification, config, null);
+    }
+
+    /**
+     * Creates a new instance, which uses the given pre-encoded features
+     * when being trained or evaluated with their handle
+     * @param specification
+     * @param config
+     * @param vectors
+     */
+    public MultiClassLogisticRegression(ClassificationDataSpecification specification,
+                                        ARXLogisticRegressionConfiguration config,
+                                        ClassificationFeatureVectors vectors) {
 
         // Store
         this.config = config;
         this.specification = specification;
+        this.vectors = vectors;
+        this.buffer = vectors == null ? null : new DenseVector(vectors.getLength());
         
         // Prepare classifier
         PriorFunction prior = null;
@@ -130,28 +151,20 @@ public class MultiClassLogisticRegression implements ClassificationMethod {
      */
     private Vector encodeFeatures(DataHandleInternal handle, int row) {
 
-        // Prepare
-        DenseVector vector = new DenseVector(config.getVectorLength());
-        interceptEncoder.addToVector("1", vector);
-        
-        // Special case where there are no features
-        if (specification.featureIndices.length == 0) {
-            wordEncoder.addToVector("Feature:1", 1, vector);
-            return vector;
-        }
-        
-        // TODO: Consider difference between continuous and categorical
-        
-        // For each attribute
-        for (int index : specification.featureIndices) {
-            
-            // Obtain data
-            String name = "Attribute-"+index;
-            String value = handle.getValue(row, index, true);
-            wordEncoder.addToVector(name + ":" + value, 1, vector);
+        // Use pre-encoded features
+        if (vectors != null && vectors.getHandle() == handle) {
+            if (bufferIndices != null) {
+                for (int index : bufferIndices) {
+                    buffer.setQuick(index, 0d);
+                }
+            }
+            bufferIndices = vectors.get(row, buffer);
+            return buffer;
         }
-        
-        // Return
+
+        // Encode
+        DenseVector vector = new DenseVector(config.getVectorLength());
+        ClassificationFeatureVectors.encode(specification, handle, row, interceptEncoder, wordEncoder, vector);
         return vector;
     }
 }
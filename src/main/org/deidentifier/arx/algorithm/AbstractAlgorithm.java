@@ -20,6 +20,7 @@ package org.deidentifier.arx.algorithm;
 import org.deidentifier.arx.ARXListener;
 import org.deidentifier.arx.ARXConfiguration.Monotonicity;
 import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.NodeCheckerPool;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
@@ -43,9 +44,15 @@ public abstract class AbstractAlgorithm {
     /** The listener */
     private ARXListener      listener               = null;
 
+    /** A transformation to check before the search starts, if any */
+    private int[]              warmStart              = null;
+
     /** A node checker. */
     protected NodeChecker      checker                = null;
 
+    /** A pool of node checkers for concurrent checks, if any. */
+    protected NodeCheckerPool  pool                   = null;
+
     /** The lattice. */
     protected SolutionSpace    solutionSpace          = null;
 
@@ -70,6 +77,33 @@ public abstract class AbstractAlgorithm {
         return globalOptimum;
     }
 
+    /**
+     * Returns the number of transformations which have been pruned because of insufficient utility.
+     * Algorithms which do not keep track of this return zero.
+     *
+     * @return
+     */
+    public int getNumPrunedTransformations() {
+        return 0;
+    }
+
+    /**
+     * Returns the transformation to check before the search starts, if any
+     * 
+     * @return
+     */
+    protected Transformation getWarmStart() {
+        return this.warmStart == null ? null : solutionSpace.getTransformation(this.warmStart);
+    }
+
+    /**
+     * Sets a pool of node checkers, which may be used for checking transformations concurrently
+     * @param pool
+     */
+    public void setCheckerPool(NodeCheckerPool pool) {
+        this.pool = pool;
+    }
+
     /**
      * Sets a listener
      * @param listener
@@ -77,6 +111,15 @@ public abstract class AbstractAlgorithm {
     public void setListener(ARXListener listener) {
         this.listener = listener;
     }
+
+    /**
+     * Sets a transformation, typically the optimum of a previous execution on similar data, which
+     * will be checked before the search starts. If it is private, it serves as an initial optimum.
+     * @param generalization
+     */
+    public void setWarmStart(int[] generalization) {
+        this.warmStart = generalization;
+    }
     
     /**
      * Implement this method in order to provide a new algorithm.
@@ -65,6 +65,9 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
     /** The number of checked transformations */
     private int                        checked = 0;
 
+    /** The number of transformations which have been pruned because of insufficient utility */
+    private int                        pruned  = 0;
+
     /**
      * Creates a new instance.
      *
@@ -83,6 +86,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             throw new IllegalArgumentException();
         }
         this.checked = 0;
+        this.pruned = 0;
         this.solutionSpace.setAnonymityPropertyPredictable(config.isAnonymityPropertyPredicable());
         this.strategy = strategy;
         this.sortedSuccessors = new int[(int)solutionSpace.getSize()][];
@@ -104,6 +108,9 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // Set some triggers
         checker.getHistory().setStorageStrategy(config.getSnapshotStorageStrategy());
+        if (pool != null) {
+            pool.setStorageStrategy(config.getSnapshotStorageStrategy());
+        }
 
         // Initialize
         PriorityQueue<Integer> queue = new PriorityQueue<Integer>(solutionSpace.getTop().getLevel() + 1, strategy);
@@ -114,9 +121,17 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         NodeChecker.Result result = checker.check(bottom);
         bottom.setProperty(solutionSpace.getPropertyForceSnapshot());
         bottom.setData(result);
+        
+        // Check the transformation known from a previous execution, if any
+        Transformation warmStart = getWarmStart();
+        if (warmStart != null && !skip(outerLoopConfiguration.getTriggerSkip(), warmStart)) {
+            checkAndTag(warmStart, outerLoopConfiguration);
+        }
 
         // For each node in the lattice
         for (int level = bottom.getLevel(); level <= top.getLevel(); level++) {
+            
+            // For each node on the level
             for (int id : getSortedUnprocessedNodes(level, outerLoopConfiguration.getTriggerSkip())) {
 
                 // Run the correct phase
@@ -264,6 +279,17 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return lastAnonymousTransformation;
     }
 
+    /**
+     * Returns the number of transformations which have been pruned because of insufficient utility.
+     * The transformations above them in the lattice have been discarded as well.
+     *
+     * @return
+     */
+    @Override
+    public int getNumPrunedTransformations() {
+        return pruned;
+    }
+
     /**
      * Greedily finds a path to the top node.
      *
@@ -332,19 +358,66 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Check and tag
             checkAndTag(transformation, config.getLinearPhaseConfiguration());
 
+            // Check independent successors concurrently
+            int[] successors = getSortedSuccessors(transformation);
+            Transformation[] prechecked = pool != null ? precheck(successors, config.getLinearPhaseConfiguration()) : null;
+
             // DFS
-            for (final int child : getSortedSuccessors(transformation)) {
+            for (final int child : successors) {
                 Transformation childTransformation = solutionSpace.getTransformation(child);
                 if (!skip(triggerSkip, childTransformation)) {
                     linearSearch(childTransformation);
                 }
             }
+            
+            // Remove results that have not been used
+            if (prechecked != null) {
+                for (Transformation successor : prechecked) {
+                    successor.setData(null);
+                }
+            }
         }
 
         // Mark as successors pruned
         transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
     }
 
+    /**
+     * Checks all of the given transformations which will potentially be checked by the given phase
+     * concurrently with the pool of checkers. Successors of a transformation are independent of 
+     * each other. The results are attached to the transformations and picked up by the checker when 
+     * the transformations are visited in the given order, which means that tags are applied in the same 
+     * order as without concurrent checks.
+     * 
+     * @param nodes
+     * @param configuration
+     * @return The transformations that have been checked
+     */
+    private Transformation[] precheck(int[] nodes, FLASHPhaseConfiguration configuration) {
+        
+        // Collect
+        List<Transformation> list = new ArrayList<Transformation>();
+        for (int id : nodes) {
+            Transformation transformation = solutionSpace.getTransformation(id);
+            if (!configuration.getTriggerSkip().appliesTo(transformation) &&
+                !configuration.getTriggerEvaluate().appliesTo(transformation) && 
+                configuration.getTriggerCheck().appliesTo(transformation) &&
+                transformation.getData() == null) {
+                list.add(transformation);
+            }
+        }
+        
+        // Check and attach results
+        Transformation[] transformations = list.toArray(new Transformation[list.size()]);
+        if (transformations.length > 1) {
+            NodeChecker.Result[] results = pool.check(transformations);
+            for (int i = 0; i < transformations.length; i++) {
+                transformations[i].setData(results[i]);
+            }
+        }
+        return transformations;
+    }
+
     /**
      * We may be able to prune some transformations based on weak lower bounds on
      * the monotonic share of a node's information loss.
@@ -387,6 +460,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             if (optimalInfoLoss.compareTo(node.getLowerBound()) <= 0) {
                 node.setProperty(solutionSpace.getPropertyInsufficientUtility());
                 node.setProperty(solutionSpace.getPropertySuccessorsPruned());
+                pruned++;
                 // Else, we store it as a future pruning candidate
             } else {
                 potentiallyInsufficientUtility.add((int)node.getIdentifier());
@@ -409,6 +483,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 } else if (optimalInfoLoss.compareTo(currentTransformation.getLowerBound()) <= 0) {
                     currentTransformation.setProperty(solutionSpace.getPropertyInsufficientUtility());
                     currentTransformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+                    pruned++;
                     iterator.remove();
                 }
             }
@@ -461,6 +536,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 if (getGlobalOptimum().getInformationLoss().compareTo(lowerBound) <= 0) {
                     transformation.setProperty(solutionSpace.getPropertyInsufficientUtility());
                     transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+                    pruned++;
                     return true;
                 }
             }
@@ -17,8 +17,13 @@
 
 package org.deidentifier.arx.algorithm;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.PriorityQueue;
+import java.util.Set;
 
 import org.deidentifier.arx.framework.check.NodeChecker;
 import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
@@ -29,6 +34,13 @@ import cern.colt.list.LongArrayList;
 import de.linearbits.jhpl.PredictiveProperty;
 
 /**
+ * A best-first search, which is bounded by a time limit. If a pool of checkers is available,
+ * further transformations are taken from the queue and expanded together, one per checker,
+ * and all of their successors are checked concurrently. Results are applied to the solution 
+ * space, the queue and the global optimum by the calling thread, so that all checkers share
+ * the current optimum. Progress is reported to the listener after each check. The histories
+ * of the checkers in the pool keep their default storage strategy, because their snapshots
+ * are only reused if the same checker is assigned a successor later on.
  * 
  * @author Fabian Prasser
  * @author Raffael Bild
@@ -91,6 +103,9 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         });
         Transformation bottom = solutionSpace.getBottom();
         assureChecked(bottom);
+        if (getWarmStart() != null) {
+            assureChecked(getWarmStart());
+        }
         queue.add(bottom.getIdentifier());
         Transformation next;
         int step = 0;
@@ -101,8 +116,10 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
                 step++;
                 if (step % stepping == 0) {
                     dfs(queue, next);
-                } else {
+                } else if (pool == null) {
                     expand(queue, next);
+                } else {
+                    step = expandConcurrently(queue, next, step);
                 }
                 if (getTime() > timeLimit) {
                     return;
@@ -120,7 +137,8 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     }
 
     /**
-    * Performs a depth first search (without backtracking) starting from the the given transformation
+    * Performs a depth first search (without backtracking) starting from the the given transformation.
+    * If a pool of checkers is available, the successors of each transformation are checked concurrently.
     * @param queue
     * @param transformation
     */
@@ -128,6 +146,9 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         if (getTime() > timeLimit) {
             return;
         }
+        if (pool != null) {
+            precheck(Arrays.asList(transformation));
+        }
         Transformation next = expand(queue, transformation);
         if (next != null) {
             queue.remove(next);
@@ -162,6 +183,89 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         return result;
     }
     
+    /**
+    * Expands the given transformation together with further transformations from the queue, one per 
+    * checker in the pool. Collecting stops before the next depth first search is due. The successors 
+    * of all of these transformations are checked concurrently. As the optimum may improve while the
+    * batch is processed, each transformation is pruned again before its successors are checked.
+    * Returns the updated step counter.
+    * @param queue
+    * @param transformation
+    * @param step
+    * @return
+    */
+    private int expandConcurrently(PriorityQueue<Long> queue, Transformation transformation, int step) {
+        
+        // Collect
+        List<Transformation> transformations = new ArrayList<Transformation>();
+        transformations.add(transformation);
+        Long nextId;
+        while (transformations.size() < pool.getSize() && (step + 1) % stepping != 0 && (nextId = queue.poll()) != null) {
+            Transformation next = solutionSpace.getTransformation(nextId);
+            if (!prune(next)) {
+                transformations.add(next);
+                step++;
+            }
+        }
+        
+        // Check and expand
+        for (int i = 0; i < transformations.size(); i++) {
+            Transformation next = transformations.get(i);
+            if (!prune(next)) {
+                precheck(transformations.subList(i, transformations.size()));
+                expand(queue, next);
+            }
+            if (getTime() > timeLimit) {
+                break;
+            }
+        }
+        return step;
+    }
+
+    /**
+    * Checks all successors of the first of the given transformations, which have not been checked yet,
+    * concurrently with the pool of checkers. Successors are checked in rounds of one per checker, which
+    * are filled up with successors of the remaining transformations. No further round is started once
+    * the time limit has been reached. The results are attached to the transformations and picked up by
+    * the checker when the successors are visited.
+    * @param transformations
+    */
+    private void precheck(List<Transformation> transformations) {
+        
+        // Collect
+        List<Transformation> list = new ArrayList<Transformation>();
+        Set<Long> identifiers = new HashSet<Long>();
+        int required = 0;
+        for (Transformation transformation : transformations) {
+            LongArrayList successors = transformation.getSuccessors();
+            for (int i = 0; i < successors.size(); i++) {
+                long id = successors.getQuick(i);
+                Transformation successor = solutionSpace.getTransformation(id);
+                if (!successor.hasProperty(propertyChecked) &&
+                    successor.getData() == null &&
+                    identifiers.add(id)) {
+                    list.add(successor);
+                }
+            }
+            if (transformation == transformations.get(0)) {
+                required = list.size();
+            }
+        }
+        
+        // Check and attach results
+        if (required == 0 || list.size() <= 1) {
+            return;
+        }
+        for (int start = 0; start < required && getTime() <= timeLimit; start += pool.getSize()) {
+            List<Transformation> round = list.subList(start, Math.min(list.size(), start + pool.getSize()));
+            Transformation[] successors = round.toArray(new Transformation[round.size()]);
+            NodeChecker.Result[] results = pool.check(successors, true);
+            for (int i = 0; i < successors.length; i++) {
+                successors[i].setData(results[i]);
+            }
+        }
+    }
+
     /**
     * Returns whether we can prune this Transformation
     * @param transformation
@@ -136,6 +136,16 @@ public class Groupify<T> {
      * @param element
      */
     public void add(T element) {
+        add(element, 1);
+    }
+
+    /**
+     * Adds a new element, which occurs the given number of times
+     * 
+     * @param element
+     * @param frequency
+     */
+    public void add(T element, int frequency) {
 
         // Add
         final int hash = element.hashCode();
@@ -152,7 +162,7 @@ public class Groupify<T> {
         }
 
         // Track size
-        entry.count++;
+        entry.count += frequency;
     }
 
     /**
@@ -0,0 +1,320 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.framework.check.groupify.HashTableUtil;
+
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
+/**
+ * A hash groupify operator for rows of a data handle, which works on the dictionary-encoded
+ * values instead of strings. It implements a hash table with open addressing. Equal codes
+ * represent equal values, but different codes may represent equal values as well, e.g.
+ * suppressed values and values generalized to the root of a hierarchy in output data, or
+ * values that have been replaced in input data. Codes read from a handle are therefore
+ * mapped to the first code that has been observed for the same value in the same column,
+ * which requires comparing strings only once per distinct code.
+ * 
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class GroupifyEncoded {
+
+    /** The handle */
+    private final DataHandleInternal         handle;
+
+    /** The columns */
+    private final int[]                      indices;
+
+    /** Whether to ignore suppression */
+    private final boolean                    ignoreSuppression;
+
+    /** For each column, the canonical code of each code that has been read */
+    private final IntIntOpenHashMap[]        mappings;
+
+    /** For each column, the canonical code of each value that has been read */
+    private final List<Map<String, Integer>> values;
+
+    /** The current tuple */
+    private final int[]                      tuple;
+
+    /** Current number of groups. */
+    private int                              count;
+
+    /** The codes of all groups, one tuple after another. */
+    private int[]                            keys;
+
+    /** The sizes of all groups. */
+    private int[]                            counts;
+
+    /** The hash codes of all groups. */
+    private int[]                            hashcodes;
+
+    /** A representative row of each group. */
+    private int[]                            rows;
+
+    /** The hash table, containing group indices + 1. */
+    private int[]                            buckets;
+
+    /** Load factor. */
+    private final float                      loadFactor = 0.75f;
+
+    /**
+     * Maximum number of elements that can be put in this map before having to
+     * rehash.
+     */
+    private int                              threshold;
+
+    /**
+     * Constructs a new hash groupify operator.
+     * 
+     * @param handle
+     * @param indices
+     * @param ignoreSuppression
+     * @param capacity The capacity
+     */
+    public GroupifyEncoded(DataHandleInternal handle, int[] indices, boolean ignoreSuppression, int capacity) {
+        this(handle, indices, ignoreSuppression, indices.length, capacity);
+    }
+
+    /**
+     * Constructs a new hash groupify operator for tuples of codes, which are provided
+     * by the caller, e.g. when rolling up the groups of another operator. Equal values
+     * must be represented by equal codes.
+     * 
+     * @param width The number of codes per tuple
+     * @param capacity The capacity
+     */
+    public GroupifyEncoded(int width, int capacity) {
+        this(null, null, false, width, capacity);
+    }
+
+    /**
+     * Constructs a new hash groupify operator.
+     * 
+     * @param handle
+     * @param indices
+     * @param ignoreSuppression
+     * @param width
+     * @param capacity
+     */
+    private GroupifyEncoded(DataHandleInternal handle, int[] indices, boolean ignoreSuppression, int width, int capacity) {
+
+        // Store
+        this.handle = handle;
+        this.indices = indices;
+        this.ignoreSuppression = ignoreSuppression;
+        this.tuple = new int[width];
+        this.mappings = indices == null ? null : new IntIntOpenHashMap[indices.length];
+        this.values = indices == null ? null : new ArrayList<Map<String, Integer>>();
+        for (int i = 0; indices != null && i < indices.length; i++) {
+            this.mappings[i] = new IntIntOpenHashMap();
+            this.values.add(new HashMap<String, Integer>());
+        }
+
+        // Set capacity
+        capacity = HashTableUtil.calculateCapacity(capacity);
+        this.count = 0;
+        this.buckets = new int[capacity];
+        this.threshold = HashTableUtil.calculateThreshold(buckets.length, loadFactor);
+        int groups = this.threshold + 1;
+        this.keys = new int[groups * width];
+        this.counts = new int[groups];
+        this.hashcodes = new int[groups];
+        this.rows = new int[groups];
+    }
+
+    /**
+     * Adds the given row
+     * 
+     * @param row
+     */
+    public void add(int row) {
+        for (int i = 0; i < indices.length; i++) {
+            int code = handle.getEncodedValue(row, indices[i], ignoreSuppression);
+            IntIntOpenHashMap mapping = mappings[i];
+            if (mapping.containsKey(code)) {
+                code = mapping.lget();
+            } else {
+                String value = handle.getValue(row, indices[i], ignoreSuppression);
+                Integer canonical = values.get(i).get(value);
+                if (canonical == null) {
+                    canonical = code;
+                    values.get(i).put(value, canonical);
+                }
+                mapping.put(code, canonical);
+                code = canonical;
+            }
+            tuple[i] = code;
+        }
+        add(row, 1);
+    }
+
+    /**
+     * Adds the given tuple of codes, which occurs the given number of times
+     * 
+     * @param codes
+     * @param row A representative row
+     * @param frequency
+     */
+    public void add(int[] codes, int row, int frequency) {
+        System.arraycopy(codes, 0, tuple, 0, tuple.length);
+        add(row, frequency);
+    }
+
+    /**
+     * Returns the size of the given group
+     * 
+     * @param group
+     * @return
+     */
+    public int getCount(int group) {
+        return counts[group];
+    }
+
+    /**
+     * Returns a representative row of the given group
+     * 
+     * @param group
+     * @return
+     */
+    public int getRow(int group) {
+        return rows[group];
+    }
+
+    /**
+     * Returns the code at the given index of the tuple of the given group
+     * 
+     * @param group
+     * @param index
+     * @return
+     */
+    public int getValue(int group, int index) {
+        return keys[group * tuple.length + index];
+    }
+
+    /**
+     * Returns the current number of groups. Groups are numbered from 0 in the order
+     * in which they have been created.
+     * 
+     * @return
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Adds the current tuple
+     * 
+     * @param row
+     * @param frequency
+     */
+    private void add(int row, int frequency) {
+
+        // Hash
+        int hash = HashTableUtil.hashcode(tuple);
+
+        // Find or create entry
+        int index = findEntry(hash);
+        if (buckets[index] == 0) {
+            if (count + 1 > threshold) {
+                rehash();
+                index = findEntry(hash);
+            }
+            createEntry(index, hash, row);
+        }
+
+        // Track size
+        counts[buckets[index] - 1] += frequency;
+    }
+
+    /**
+     * Creates a new entry for the current tuple
+     * 
+     * @param index
+     * @param hashcode
+     * @param row
+     */
+    private void createEntry(final int index, final int hashcode, final int row) {
+        if (count == counts.length) {
+            int groups = counts.length << 1;
+            keys = Arrays.copyOf(keys, groups * tuple.length);
+            counts = Arrays.copyOf(counts, groups);
+            hashcodes = Arrays.copyOf(hashcodes, groups);
+            rows = Arrays.copyOf(rows, groups);
+        }
+        System.arraycopy(tuple, 0, keys, count * tuple.length, tuple.length);
+        hashcodes[count] = hashcode;
+        rows[count] = row;
+        buckets[index] = ++count;
+    }
+
+    /**
+     * Returns the bucket containing the current tuple, or the empty bucket at which it
+     * should be inserted
+     * 
+     * @param hashcode
+     * @return
+     */
+    private int findEntry(final int hashcode) {
+        int mask = buckets.length - 1;
+        int index = HashTableUtil.spread(hashcode) & mask;
+        while (buckets[index] != 0) {
+            int group = buckets[index] - 1;
+            if (hashcodes[group] == hashcode && equals(group)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Returns whether the given group contains the current tuple
+     * 
+     * @param group
+     * @return
+     */
+    private boolean equals(int group) {
+        int offset = group * tuple.length;
+        for (int i = 0; i < tuple.length; i++) {
+            if (keys[offset + i] != tuple[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rehashes this operator.
+     */
+    private void rehash() {
+        int[] newbuckets = new int[HashTableUtil.calculateCapacity(buckets.length << 1)];
+        for (int group = 0; group < count; group++) {
+            newbuckets[HashTableUtil.getFreeSlot(newbuckets, hashcodes[group])] = group + 1;
+        }
+        buckets = newbuckets;
+        threshold = HashTableUtil.calculateThreshold(buckets.length, loadFactor);
+    }
+}
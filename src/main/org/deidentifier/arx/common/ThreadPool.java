@@ -0,0 +1,74 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.common;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors used for multi-threaded computations in ARX. All threads
+ * are daemon threads, which terminate after being idle for a short period of time.
+ * Executors therefore never keep the JVM alive, and threads of executors that are
+ * not shut down explicitly are released once they are idle. The number of threads
+ * is always specified by the caller, typically based on the according configuration.
+ *
+ * @author Fabian Prasser
+ */
+public final class ThreadPool {
+
+    /** Time after which idle threads terminate, in milliseconds */
+    private static final long KEEP_ALIVE = 1000;
+
+    /**
+     * Creates a new executor with the given number of threads
+     *
+     * @param name Name of the threads
+     * @param threads Number of threads
+     * @return
+     */
+    public static ThreadPoolExecutor create(final String name, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        final AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads,
+                                                             threads,
+                                                             KEEP_ALIVE,
+                                                             TimeUnit.MILLISECONDS,
+                                                             new LinkedBlockingQueue<Runnable>(),
+                                                             new ThreadFactory() {
+                                                                 @Override
+                                                                 public Thread newThread(Runnable runnable) {
+                                                                     Thread thread = new Thread(runnable, name + " " + counter.getAndIncrement());
+                                                                     thread.setDaemon(true);
+                                                                     return thread;
+                                                                 }
+                                                             });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * No instantiation
+     */
+    private ThreadPool() {
+        // Empty by design
+    }
+}
@@ -122,6 +122,12 @@ public class NodeChecker {
     /** Is a minimal class size required */
     private final boolean                         minimalClassSizeRequired;
 
+    /** Lock for operations that access state shared with other checkers */
+    private final Object                          lock;
+
+    /** Statistics */
+    private final NodeCheckerStatistics           statistics;
+
     /**
      * Creates a new NodeChecker instance.
      * 
@@ -140,8 +146,33 @@ public class NodeChecker {
                        final double snapshotSizeDataset,
                        final double snapshotSizeSnapshot,
                        final SolutionSpace solutionSpace) {
+        this(manager, metric, config, historyMaxSize, snapshotSizeDataset, snapshotSizeSnapshot, solutionSpace, new Object());
+    }
+
+    /**
+     * Creates a new NodeChecker instance. Privacy models and utility measures are only
+     * accessed while holding the given lock, which may be shared with other checkers.
+     * 
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     * @param solutionSpace
+     * @param lock
+     */
+    NodeChecker(final DataManager manager,
+                final Metric<?> metric,
+                final ARXConfigurationInternal config,
+                final int historyMaxSize,
+                final double snapshotSizeDataset,
+                final double snapshotSizeSnapshot,
+                final SolutionSpace solutionSpace,
+                final Object lock) {
         
         // Initialize all operators
+        this.lock = lock;
         this.metric = metric;
         this.config = config;
         this.dataGeneralized = manager.getDataGeneralized();
@@ -152,6 +183,8 @@ public class NodeChecker {
         this.microaggregationHeader = manager.getMicroaggregationHeader();
         this.solutionSpace = solutionSpace;
         this.minimalClassSizeRequired = config.getMinimalGroupSize() != Integer.MAX_VALUE;
+        this.statistics = new NodeCheckerStatistics(config.getClassBasedCriteriaAsArray().length,
+                                                    config.getSampleBasedCriteriaAsArray().length);
         
         int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
         IntArrayDictionary dictionarySensValue;
@@ -172,11 +205,14 @@ public class NodeChecker {
                                    config,
                                    dictionarySensValue,
                                    dictionarySensFreq,
-                                   solutionSpace);
+                                   solutionSpace,
+                                   statistics);
         
         this.stateMachine = new StateMachine(history);
         this.currentGroupify = new HashGroupify(initialSize, config);
         this.lastGroupify = new HashGroupify(initialSize, config);
+        this.currentGroupify.setStatistics(statistics);
+        this.lastGroupify.setStatistics(statistics);
         this.transformer = new Transformer(manager.getDataGeneralized().getArray(),
                                            manager.getDataAnalyzed().getArray(),
                                            manager.getHierarchies(),
@@ -271,6 +307,7 @@ public class NodeChecker {
         }
         
         // Store snapshot from last check
+        long time = System.nanoTime();
         if (stateMachine.getLastNode() != null) {
             history.store(solutionSpace.getTransformation(stateMachine.getLastNode()), currentGroupify, stateMachine.getLastTransition().snapshot);
         }
@@ -282,39 +319,69 @@ public class NodeChecker {
         final HashGroupify temp = lastGroupify;
         lastGroupify = currentGroupify;
         currentGroupify = temp;
+        long time2 = System.nanoTime();
+        statistics.timeHistory += time2 - time;
+        statistics.checks++;
         
         // Apply transition
         switch (transition.type) {
         case UNOPTIMIZED:
+            statistics.transitionsUnoptimized++;
+            statistics.rowsScanned += dataGeneralized.getDataLength();
             currentGroupify = transformer.apply(transition.projection, node.getGeneralization(), currentGroupify);
             break;
         case ROLLUP:
+            statistics.transitionsRollup++;
+            statistics.classesScanned += lastGroupify.getNumberOfEquivalenceClasses();
             currentGroupify = transformer.applyRollup(transition.projection, node.getGeneralization(), lastGroupify, currentGroupify);
             break;
         case SNAPSHOT:
+            statistics.transitionsSnapshot++;
+            statistics.classesScanned += transition.snapshot.length / config.getSnapshotLength();
             currentGroupify = transformer.applySnapshot(transition.projection, node.getGeneralization(), currentGroupify, transition.snapshot);
             break;
         }
+        int classes = currentGroupify.getNumberOfEquivalenceClasses();
+        statistics.classesTotal += classes;
+        statistics.classesMax = Math.max(statistics.classesMax, classes);
+        time = System.nanoTime();
+        statistics.timeTransformation += time - time2;
         
-        // We are done with transforming and adding
-        currentGroupify.stateAnalyze(node, forceMeasureInfoLoss);
-        if (forceMeasureInfoLoss && !currentGroupify.isPrivacyModelFulfilled() && !config.isSuppressionAlwaysEnabled()) {
-            currentGroupify.stateResetSuppression();
+        // Privacy models and utility measures may not be thread-safe
+        synchronized (lock) {
+            
+            // We are done with transforming and adding
+            time = System.nanoTime();
+            currentGroupify.stateAnalyze(node, forceMeasureInfoLoss);
+            if (forceMeasureInfoLoss && !currentGroupify.isPrivacyModelFulfilled() && !config.isSuppressionAlwaysEnabled()) {
+                currentGroupify.stateResetSuppression();
+            }
+            time2 = System.nanoTime();
+            statistics.timePrivacyModel += time2 - time;
+            
+            // Compute information loss and lower bound
+            InformationLossWithBound<?> result = (currentGroupify.isPrivacyModelFulfilled() || forceMeasureInfoLoss) ?
+                    metric.getInformationLoss(node, currentGroupify) : null;
+            InformationLoss<?> loss = result != null ? result.getInformationLoss() : null;
+            InformationLoss<?> bound = result != null ? result.getLowerBound() : metric.getLowerBound(node, currentGroupify);
+            statistics.timeUtility += System.nanoTime() - time2;
+            
+            // Return result;
+            return new NodeChecker.Result(currentGroupify.isPrivacyModelFulfilled(),
+                                          minimalClassSizeRequired ? currentGroupify.isMinimalClassSizeFulfilled() : null,
+                                          loss,
+                                          bound);
         }
-        
-        // Compute information loss and lower bound
-        InformationLossWithBound<?> result = (currentGroupify.isPrivacyModelFulfilled() || forceMeasureInfoLoss) ?
-                metric.getInformationLoss(node, currentGroupify) : null;
-        InformationLoss<?> loss = result != null ? result.getInformationLoss() : null;
-        InformationLoss<?> bound = result != null ? result.getLowerBound() : metric.getLowerBound(node, currentGroupify);
-        
-        // Return result;
-        return new NodeChecker.Result(currentGroupify.isPrivacyModelFulfilled(),
-                                      minimalClassSizeRequired ? currentGroupify.isMinimalClassSizeFulfilled() : null,
-                                      loss,
-                                      bound);
     }
     
+    /**
+     * Returns the statistics collected by this checker
+     * @return
+     */
+    public NodeCheckerStatistics getStatistics() {
+        return statistics;
+    }
+
     /**
      * Returns the input buffer
      * @return
@@ -0,0 +1,190 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.common.ThreadPool;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+
+/**
+ * A pool of node checkers, which can be used to check batches of independent transformations
+ * concurrently. Each checker maintains its own history and output buffer. Privacy models and
+ * utility measures are evaluated by one checker at a time. The pool does not modify the solution
+ * space, which means that results must be applied by the caller.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class NodeCheckerPool {
+
+    /** The checkers. */
+    private NodeChecker[]      checkers;
+
+    /** The executor. */
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     * @param solutionSpace
+     * @param size The number of checkers
+     */
+    public NodeCheckerPool(final DataManager manager,
+                           final Metric<?> metric,
+                           final ARXConfigurationInternal config,
+                           final int historyMaxSize,
+                           final double snapshotSizeDataset,
+                           final double snapshotSizeSnapshot,
+                           final SolutionSpace solutionSpace,
+                           final int size) {
+        
+        // Checkers
+        Object lock = new Object();
+        this.checkers = new NodeChecker[size];
+        for (int i = 0; i < size; i++) {
+            this.checkers[i] = new NodeChecker(manager,
+                                               metric,
+                                               config,
+                                               historyMaxSize,
+                                               snapshotSizeDataset,
+                                               snapshotSizeSnapshot,
+                                               solutionSpace,
+                                               lock);
+        }
+        
+        // Executor
+        this.executor = ThreadPool.create("ARX NodeChecker", size);
+    }
+
+    /**
+     * Checks the given transformations concurrently. The transformations are split into 
+     * contiguous blocks, one per checker, which are processed in the given order. The 
+     * results are returned in the order of the transformations.
+     * 
+     * @param transformations
+     * @return
+     */
+    public NodeChecker.Result[] check(final Transformation[] transformations) {
+        return check(transformations, false);
+    }
+
+    /**
+     * Checks the given transformations concurrently. The transformations are split into 
+     * contiguous blocks, one per checker, which are processed in the given order. The 
+     * results are returned in the order of the transformations.
+     * 
+     * @param transformations
+     * @param forceMeasureInfoLoss
+     * @return
+     */
+    public NodeChecker.Result[] check(final Transformation[] transformations, final boolean forceMeasureInfoLoss) {
+        
+        // Prepare
+        final NodeChecker.Result[] results = new NodeChecker.Result[transformations.length];
+        int partition = (int) Math.ceil((double) transformations.length / (double) checkers.length);
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        
+        // Submit
+        for (int i = 0; i < checkers.length; i++) {
+            final NodeChecker checker = checkers[i];
+            final int start = i * partition;
+            final int end = Math.min(transformations.length, start + partition);
+            if (start < end) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int j = start; j < end; j++) {
+                            results[j] = checker.check(transformations[j], forceMeasureInfoLoss);
+                        }
+                        return null;
+                    }
+                }));
+            }
+        }
+        
+        // Wait
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        
+        // Return
+        return results;
+    }
+
+    /**
+     * Adds the statistics of all checkers in this pool to the given statistics
+     * @param statistics
+     */
+    public void addStatistics(NodeCheckerStatistics statistics) {
+        for (NodeChecker checker : checkers) {
+            statistics.add(checker.getStatistics());
+        }
+    }
+
+    /**
+     * Returns the number of checkers in this pool
+     * @return
+     */
+    public int getSize() {
+        return checkers.length;
+    }
+    
+    /**
+     * Sets the storage strategy of all histories
+     * @param strategy
+     */
+    public void setStorageStrategy(StorageStrategy strategy) {
+        for (NodeChecker checker : checkers) {
+            checker.getHistory().setStorageStrategy(strategy);
+        }
+    }
+
+    /**
+     * Releases all checkers and threads. The pool must not be used afterwards.
+     */
+    public void shutdown() {
+        this.executor.shutdown();
+        for (NodeChecker checker : checkers) {
+            checker.getHistory().reset();
+        }
+        this.checkers = new NodeChecker[0];
+    }
+}
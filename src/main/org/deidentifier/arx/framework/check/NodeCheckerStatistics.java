@@ -0,0 +1,127 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+/**
+ * Counters collected by a node checker, its history and its groupify operators.
+ * Counters are only incremented by the thread that owns the checker and times
+ * are measured once per check or criterion, which means that collecting them
+ * is cheap enough to be always enabled. Times are given in nanoseconds.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class NodeCheckerStatistics {
+
+    /** Number of checks */
+    public long         checks;
+
+    /** Number of transitions in which all rows have been transformed */
+    public long         transitionsUnoptimized;
+
+    /** Number of transitions using the roll-up optimization */
+    public long         transitionsRollup;
+
+    /** Number of transitions using the snapshot optimization */
+    public long         transitionsSnapshot;
+
+    /** Number of rows scanned by unoptimized transitions */
+    public long         rowsScanned;
+
+    /** Number of equivalence classes scanned by optimized transitions */
+    public long         classesScanned;
+
+    /** Sum of the number of equivalence classes of all checked transformations */
+    public long         classesTotal;
+
+    /** Maximal number of equivalence classes of a checked transformation */
+    public long         classesMax;
+
+    /** Number of lookups in the history which returned a snapshot */
+    public long         snapshotHits;
+
+    /** Number of lookups in the history which returned no snapshot */
+    public long         snapshotMisses;
+
+    /** Number of snapshots stored in the history */
+    public long         snapshotsStored;
+
+    /** Number of snapshots evicted from the in-memory cache */
+    public long         snapshotsEvicted;
+
+    /** Number of snapshots loaded back from disk */
+    public long         snapshotsLoaded;
+
+    /** Time spent in the history and state machine */
+    public long         timeHistory;
+
+    /** Time spent transforming data */
+    public long         timeTransformation;
+
+    /** Time spent evaluating privacy models */
+    public long         timePrivacyModel;
+
+    /** Time spent evaluating utility */
+    public long         timeUtility;
+
+    /** Number of classes which do not fulfill class-based criterion i */
+    public final long[] classesRejected;
+
+    /** Time spent enforcing sample-based criterion i */
+    public final long[] timeSampleBasedCriteria;
+
+    /**
+     * Creates a new instance
+     * @param numClassBasedCriteria
+     * @param numSampleBasedCriteria
+     */
+    public NodeCheckerStatistics(int numClassBasedCriteria, int numSampleBasedCriteria) {
+        this.classesRejected = new long[numClassBasedCriteria];
+        this.timeSampleBasedCriteria = new long[numSampleBasedCriteria];
+    }
+
+    /**
+     * Adds the counters of the given statistics to this instance
+     * @param other
+     */
+    public void add(NodeCheckerStatistics other) {
+        this.checks += other.checks;
+        this.transitionsUnoptimized += other.transitionsUnoptimized;
+        this.transitionsRollup += other.transitionsRollup;
+        this.transitionsSnapshot += other.transitionsSnapshot;
+        this.rowsScanned += other.rowsScanned;
+        this.classesScanned += other.classesScanned;
+        this.classesTotal += other.classesTotal;
+        this.classesMax = Math.max(this.classesMax, other.classesMax);
+        this.snapshotHits += other.snapshotHits;
+        this.snapshotMisses += other.snapshotMisses;
+        this.snapshotsStored += other.snapshotsStored;
+        this.snapshotsEvicted += other.snapshotsEvicted;
+        this.snapshotsLoaded += other.snapshotsLoaded;
+        this.timeHistory += other.timeHistory;
+        this.timeTransformation += other.timeTransformation;
+        this.timePrivacyModel += other.timePrivacyModel;
+        this.timeUtility += other.timeUtility;
+        for (int i = 0; i < classesRejected.length; i++) {
+            this.classesRejected[i] += other.classesRejected[i];
+        }
+        for (int i = 0; i < timeSampleBasedCriteria.length; i++) {
+            this.timeSampleBasedCriteria[i] += other.timeSampleBasedCriteria[i];
+        }
+    }
+}
@@ -17,7 +17,14 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.common.ThreadPool;
 import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
@@ -49,6 +56,9 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
  */
 public class Transformer {
 
+    /** The minimal number of rows that will be assigned to one thread. */
+    private static final int                   MIN_ROWS_PER_THREAD = 10000;
+
     /** The config. */
     protected final ARXConfigurationInternal   config;
 
@@ -76,6 +86,18 @@ public class Transformer {
     /** The buffer. */
     protected int[][]                          outputGeneralized;
 
+    /** The number of threads. */
+    protected final int                        numThreads;
+
+    /** The instances for the additional threads. */
+    private AbstractTransformer[][]            threadInstances;
+
+    /** The partial results of the additional threads. */
+    private HashGroupify[]                     threadGroupifies;
+
+    /** The executor for the additional threads. */
+    private ThreadPoolExecutor                 threadPool;
+
     /**
      * Instantiates a new transformer.
      *
@@ -107,8 +129,9 @@ public class Transformer {
         this.dictionarySensValue = dictionarySensValue;
         this.dictionarySensFreq = dictionarySensFreq;
         this.inputAnalyzed = inputAnalyzed;
+        this.numThreads = config.getNumThreads();
 
-        buildApplicators();
+        buildApplicators(instances);
     }
 
     /**
@@ -194,8 +217,10 @@ public class Transformer {
 
     /**
      * Builds the applicators.
+     * 
+     * @param instances
      */
-    private void buildApplicators() {
+    private void buildApplicators(final AbstractTransformer[] instances) {
         instances[15] = new Transformer15(inputGeneralized,
                                           hierarchies,
                                           inputAnalyzed,
@@ -342,9 +367,17 @@ public class Transformer {
             break;
         }
 
+        // Partition rows, if possible
+        if (transition != TransitionType.ROLLUP) {
+            int threads = Math.min(numThreads, (stopIndex - startIndex) / MIN_ROWS_PER_THREAD);
+            if (threads > 1) {
+                return applyParallel(projection, state, target, snapshot, transition, startIndex, stopIndex, threads);
+            }
+        }
+
         AbstractTransformer app = null;
 
-        app = getApplicator(projection);
+        app = getApplicator(instances, projection);
         
         app.init(projection,
                  state,
@@ -361,13 +394,105 @@ public class Transformer {
         return app.call();
     }
 
+    /**
+     * Partitions the given range of rows, groupifies each partition with a separate
+     * thread and merges the partial results into the target. Partial results are merged
+     * in the order of the partitions, which ensures that equivalence classes and their
+     * representatives are the same as when processing all rows with a single thread.
+     * 
+     * @param projection
+     *            the projection
+     * @param state
+     *            the state
+     * @param target
+     *            the target
+     * @param snapshot
+     *            the snapshot
+     * @param transition
+     *            the transition
+     * @param startIndex
+     *            the start index
+     * @param stopIndex
+     *            the stop index
+     * @param threads
+     *            the number of threads to use
+     * @return the hash groupify
+     */
+    protected HashGroupify applyParallel(final long projection,
+                                          final int[] state,
+                                          final HashGroupify target,
+                                          final int[] snapshot,
+                                          final TransitionType transition,
+                                          final int startIndex,
+                                          final int stopIndex,
+                                          final int threads) {
+
+        // Prepare
+        buildThreads();
+        int partition = (int) Math.ceil((double) (stopIndex - startIndex) / (double) threads);
+
+        // Start additional threads
+        List<Future<HashGroupify>> futures = new ArrayList<Future<HashGroupify>>();
+        for (int thread = 1; thread < threads; thread++) {
+            AbstractTransformer app = getApplicator(threadInstances[thread - 1], projection);
+            app.init(projection,
+                     state,
+                     threadGroupifies[thread - 1],
+                     null,
+                     snapshot,
+                     transition,
+                     startIndex + thread * partition,
+                     Math.min(stopIndex, startIndex + (thread + 1) * partition),
+                     0,
+                     null,
+                     outputGeneralized);
+            futures.add(threadPool.submit(app));
+        }
+
+        // Process first partition with the current thread
+        AbstractTransformer app = getApplicator(instances, projection);
+        app.init(projection,
+                 state,
+                 target,
+                 null,
+                 snapshot,
+                 transition,
+                 startIndex,
+                 startIndex + partition,
+                 0,
+                 null,
+                 outputGeneralized);
+        app.call();
+
+        // Merge partial results in order
+        for (int thread = 1; thread < threads; thread++) {
+            HashGroupify partial;
+            try {
+                partial = futures.get(thread - 1).get();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+            HashGroupifyEntry element = partial.getFirstEquivalenceClass();
+            while (element != null) {
+                target.addFromGroupify(element.key, element.distributions, element.representative, element.count, element.pcount);
+                element = element.nextOrdered;
+            }
+        }
+
+        // Return
+        return target;
+    }
+
     /**
      * Gets the applicator.
      * 
+     * @param instances the instances
      * @param projection the projection
      * @return the applicator
      */
-    protected AbstractTransformer getApplicator(final long projection) {
+    protected AbstractTransformer getApplicator(final AbstractTransformer[] instances, final long projection) {
         final int index = dimensions - Long.bitCount(projection);
         if (index > (instances.length - 1)) {
             return instances[0];
@@ -375,4 +500,28 @@ public class Transformer {
             return instances[index];
         }
     }
+
+    /**
+     * Lazily builds the applicators, groupify operators and executor for the additional threads.
+     */
+    private void buildThreads() {
+
+        // Already done
+        if (threadPool != null) {
+            return;
+        }
+
+        // Applicators and groupify operators
+        int capacity = (int) (inputGeneralized.length * 0.01d / numThreads);
+        threadInstances = new AbstractTransformer[numThreads - 1][];
+        threadGroupifies = new HashGroupify[numThreads - 1];
+        for (int i = 0; i < numThreads - 1; i++) {
+            threadInstances[i] = new AbstractTransformer[instances.length];
+            threadGroupifies[i] = new HashGroupify(capacity, config);
+            buildApplicators(threadInstances[i]);
+        }
+
+        // Executor
+        threadPool = ThreadPool.create("ARX Transformer", numThreads - 1);
+    }
 }
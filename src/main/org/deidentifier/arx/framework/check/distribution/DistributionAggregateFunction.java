@@ -101,7 +101,7 @@ public abstract class DistributionAggregateFunction implements Serializable {
                                                                                                                  this.minimum,
                                                                                                                  this.maximum);
             if (dictionary != null) {
-                result.initialize(dictionary, type, hierarchy);
+                result.initialize(dictionary, type.clone(), hierarchy);
             }
             return result;
         }
@@ -180,7 +180,7 @@ public abstract class DistributionAggregateFunction implements Serializable {
         public DistributionAggregateFunctionGeneralization clone() {
             DistributionAggregateFunctionGeneralization result = new DistributionAggregateFunctionGeneralization(this.ignoreMissingData);
             if (dictionary != null) {
-                result.initialize(dictionary, type, hierarchy);
+                result.initialize(dictionary, type.clone(), hierarchy);
             }
             return result;
         }
@@ -297,7 +297,7 @@ public abstract class DistributionAggregateFunction implements Serializable {
                                                                                                                this.minimum,
                                                                                                                this.maximum);
             if (dictionary != null) {
-                result.initialize(dictionary, type, hierarchy);
+                result.initialize(dictionary, type.clone(), hierarchy);
             }
             return result;
         }
@@ -376,7 +376,7 @@ public abstract class DistributionAggregateFunction implements Serializable {
         public DistributionAggregateFunctionInterval clone() {
             DistributionAggregateFunctionInterval result = new DistributionAggregateFunctionInterval(this.ignoreMissingData);
             if (dictionary != null) {
-                result.initialize(dictionary, type, hierarchy);
+                result.initialize(dictionary, type.clone(), hierarchy);
             }
             return result;
         }
@@ -497,7 +497,7 @@ public abstract class DistributionAggregateFunction implements Serializable {
                                                                                                  this.minimum,
                                                                                                  this.maximum);
             if (dictionary != null) {
-                result.initialize(dictionary, type, hierarchy);
+                result.initialize(dictionary, type.clone(), hierarchy);
             }
             return result;
         }
@@ -618,7 +618,7 @@ public abstract class DistributionAggregateFunction implements Serializable {
                                                                                                  this.minimum,
                                                                                                  this.maximum);
             if (dictionary != null) {
-                result.initialize(dictionary, type, hierarchy);
+                result.initialize(dictionary, type.clone(), hierarchy);
             }
             return result;
         }
@@ -17,12 +17,15 @@
 
 package org.deidentifier.arx.framework.check.groupify;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.criteria.Inclusion;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
 import org.deidentifier.arx.criteria.SampleBasedCriterion;
+import org.deidentifier.arx.framework.check.NodeCheckerStatistics;
 import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.data.Data;
@@ -33,8 +36,10 @@ import org.deidentifier.arx.metric.Metric;
 import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 
 /**
- * A hash groupify operator. It implements a hash table with chaining and keeps
- * track of additional properties per equivalence class
+ * A hash groupify operator. It implements a hash table with open addressing and keeps
+ * track of additional properties per equivalence class. Entries are kept in a flat
+ * array and reused after the table has been cleared, which means that no objects
+ * need to be allocated when the operator is used for checking multiple transformations
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -47,8 +52,11 @@ public class HashGroupify {
     /** The current number of outliers. */
     private int                          currentNumOutliers;
     
-    /** The entry array. */
-    private HashGroupifyEntry[]          hashTableBuckets;
+    /** The slots of the hash table, each storing the index of an entry plus one or zero, if empty. */
+    private int[]                        hashTableSlots;
+    
+    /** The entries in the order in which they have been added. Reused when the table is cleared. */
+    private HashGroupifyEntry[]          hashTableEntries;
     
     /** Current number of elements. */
     private int                          hashTableElementCount;
@@ -86,6 +94,9 @@ public class HashGroupify {
     /** Criteria. */
     private final SampleBasedCriterion[] sampleBasedCriteria;
     
+    /** Statistics, if any. */
+    private NodeCheckerStatistics        statistics          = null;
+    
     /** Allowed tuple outliers. */
     private final int                    suppressionLimit;
     
@@ -103,8 +114,9 @@ public class HashGroupify {
         // Set capacity
         capacity = HashTableUtil.calculateCapacity(capacity);
         this.hashTableElementCount = 0;
-        this.hashTableBuckets = new HashGroupifyEntry[capacity];
-        this.hashTableThreshold = HashTableUtil.calculateThreshold(hashTableBuckets.length, hashTableLoadFactor);
+        this.hashTableSlots = new int[capacity];
+        this.hashTableThreshold = HashTableUtil.calculateThreshold(hashTableSlots.length, hashTableLoadFactor);
+        this.hashTableEntries = new HashGroupifyEntry[hashTableThreshold];
         
         // Set params
         this.currentNumOutliers = 0;
@@ -241,9 +253,7 @@ public class HashGroupify {
      * @return
      */
     public HashGroupifyEntry getEntry(int[] tuple) {
-        final int hash = HashTableUtil.hashcode(tuple);
-        int index = hash & (hashTableBuckets.length - 1);
-        return findEntry(tuple, index, hash);
+        return findEntry(tuple, HashTableUtil.hashcode(tuple));
     }
     
     /**
@@ -262,6 +272,15 @@ public class HashGroupify {
         return hashTableElementCount;
     }
     
+    /**
+     * Returns the current number of records in classes that are outliers. The value is
+     * consistent with the flags of the classes, if the privacy model is fulfilled.
+     * @return
+     */
+    public int getNumberOfOutliers() {
+        return currentNumOutliers;
+    }
+    
     /**
      * Returns whether the current state of the dataset fulfills the minimal class-size property
      * @return
@@ -305,12 +324,7 @@ public class HashGroupify {
         for (int row = 0; row < data.length; row++) {
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
                 final int[] key = data[row];
-                final int hash = HashTableUtil.hashcode(key);
-                final int index = hash & (hashTableBuckets.length - 1);
-                HashGroupifyEntry m = hashTableBuckets[index];
-                while ((m != null) && ((m.hashcode != hash) || !equalsIgnoringOutliers(key, m.key))) {
-                    m = m.next;
-                }
+                HashGroupifyEntry m = findEntryIgnoringOutliers(key, HashTableUtil.hashcode(key));
                 if (m == null) { throw new RuntimeException("Invalid state! Groupify the data before microaggregation!"); }
                 int dimension = 0;
                 result.getArray()[row] = new int[num];
@@ -342,12 +356,7 @@ public class HashGroupify {
         for (int row = 0; row < data.length; row++) {
             final int[] key = data[row];
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
-                final int hash = HashTableUtil.hashcode(key);
-                final int index = hash & (hashTableBuckets.length - 1);
-                HashGroupifyEntry m = hashTableBuckets[index];
-                while ((m != null) && ((m.hashcode != hash) || !equalsIgnoringOutliers(key, m.key))) {
-                    m = m.next;
-                }
+                HashGroupifyEntry m = findEntryIgnoringOutliers(key, HashTableUtil.hashcode(key));
                 if (m == null) {
                     throw new RuntimeException("Invalid state! Groupify the data before marking outliers!");
                 }
@@ -360,6 +369,14 @@ public class HashGroupify {
         }
     }
 
+    /**
+     * Sets an object which collects statistics about the evaluation of privacy criteria
+     * @param statistics
+     */
+    public void setStatistics(NodeCheckerStatistics statistics) {
+        this.statistics = statistics;
+    }
+
     /**
      * Analyzes the current state
      * @param transformation
@@ -379,7 +396,7 @@ public class HashGroupify {
             this.currentNumOutliers = 0;
             this.hashTableFirstEntry = null;
             this.hashTableLastEntry = null;
-            HashTableUtil.nullifyArray(hashTableBuckets);
+            Arrays.fill(hashTableSlots, 0);
         }
     }
     
@@ -408,14 +425,12 @@ public class HashGroupify {
     private HashGroupifyEntry addInternal(final int[] generalized, final int hash, final int representative, int count, final int pcount) {
         
         // Find or create entry
-        int index = hash & (hashTableBuckets.length - 1);
-        HashGroupifyEntry entry = findEntry(generalized, index, hash);
+        HashGroupifyEntry entry = findEntry(generalized, hash);
         if (entry == null) {
-            if (++hashTableElementCount > hashTableThreshold) {
+            if (hashTableElementCount + 1 > hashTableThreshold) {
                 rehash();
-                index = hash & (hashTableBuckets.length - 1);
             }
-            entry = createEntry(generalized, index, hash, representative);
+            entry = createEntry(generalized, hash, representative);
         }
         
         // If we enforce d-presence and the tuple is not contained in the research subset: set its count to zero
@@ -489,6 +504,11 @@ public class HashGroupify {
             // Determine outliers
             if (anonymous != -1) {
                 
+                // Track the criterion that has not been fulfilled
+                if (statistics != null && anonymous > 0) {
+                    statistics.classesRejected[anonymous - 1]++;
+                }
+                
                 // Note: If d-presence exists, it is stored at criteria[0] by convention.
                 // If it fails, isAnonymous(entry) thus returns 1.
                 // Tuples from the public table that have no matching candidates in the private table
@@ -531,10 +551,14 @@ public class HashGroupify {
                                                                              this.hashTableFirstEntry);
         
         // For each criterion
-        for (SampleBasedCriterion criterion : this.sampleBasedCriteria) {
+        for (int i = 0; i < this.sampleBasedCriteria.length; i++) {
             
             // Enforce
-            criterion.enforce(distribution, earlyAbort ? this.suppressionLimit : Integer.MAX_VALUE);
+            long time = System.nanoTime();
+            this.sampleBasedCriteria[i].enforce(distribution, earlyAbort ? this.suppressionLimit : Integer.MAX_VALUE);
+            if (statistics != null) {
+                statistics.timeSampleBasedCriteria[i] += System.nanoTime() - time;
+            }
             
             // Early abort
             this.currentNumOutliers = distribution.getNumSuppressedRecords();
@@ -578,6 +602,11 @@ public class HashGroupify {
             // Determine outliers
             if (anonymous != -1) {
                 
+                // Track the criterion that has not been fulfilled
+                if (statistics != null && anonymous > 0) {
+                    statistics.classesRejected[anonymous - 1]++;
+                }
+                
                 // Note: If d-presence exists, it is stored at criteria[0] by convention.
                 // If it fails, isAnonymous(entry) thus returns 1.
                 // Tuples from the public table that have no matching candidates in the private table
@@ -612,23 +641,33 @@ public class HashGroupify {
     }
     
     /**
-     * Creates a new entry.
+     * Creates a new entry or reuses an entry from a previous state of the table.
      * 
      * @param key
      *            the key
-     * @param index
-     *            the index
      * @param hash
      *            the hash
      * @param line
      *            the line
      * @return the hash groupify entry
      */
-    private HashGroupifyEntry createEntry(final int[] key, final int index, final int hash, final int line) {
-        final HashGroupifyEntry entry = new HashGroupifyEntry(key, hash);
-        entry.next = hashTableBuckets[index];
+    private HashGroupifyEntry createEntry(final int[] key, final int hash, final int line) {
+        
+        // Obtain entry
+        final int position = hashTableElementCount++;
+        HashGroupifyEntry entry = hashTableEntries[position];
+        if (entry == null) {
+            entry = new HashGroupifyEntry(key, hash);
+            hashTableEntries[position] = entry;
+        } else {
+            entry.reset(key, hash);
+        }
         entry.representative = line;
-        hashTableBuckets[index] = entry;
+        
+        // Store in free slot
+        hashTableSlots[HashTableUtil.getFreeSlot(hashTableSlots, hash)] = position + 1;
+        
+        // Link
         if (hashTableFirstEntry == null) {
             hashTableFirstEntry = entry;
             hashTableLastEntry = entry;
@@ -660,18 +699,45 @@ public class HashGroupify {
      * 
      * @param key
      *            the key
-     * @param index
-     *            the index
      * @param keyHash
      *            the key hash
      * @return the hash groupify entry
      */
-    private HashGroupifyEntry findEntry(final int[] key, final int index, final int keyHash) {
-        HashGroupifyEntry m = hashTableBuckets[index];
-        while ((m != null) && ((m.hashcode != keyHash) || !HashTableUtil.equals(key, m.key))) {
-            m = m.next;
+    private HashGroupifyEntry findEntry(final int[] key, final int keyHash) {
+        final int mask = hashTableSlots.length - 1;
+        int index = HashTableUtil.spread(keyHash) & mask;
+        int slot;
+        while ((slot = hashTableSlots[index]) != 0) {
+            HashGroupifyEntry m = hashTableEntries[slot - 1];
+            if ((m.hashcode == keyHash) && HashTableUtil.equals(key, m.key)) {
+                return m;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the according entry, ignoring outlier flags in the keys of the entries.
+     * 
+     * @param key
+     *            the key
+     * @param keyHash
+     *            the key hash
+     * @return the hash groupify entry
+     */
+    private HashGroupifyEntry findEntryIgnoringOutliers(final int[] key, final int keyHash) {
+        final int mask = hashTableSlots.length - 1;
+        int index = HashTableUtil.spread(keyHash) & mask;
+        int slot;
+        while ((slot = hashTableSlots[index]) != 0) {
+            HashGroupifyEntry m = hashTableEntries[slot - 1];
+            if ((m.hashcode == keyHash) && equalsIgnoringOutliers(key, m.key)) {
+                return m;
+            }
+            index = (index + 1) & mask;
         }
-        return m;
+        return null;
     }
         
     /**
@@ -704,16 +770,13 @@ public class HashGroupify {
      */
     private void rehash() {
         
-        final int length = HashTableUtil.calculateCapacity((hashTableBuckets.length == 0 ? 1 : hashTableBuckets.length << 1));
-        final HashGroupifyEntry[] newData = new HashGroupifyEntry[length];
-        HashGroupifyEntry entry = hashTableFirstEntry;
-        while (entry != null) {
-            final int index = entry.hashcode & (length - 1);
-            entry.next = newData[index];
-            newData[index] = entry;
-            entry = entry.nextOrdered;
+        final int length = HashTableUtil.calculateCapacity((hashTableSlots.length == 0 ? 1 : hashTableSlots.length << 1));
+        final int[] newSlots = new int[length];
+        for (int position = 0; position < hashTableElementCount; position++) {
+            newSlots[HashTableUtil.getFreeSlot(newSlots, hashTableEntries[position].hashcode)] = position + 1;
         }
-        hashTableBuckets = newData;
-        hashTableThreshold = HashTableUtil.calculateThreshold(hashTableBuckets.length, hashTableLoadFactor);
+        hashTableSlots = newSlots;
+        hashTableThreshold = HashTableUtil.calculateThreshold(hashTableSlots.length, hashTableLoadFactor);
+        hashTableEntries = Arrays.copyOf(hashTableEntries, Math.max(hashTableThreshold, hashTableEntries.length));
     }
 }
@@ -34,13 +34,10 @@ public class HashGroupifyEntry {
     public int               pcount       = 0;
 
     /** The hashcode of this class. */
-    public final int         hashcode;
+    public int               hashcode;
 
     /** The key of this class. */
-    public final int[]       key;
-
-    /** The next element in this bucket. */
-    public HashGroupifyEntry next         = null;
+    public int[]             key;
 
     /** The overall next element in original order. */
     public HashGroupifyEntry nextOrdered  = null;
@@ -66,4 +63,23 @@ public class HashGroupifyEntry {
         hashcode = hash;
         this.key = key;
     }
+
+    /**
+     * Resets this entry, such that it can be reused for another class.
+     * 
+     * @param key
+     *            the key
+     * @param hash
+     *            the hash
+     */
+    void reset(final int[] key, final int hash) {
+        this.hashcode = hash;
+        this.key = key;
+        this.count = 0;
+        this.pcount = 0;
+        this.nextOrdered = null;
+        this.representative = -1;
+        this.isNotOutlier = false;
+        this.distributions = null;
+    }
 }
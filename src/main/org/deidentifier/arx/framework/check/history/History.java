@@ -19,9 +19,11 @@ package org.deidentifier.arx.framework.check.history;
 
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.framework.check.NodeCheckerStatistics;
 import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -80,6 +82,18 @@ public class History {
     /** The solution space */
     private final SolutionSpace             solutionSpace;
 
+    /** Statistics */
+    private final NodeCheckerStatistics     statistics;
+
+    /** Snapshots that have been evicted from the cache and spilled to disk. */
+    private final SnapshotFile              spillFile                     = new SnapshotFile();
+
+    /** The maximal number of bytes of spilled snapshots. */
+    private final long                      spillSize;
+
+    /** Metadata of spilled snapshots, in the order in which they have been spilled. */
+    private final LinkedHashMap<Long, MRUCacheEntryMetadata> spilled      = new LinkedHashMap<Long, MRUCacheEntryMetadata>();
+
     /** Store the results of all types of transformations. */
     private final DependentAction STORAGE_TRIGGER_ALL = new DependentAction(){
         @Override
@@ -110,6 +124,7 @@ public class History {
      * @param dictionarySensValue
      * @param dictionarySensFreq
      * @param solutionSpace
+     * @param statistics
      */
     public History(final int rowCount,
                    final int size,
@@ -118,7 +133,8 @@ public class History {
                    final ARXConfigurationInternal config,
                    final IntArrayDictionary dictionarySensValue,
                    final IntArrayDictionary dictionarySensFreq,
-                   final SolutionSpace solutionSpace) {
+                   final SolutionSpace solutionSpace,
+                   final NodeCheckerStatistics statistics) {
         
         this.snapshotSizeDataset = (long) (rowCount * snapshotSizeDataset);
         this.snapshotSizeSnapshot = snapshotSizeSnapshot;
@@ -131,6 +147,8 @@ public class History {
         this.requirements = config.getRequirements();
         this.storageTrigger = STORAGE_TRIGGER_NON_ANONYMOUS;
         this.solutionSpace = solutionSpace;
+        this.spillSize = config.getHistorySpillSize();
+        this.statistics = statistics;
     }
     
     /**
@@ -143,6 +161,8 @@ public class History {
 
         // Init
         int[] resultSnapshot = null;
+        int resultLength = 0;
+        boolean resultSpilled = false;
         MRUCacheEntryMetadata resultMetadata = null;
         int level = solutionSpace.getLevel(transformation);
 
@@ -152,19 +172,41 @@ public class History {
             MRUCacheEntryMetadata currentMetadata = entry.data;
             if (currentMetadata.level < level) {
                 final int[] currentSnapshot = nodeToSnapshot.get(currentMetadata.id);
-                if ((resultMetadata == null) || (currentSnapshot.length < resultSnapshot.length)) {
+                if ((resultMetadata == null) || (currentSnapshot.length < resultLength)) {
                     if (solutionSpace.isParentChildOrEqual(transformation, currentMetadata.transformation)) {
                         resultMetadata = currentMetadata;
                         resultSnapshot = currentSnapshot;
+                        resultLength = currentSnapshot.length;
                     }
                 }
             }
             entry = entry.next;
         }
 
+        // Search spilled snapshots
+        for (MRUCacheEntryMetadata currentMetadata : spilled.values()) {
+            if (currentMetadata.level < level) {
+                final int currentLength = spillFile.length(currentMetadata.id);
+                if ((resultMetadata == null) || (currentLength < resultLength)) {
+                    if (solutionSpace.isParentChildOrEqual(transformation, currentMetadata.transformation)) {
+                        resultMetadata = currentMetadata;
+                        resultLength = currentLength;
+                        resultSpilled = true;
+                    }
+                }
+            }
+        }
+
         // Manager
         if (resultMetadata != null) {
-            cache.touch(resultMetadata);
+            if (resultSpilled) {
+                resultSnapshot = load(resultMetadata);
+            } else {
+                cache.touch(resultMetadata);
+            }
+            statistics.snapshotHits++;
+        } else {
+            statistics.snapshotMisses++;
         }
         this.resultMetadata = resultMetadata;
 
@@ -218,6 +260,8 @@ public class History {
     public void reset() {
         this.cache.clear();
         this.nodeToSnapshot.clear();
+        this.spilled.clear();
+        this.spillFile.close();
         this.dictionarySensFreq.clear();
         this.dictionarySensValue.clear();
         this.resultMetadata = null;
@@ -286,7 +330,7 @@ public class History {
 
         // Perform LRU eviction, if still too large
         if (cache.size() >= size) {
-            removeHistoryEntry(cache.removeHead());
+            spill(cache.removeHead());
         }
         
         // Create the snapshot
@@ -296,6 +340,7 @@ public class History {
         // assign snapshot and keep reference for cache
         nodeToSnapshot.put(transformation.getIdentifier(), data);
         cache.append(new MRUCacheEntryMetadata(transformation));
+        statistics.snapshotsStored++;
 
         return true;
     }
@@ -313,6 +358,15 @@ public class History {
                 removeHistoryEntry(node);
             }
         }
+
+        final Iterator<MRUCacheEntryMetadata> spilledMetadata = spilled.values().iterator();
+        while (spilledMetadata.hasNext()) {
+            final MRUCacheEntryMetadata node = spilledMetadata.next();
+            if (solutionSpace.hasProperty(node.transformation, solutionSpace.getPropertySuccessorsPruned())) {
+                spilledMetadata.remove();
+                removeSpilledEntry(node);
+            }
+        }
     }
     
     /**
@@ -368,12 +422,35 @@ public class History {
     }
 
     /**
-     * Removes a snapshot.
+     * Loads a spilled snapshot back into the cache.
      *
      * @param metadata
+     * @return
      */
-    private final void removeHistoryEntry(final MRUCacheEntryMetadata metadata) {
-        final int[] snapshot = nodeToSnapshot.remove(metadata.id);
+    private final int[] load(final MRUCacheEntryMetadata metadata) {
+
+        // Read
+        spilled.remove(metadata.id);
+        final int[] snapshot = spillFile.remove(metadata.id);
+
+        // Make room
+        if (cache.size() > 0 && cache.size() >= size) {
+            spill(cache.removeHead());
+        }
+
+        // Add to cache
+        nodeToSnapshot.put(metadata.id, snapshot);
+        cache.append(metadata);
+        statistics.snapshotsLoaded++;
+        return snapshot;
+    }
+
+    /**
+     * Releases the dictionary entries referenced by a snapshot.
+     *
+     * @param snapshot
+     */
+    private final void release(final int[] snapshot) {
 
         switch (requirements) {
         case ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_SECONDARY_COUNTER | ARXConfiguration.REQUIREMENT_DISTRIBUTION:
@@ -395,4 +472,59 @@ public class History {
             }
         }
     }
+
+    /**
+     * Removes a snapshot.
+     *
+     * @param metadata
+     */
+    private final void removeHistoryEntry(final MRUCacheEntryMetadata metadata) {
+        release(nodeToSnapshot.remove(metadata.id));
+    }
+
+    /**
+     * Removes a spilled snapshot. The snapshot is only read back from disk if it
+     * references entries in the dictionaries.
+     *
+     * @param metadata
+     */
+    private final void removeSpilledEntry(final MRUCacheEntryMetadata metadata) {
+        if ((requirements & ARXConfiguration.REQUIREMENT_DISTRIBUTION) != 0) {
+            release(spillFile.remove(metadata.id));
+        } else {
+            spillFile.delete(metadata.id);
+        }
+    }
+
+    /**
+     * Moves a snapshot that has been evicted from the cache to disk. If spilling is disabled
+     * or the snapshot does not fit, it is removed. Spilled snapshots are removed in the
+     * order in which they have been spilled, until the new snapshot fits.
+     *
+     * @param metadata
+     */
+    private final void spill(final MRUCacheEntryMetadata metadata) {
+
+        // Check
+        statistics.snapshotsEvicted++;
+        final int[] snapshot = nodeToSnapshot.get(metadata.id);
+        final long bytes = (long) snapshot.length * 4L;
+        if (bytes > spillSize) {
+            removeHistoryEntry(metadata);
+            return;
+        }
+
+        // Make room
+        while (spillFile.getSize() + bytes > spillSize) {
+            Iterator<MRUCacheEntryMetadata> iterator = spilled.values().iterator();
+            MRUCacheEntryMetadata eldest = iterator.next();
+            iterator.remove();
+            removeSpilledEntry(eldest);
+        }
+
+        // Spill
+        nodeToSnapshot.remove(metadata.id);
+        spillFile.put(metadata.id, snapshot);
+        spilled.put(metadata.id, metadata);
+    }
 }
@@ -0,0 +1,248 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.framework.check.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A scratch file storing snapshots that have been evicted from the in-memory history.
+ * Snapshots are appended to the file. The file is compacted when more than half of it
+ * is occupied by snapshots that have been removed. It is created on first use and must be
+ * deleted by calling {@link #close()}.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class SnapshotFile {
+
+    /** The channel */
+    private FileChannel              channel  = null;
+
+    /** The file */
+    private File                     file     = null;
+
+    /** Offsets of the snapshots, in bytes */
+    private final Map<Long, long[]>  index    = new HashMap<Long, long[]>();
+
+    /** The number of bytes occupied by the stored snapshots */
+    private long                     size     = 0;
+
+    /** The current end of the file, in bytes */
+    private long                     position = 0;
+
+    /**
+     * Closes and deletes the file.
+     */
+    public void close() {
+        this.index.clear();
+        this.size = 0;
+        this.position = 0;
+        if (this.channel != null) {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+            this.channel = null;
+        }
+        if (this.file != null) {
+            this.file.delete();
+            this.file = null;
+        }
+    }
+
+    /**
+     * Discards the snapshot stored for the given id without reading it.
+     *
+     * @param id
+     */
+    public void delete(long id) {
+        long[] entry = this.index.remove(id);
+        if (entry != null) {
+            release(entry);
+        }
+    }
+
+    /**
+     * Returns whether a snapshot is stored for the given id.
+     *
+     * @param id
+     * @return
+     */
+    public boolean contains(long id) {
+        return this.index.containsKey(id);
+    }
+
+    /**
+     * Returns the number of bytes occupied by the stored snapshots.
+     *
+     * @return
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the length of the snapshot stored for the given id.
+     *
+     * @param id
+     * @return
+     */
+    public int length(long id) {
+        return (int) (this.index.get(id)[1] / 4L);
+    }
+
+    /**
+     * Stores a snapshot.
+     *
+     * @param id
+     * @param snapshot
+     */
+    public void put(long id, int[] snapshot) {
+
+        // Prepare
+        long length = (long) snapshot.length * 4L;
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        buffer.asIntBuffer().put(snapshot);
+
+        // Write
+        try {
+            if (this.position - this.size > this.size) {
+                compact();
+            }
+            FileChannel channel = getChannel();
+            long offset = this.position;
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer, offset);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write snapshot to scratch file", e);
+        }
+
+        // Update
+        this.index.put(id, new long[] { this.position, length });
+        this.position += length;
+        this.size += length;
+    }
+
+    /**
+     * Removes the snapshot stored for the given id and returns it.
+     *
+     * @param id
+     * @return
+     */
+    public int[] remove(long id) {
+
+        // Prepare
+        long[] entry = this.index.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) entry[1]);
+
+        // Read
+        try {
+            long offset = entry[0];
+            while (buffer.hasRemaining()) {
+                int read = this.channel.read(buffer, offset);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+                offset += read;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read snapshot from scratch file", e);
+        }
+        buffer.flip();
+        int[] snapshot = new int[(int) (entry[1] / 4L)];
+        buffer.asIntBuffer().get(snapshot);
+
+        // Return
+        release(entry);
+        return snapshot;
+    }
+
+    /**
+     * Copies all stored snapshots into a new file.
+     *
+     * @throws IOException
+     */
+    private void compact() throws IOException {
+
+        // Prepare
+        FileChannel source = this.channel;
+        File sourceFile = this.file;
+        this.channel = null;
+        this.file = null;
+        FileChannel target = getChannel();
+
+        // Copy
+        long offset = 0;
+        for (long[] entry : this.index.values()) {
+            long transferred = 0;
+            while (transferred < entry[1]) {
+                transferred += source.transferTo(entry[0] + transferred, entry[1] - transferred, target);
+            }
+            entry[0] = offset;
+            offset += entry[1];
+        }
+        this.position = offset;
+
+        // Remove old file
+        source.close();
+        sourceFile.delete();
+    }
+
+    /**
+     * Releases the space occupied by a snapshot. Space is reclaimed, if the file is empty.
+     *
+     * @param entry
+     */
+    private void release(long[] entry) {
+        this.size -= entry[1];
+        if (this.index.isEmpty()) {
+            this.size = 0;
+            this.position = 0;
+            try {
+                this.channel.truncate(0);
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+
+    /**
+     * Returns the channel, creating the file if necessary.
+     *
+     * @return
+     * @throws IOException
+     */
+    @SuppressWarnings("resource")
+    private FileChannel getChannel() throws IOException {
+        if (this.channel == null) {
+            this.file = File.createTempFile("arx-history", ".tmp");
+            this.channel = new RandomAccessFile(this.file, "rw").getChannel();
+        }
+        return this.channel;
+    }
+}
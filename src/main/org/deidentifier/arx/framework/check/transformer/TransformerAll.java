@@ -18,17 +18,33 @@
 package org.deidentifier.arx.framework.check.transformer;
 
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
- * The class TransformerAll.
+ * The class TransformerAll. Supports any number of dimensions and is used whenever no
+ * specialized transformer exists, i.e. for more than fifteen remaining columns. It is not
+ * specialized for a number of dimensions. Only the columns that are not covered by the
+ * projection are transformed, using one lookup table per column, which maps input values
+ * directly to the values on the required level.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
 public class TransformerAll extends AbstractTransformer {
 
+    /** The indices of the columns to transform. */
+    private final int[]   columns;
+
+    /** Lookup tables for the columns to transform. */
+    private final int[][] lookups;
+
+    /** The number of columns to transform. */
+    private int           numColumns;
+
     /**
      * Instantiates a new transformer.
      *
@@ -46,6 +62,34 @@ public class TransformerAll extends AbstractTransformer {
                           final IntArrayDictionary dictionarySensFreq,
                           final ARXConfigurationInternal config) {
         super(data, hierarchies, otherValues, dictionarySensValue, dictionarySensFreq, config);
+        this.columns = new int[dimensions];
+        this.lookups = new int[dimensions][];
+    }
+
+    @Override
+    public void init(final long projection,
+                     final int[] state,
+                     final HashGroupify groupify,
+                     final HashGroupify source,
+                     final int[] snapshot,
+                     final TransitionType transition,
+                     final int startIndex,
+                     final int stopIndex,
+                     final int bucket,
+                     final HashGroupifyEntry element,
+                     final int[][] buffer) {
+
+        super.init(projection, state, groupify, source, snapshot, transition, startIndex, stopIndex, bucket, element, buffer);
+
+        // Prepare lookup tables
+        numColumns = 0;
+        for (int i = 0; i < dimensions; i++) {
+            if ((projection & (1L << i)) == 0) {
+                columns[numColumns] = i;
+                lookups[numColumns] = hierarchies[i].getLevel(state[i]);
+                numColumns++;
+            }
+        }
     }
 
     /*
@@ -56,14 +100,10 @@ public class TransformerAll extends AbstractTransformer {
      */
     @Override
     protected void processAll() {
-        final int dimensions = data[0].length;
         for (int i = startIndex; i < stopIndex; i++) {
             intuple = data[i];
             outtuple = buffer[i];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
-            }
+            transform(intuple, outtuple);
 
             // Call
             delegate.callAll(outtuple, i);
@@ -82,10 +122,7 @@ public class TransformerAll extends AbstractTransformer {
 
             intuple = data[element.representative];
             outtuple = buffer[element.representative];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
-            }
+            transform(intuple, outtuple);
 
             // Call
             delegate.callGroupify(outtuple, element);
@@ -110,13 +147,25 @@ public class TransformerAll extends AbstractTransformer {
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
             intuple = data[snapshot[i]];
             outtuple = buffer[snapshot[i]];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
-            }
+            transform(intuple, outtuple);
 
             // Call
             delegate.callSnapshot(outtuple, snapshot, i);
         }
     }
+
+    /**
+     * Transforms a tuple.
+     *
+     * @param input
+     * @param output
+     */
+    private final void transform(final int[] input, final int[] output) {
+        final int[] columns = this.columns;
+        final int[][] lookups = this.lookups;
+        for (int k = 0; k < numColumns; k++) {
+            final int column = columns[k];
+            output[column] = lookups[k][input[column]];
+        }
+    }
 }
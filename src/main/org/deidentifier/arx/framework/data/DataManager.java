@@ -20,6 +20,7 @@ package org.deidentifier.arx.framework.data;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map.Entry;
 import java.util.Map;
 import java.util.Set;
 
@@ -656,6 +657,12 @@ public class DataManager {
             microaggregationFunctions[i] = this.microaggregationFunctions[i].clone();
         }
         
+        // Data types may not be thread-safe
+        Map<String, DataType<?>> dataTypesSensitive = new HashMap<String, DataType<?>>();
+        for (Entry<String, DataType<?>> entry : this.dataTypesSensitive.entrySet()) {
+            dataTypesSensitive.put(entry.getKey(), entry.getValue().clone());
+        }
+        
         return new DataManagerSubset(this,
                                      this.dataAnalyzed.getSubsetInstance(rowset),
                                      this.dataGeneralized.getSubsetInstance(rowset),
@@ -672,7 +679,7 @@ public class DataManager {
                                      this.microaggregationNumAttributes,
                                      this.microaggregationStartIndex,
                                      this.minLevels,
-                                     this.dataTypesSensitive);
+                                     dataTypesSensitive);
     }
     
     /**
@@ -88,12 +88,6 @@ public class DataManagerSubset extends DataManager {
         this.source = source;
     }
 
-    @Override
-    public int[] getOrder(String attribute) {
-        // Delegate to source
-        return source.getOrder(attribute);
-    }
-
     @Override
     public double[] getDistribution(int[][] data, int index, int distinctValues) {
         // Delegate to source
@@ -34,6 +34,9 @@ public class GeneralizationHierarchy {
     /** Input->level->output. */
     protected final int[][] map;
 
+    /** Level->input->output, created lazily. */
+    private int[][]         levels;
+
     /** Name. */
     protected final String  attribute;
 
@@ -209,6 +212,27 @@ public class GeneralizationHierarchy {
         return map[0].length;
     }
 
+    /**
+     * Returns an array mapping input values to the values on the given level.
+     * The arrays are created on demand and cached.
+     *
+     * @param level
+     * @return
+     */
+    public synchronized int[] getLevel(final int level) {
+        if (levels == null) {
+            levels = new int[map[0].length][];
+        }
+        if (levels[level] == null) {
+            final int[] result = new int[map.length];
+            for (int i = 0; i < map.length; i++) {
+                result[i] = map[i][level];
+            }
+            levels[level] = result;
+        }
+        return levels[level];
+    }
+
     /**
      * Returns the name.
      *
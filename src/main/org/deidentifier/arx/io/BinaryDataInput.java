@@ -0,0 +1,281 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+import org.apache.commons.io.input.CountingInputStream;
+import org.deidentifier.arx.RowSet;
+
+/**
+ * Reads data written by {@link BinaryDataOutput}. Dictionaries are loaded into memory,
+ * while codes and outliers are memory-mapped and decoded on access.
+ *
+ * @author Fabian Prasser
+ */
+public class BinaryDataInput {
+
+    /** Number of rows */
+    private final int               rows;
+
+    /** Names of columns */
+    private final String[]          header;
+
+    /** Dictionaries of columns */
+    private final String[][]        dictionaries;
+
+    /** Bits per code for each column */
+    private final int[]             bits;
+
+    /** Codes of each column */
+    private final MappedByteBuffer[] codes;
+
+    /** Outliers */
+    private final MappedByteBuffer  outliers;
+
+    /**
+     * Creates a new instance
+     *
+     * @param file
+     * @throws IOException
+     */
+    public BinaryDataInput(File file) throws IOException {
+
+        // Read dictionaries and determine offsets
+        CountingInputStream counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        DataInputStream in = new DataInputStream(counter);
+        long[] offsets;
+        long[] lengths;
+        try {
+            if (in.readInt() != BinaryDataOutput.MAGIC) {
+                throw new IOException("Not a binary ARX data file");
+            }
+            if (in.readInt() != BinaryDataOutput.VERSION) {
+                throw new IOException("Unsupported version");
+            }
+            this.rows = in.readInt();
+            int columns = in.readInt();
+            this.header = new String[columns];
+            this.dictionaries = new String[columns][];
+            this.bits = new int[columns];
+            this.codes = new MappedByteBuffer[columns];
+            offsets = new long[columns + 1];
+            lengths = new long[columns + 1];
+            for (int column = 0; column < columns; column++) {
+                header[column] = readString(in);
+                dictionaries[column] = new String[in.readInt()];
+                for (int i = 0; i < dictionaries[column].length; i++) {
+                    dictionaries[column][i] = readString(in);
+                }
+                bits[column] = in.readInt();
+                offsets[column] = counter.getByteCount();
+                lengths[column] = BinaryDataOutput.getNumLongs((long) rows * (long) bits[column]) * 8L;
+                skip(in, lengths[column]);
+            }
+            offsets[columns] = counter.getByteCount();
+            lengths[columns] = BinaryDataOutput.getNumLongs(rows) * 8L;
+        } finally {
+            in.close();
+        }
+
+        // Map codes and outliers
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() < offsets[header.length] + lengths[header.length]) {
+                throw new IOException("File is truncated");
+            }
+            for (int column = 0; column < header.length; column++) {
+                codes[column] = map(channel, offsets[column], lengths[column]);
+            }
+            outliers = map(channel, offsets[header.length], lengths[header.length]);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Returns the dictionary of the given column
+     * @param column
+     * @return
+     */
+    public String[] getDictionary(int column) {
+        return dictionaries[column];
+    }
+
+    /**
+     * Returns the code of the given cell
+     * @param row
+     * @param column
+     * @return
+     */
+    public int getCode(int row, int column) {
+        int bits = this.bits[column];
+        long position = (long) row * (long) bits;
+        int index = (int) (position >>> 6);
+        int offset = (int) (position & 63);
+        long value = codes[column].getLong(index << 3) >>> offset;
+        if (offset + bits > 64) {
+            value |= codes[column].getLong((index + 1) << 3) << (64 - offset);
+        }
+        return (int) (value & ((1L << bits) - 1L));
+    }
+
+    /**
+     * Returns the names of all columns
+     * @return
+     */
+    public String[] getHeader() {
+        return header.clone();
+    }
+
+    /**
+     * Returns the number of columns
+     * @return
+     */
+    public int getNumColumns() {
+        return header.length;
+    }
+
+    /**
+     * Returns the number of rows
+     * @return
+     */
+    public int getNumRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the outliers
+     * @return
+     */
+    public RowSet getOutliers() {
+        RowSet result = RowSet.create(rows);
+        for (int row = 0; row < rows; row++) {
+            if (isOutlier(row)) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the value of the given cell
+     * @param row
+     * @param column
+     * @return
+     */
+    public String getValue(int row, int column) {
+        return dictionaries[column][getCode(row, column)];
+    }
+
+    /**
+     * Returns whether the given row is an outlier
+     * @param row
+     * @return
+     */
+    public boolean isOutlier(int row) {
+        return (outliers.getLong((row >>> 6) << 3) & (1L << (row & 63))) != 0;
+    }
+
+    /**
+     * Returns an iterator over all rows, starting with the header
+     * @return
+     */
+    public Iterator<String[]> iterator() {
+        return new Iterator<String[]>() {
+
+            /** Current row, -1 for the header */
+            private int row = -1;
+
+            @Override
+            public boolean hasNext() {
+                return row < rows;
+            }
+
+            @Override
+            public String[] next() {
+                String[] result = row == -1 ? getHeader() : new String[header.length];
+                if (row != -1) {
+                    for (int column = 0; column < result.length; column++) {
+                        result[column] = getValue(row, column);
+                    }
+                }
+                row++;
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Maps a region of the file
+     * @param channel
+     * @param offset
+     * @param length
+     * @return
+     * @throws IOException
+     */
+    private MappedByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Columns larger than 2 GB are not supported");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    /**
+     * Reads a string
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    private String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Skips the given number of bytes
+     * @param in
+     * @param length
+     * @throws IOException
+     */
+    private void skip(DataInputStream in, long length) throws IOException {
+        while (length > 0) {
+            long skipped = in.skip(length);
+            if (skipped <= 0) {
+                throw new IOException("File is truncated");
+            }
+            length -= skipped;
+        }
+    }
+}
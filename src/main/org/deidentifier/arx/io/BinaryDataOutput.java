@@ -0,0 +1,203 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.deidentifier.arx.RowSet;
+
+/**
+ * Writes data in a compact binary columnar format. The file starts with the number of
+ * rows and columns. For each column, it contains the name, the dictionary of distinct
+ * values and the bit-packed codes of all rows. It ends with a bitmap marking outliers.
+ * All numbers are stored in big-endian byte order and strings are encoded in UTF-8.
+ * Columns must be written in order, followed by the outliers. Files can be read with
+ * {@link BinaryDataInput}. If writing fails, the output must be closed explicitly.
+ *
+ * @author Fabian Prasser
+ */
+public class BinaryDataOutput {
+
+    /** Magic number */
+    static final int               MAGIC   = 0x41525842;
+
+    /** Version of the format */
+    static final int               VERSION = 1;
+
+    /**
+     * Returns the number of bits required for codes of a dictionary of the given size
+     * @param size
+     * @return
+     */
+    static int getBitsPerCode(int size) {
+        return size <= 1 ? 1 : 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    /**
+     * Returns the number of longs required for storing the given number of bits
+     * @param bits
+     * @return
+     */
+    static long getNumLongs(long bits) {
+        return (bits + 63L) >>> 6;
+    }
+
+    /** Stream */
+    private final DataOutputStream out;
+
+    /** Number of rows */
+    private final int              rows;
+
+    /** Number of columns */
+    private final int              columns;
+
+    /** Number of columns written */
+    private int                    written;
+
+    /** Whether the stream has been closed */
+    private boolean                closed;
+
+    /**
+     * Creates a new instance
+     *
+     * @param file
+     * @param rows
+     * @param columns
+     * @throws IOException
+     */
+    public BinaryDataOutput(File file, int rows, int columns) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        this.rows = rows;
+        this.columns = columns;
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows);
+            out.writeInt(columns);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the file. Does nothing if it has already been closed.
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the next column
+     *
+     * @param name Name of the column
+     * @param dictionary Distinct values
+     * @param codes Index of the value in the dictionary for each row
+     * @throws IOException
+     */
+    public void writeColumn(String name, String[] dictionary, int[] codes) throws IOException {
+
+        // Check
+        if (written == columns) {
+            throw new IllegalStateException("All columns have already been written");
+        }
+        if (codes.length != rows) {
+            throw new IllegalArgumentException("Invalid number of rows");
+        }
+
+        // Name and dictionary
+        writeString(name);
+        out.writeInt(dictionary.length);
+        for (String value : dictionary) {
+            writeString(value);
+        }
+
+        // Pack codes
+        int bits = getBitsPerCode(dictionary.length);
+        out.writeInt(bits);
+        long buffer = 0L;
+        int offset = 0;
+        for (int code : codes) {
+            if (code < 0 || code >= dictionary.length) {
+                throw new IllegalArgumentException("Invalid code: " + code);
+            }
+            buffer |= (long) code << offset;
+            offset += bits;
+            if (offset >= 64) {
+                out.writeLong(buffer);
+                offset -= 64;
+                buffer = offset == 0 ? 0L : (long) code >>> (bits - offset);
+            }
+        }
+        if (offset > 0) {
+            out.writeLong(buffer);
+        }
+        written++;
+    }
+
+    /**
+     * Writes the outliers and closes the file
+     *
+     * @param outliers Outliers, may be null
+     * @throws IOException
+     */
+    public void writeOutliers(RowSet outliers) throws IOException {
+
+        // Check
+        if (written != columns) {
+            close();
+            throw new IllegalStateException("Not all columns have been written");
+        }
+
+        // Write bitmap
+        try {
+            for (int row = 0; row < rows; row += 64) {
+                long buffer = 0L;
+                for (int offset = 0; offset < 64 && row + offset < rows; offset++) {
+                    if (outliers != null && outliers.contains(row + offset)) {
+                        buffer |= 1L << offset;
+                    }
+                }
+                out.writeLong(buffer);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Writes a string
+     * @param value
+     * @throws IOException
+     */
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -69,7 +69,7 @@ public class CSVDataInput {
 
         @Override
         public int read(char[] cbuf, int off, int len) throws IOException {
-            reader = reader != null ? reader : new InputStreamReader(new FileInputStream(file), charset);
+            reader = reader != null ? reader : new InputStreamReader(IOUtil.decompress(new FileInputStream(file)), charset);
             return reader.read(cbuf, off, len);
         }
 
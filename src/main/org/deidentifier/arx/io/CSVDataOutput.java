@@ -22,7 +22,9 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Iterator;
 
 import com.univocity.parsers.csv.CsvFormat;
@@ -37,6 +39,77 @@ import com.univocity.parsers.csv.CsvWriterSettings;
  */
 public class CSVDataOutput {
 
+    /**
+     * Encodes each of the given values as a single CSV cell, i.e. quoted and escaped
+     * exactly as if it was written with the given syntax, using the given charset.
+     * This can be used for writing values that occur many times without encoding
+     * them repeatedly.
+     *
+     * @param values the values
+     * @param config the syntax
+     * @param charset the charset
+     * @return the encoded values
+     */
+    public static byte[][] encode(final String[] values, final CSVSyntax config, final Charset charset) {
+
+        StringWriter buffer = null;
+        CsvWriter csvwriter = null;
+        int linebreak = config.getLinebreak().length;
+        byte[][] result = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+
+            // Values without special characters are written as is
+            if (isPlain(values[i], config)) {
+                result[i] = values[i].getBytes(charset);
+                continue;
+            }
+
+            // Write any other value with a CSV writer
+            if (csvwriter == null) {
+                buffer = new StringWriter();
+                csvwriter = new CsvWriter(buffer, createSettings(config.getDelimiter(), config.getQuote(), config.getEscape(), config.getLinebreak()));
+            }
+            csvwriter.writeRow(new Object[] { values[i] });
+            csvwriter.flush();
+            String cell = buffer.toString();
+            cell = cell.length() >= linebreak ? cell.substring(0, cell.length() - linebreak) : cell;
+            result[i] = cell.getBytes(charset);
+            buffer.getBuffer().setLength(0);
+        }
+        if (csvwriter != null) {
+            csvwriter.close();
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the given value is written as is, i.e. whether it is not empty,
+     * does not start or end with whitespace and contains no special characters.
+     *
+     * @param value
+     * @param config
+     * @return
+     */
+    private static boolean isPlain(final String value, final CSVSyntax config) {
+        if (value == null || value.isEmpty() ||
+            Character.isWhitespace(value.charAt(0)) ||
+            Character.isWhitespace(value.charAt(value.length() - 1))) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < ' ' || c == '#' || c == config.getDelimiter() || c == config.getQuote() || c == config.getEscape()) {
+                return false;
+            }
+            for (char linebreak : config.getLinebreak()) {
+                if (c == linebreak) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     /** A writer. */
     private final Writer            writer;
 
@@ -324,7 +397,7 @@ public class CSVDataOutput {
      * @param linebreak the linebreak
      * @return the csv writer settings
      */
-    private CsvWriterSettings createSettings(final char delimiter, final char quote, final char escape, final char[] linebreak) {
+    private static CsvWriterSettings createSettings(final char delimiter, final char quote, final char escape, final char[] linebreak) {
         CsvFormat format = new CsvFormat();
         format.setDelimiter(delimiter);
         format.setQuote(quote);
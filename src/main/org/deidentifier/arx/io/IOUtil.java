@@ -16,12 +16,48 @@
  */
 package org.deidentifier.arx.io;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
 /**
  * Utility for I/O
  * @author Fabian Prasser, Florian Kohlmayer
  */
 public class IOUtil {
 
+    /**
+     * Transparently decompresses the given stream, if it is gzip-compressed. The
+     * compression format is detected from the first bytes of the stream.
+     * @param stream
+     * @return
+     * @throws IOException
+     */
+    public static InputStream decompress(InputStream stream) throws IOException {
+        
+        // Peek
+        BufferedInputStream input = new BufferedInputStream(stream, 1 << 16);
+        input.mark(4);
+        int[] magic = new int[4];
+        for (int i = 0; i < magic.length; i++) {
+            magic[i] = input.read();
+        }
+        input.reset();
+        
+        // Gzip
+        if (magic[0] == 0x1f && magic[1] == 0x8b) {
+            return new BufferedInputStream(new GZIPInputStream(input, 1 << 16), 1 << 16);
+        }
+        
+        // Zstandard
+        if (magic[0] == 0x28 && magic[1] == 0xb5 && magic[2] == 0x2f && magic[3] == 0xfd) {
+            input.close();
+            throw new IOException("Zstandard compressed files are not supported");
+        }
+        return input;
+    }
+
     /**
      * Trims a given string. Can handle <code>null</code>.
      * @param input
@@ -56,6 +56,8 @@ abstract public class ImportAdapter implements Iterator<String[]> {
             return new ImportAdapterExcel((ImportConfigurationExcel) config);
         } else if (config instanceof ImportConfigurationJDBC) {
             return new ImportAdapterJDBC((ImportConfigurationJDBC) config);
+        } else if (config instanceof ImportConfigurationBinary) {
+            return new ImportAdapterBinary((ImportConfigurationBinary) config);
         } else {
             throw new IllegalArgumentException("No adapter defined for this type of configuration");
         }
@@ -91,6 +93,15 @@ abstract public class ImportAdapter implements Iterator<String[]> {
         }
     }
 
+    /**
+     * Releases all resources held by this adapter. Adapters release their resources
+     * after the last row has been returned, which means that this only needs to be
+     * called if the import is stopped before.
+     */
+    public void close() {
+        // Empty by design
+    }
+
     /**
      * Returns the configuration used by the import adapter.
      *
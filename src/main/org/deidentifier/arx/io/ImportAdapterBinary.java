@@ -0,0 +1,182 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.deidentifier.arx.DataType;
+
+/**
+ * Import adapter for binary data files
+ *
+ * This adapter imports files written by {@link BinaryDataOutput}, which are
+ * memory-mapped by {@link BinaryDataInput}. As all values of a column are
+ * stored in its dictionary, values are validated only once per column.
+ * Suppressed values are imported as they have been written, i.e. as
+ * {@link DataType#ANY_VALUE}. The bitmap of outliers is not imported, because
+ * input data cannot mark records as suppressed. It can be read via
+ * {@link BinaryDataInput#getOutliers()}.
+ *
+ * @author Fabian Prasser
+ */
+public class ImportAdapterBinary extends ImportAdapter {
+
+    /** The configuration describing the file being used. */
+    private ImportConfigurationBinary config;
+
+    /** The input */
+    private BinaryDataInput           input;
+
+    /** Dictionaries of the columns to import, after validation */
+    private String[][]                dictionaries;
+
+    /** The next row to return, -1 for the header. */
+    private int                       row = -1;
+
+    /**
+     * Creates a new instance of this object with given configuration.
+     *
+     * @param config {@link #config}
+     * @throws IOException In case file doesn't contain actual data
+     */
+    protected ImportAdapterBinary(ImportConfigurationBinary config) throws IOException {
+
+        super(config);
+        this.config = config;
+        this.input = new BinaryDataInput(new File(config.getFileLocation()));
+        if (input.getNumRows() == 0) {
+            throw new IOException("File contains no data");
+        }
+
+        /* Preparation work */
+        this.config.prepare(input.getHeader());
+        this.indexes = getIndexesToImport();
+        this.dataTypes = getColumnDatatypes();
+
+        /* Validate dictionaries */
+        this.dictionaries = new String[indexes.length][];
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] < 0 || indexes[i] >= input.getNumColumns()) {
+                throw new IllegalArgumentException("Index for column '" + indexes[i] + "' couldn't be found");
+            }
+            dictionaries[i] = input.getDictionary(indexes[i]).clone();
+            for (int j = 0; j < dictionaries[i].length; j++) {
+                if (!dataTypes[i].isValid(dictionaries[i][j])) {
+                    if (config.getColumns().get(i).isCleansing()) {
+                        dictionaries[i][j] = DataType.NULL_VALUE;
+                    } else {
+                        throw new IllegalArgumentException("Data value does not match data type");
+                    }
+                }
+            }
+        }
+
+        // Create header
+        header = createHeader();
+    }
+
+    /**
+     * Returns the percentage of data that has already been returned
+     *
+     * @return
+     */
+    @Override
+    public int getProgress() {
+        return (int) ((double) Math.max(row, 0) / (double) input.getNumRows() * 100d);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return row < input.getNumRows();
+    }
+
+    @Override
+    public String[] next() {
+
+        /* Check whether header was already returned */
+        if (row == -1) {
+            row++;
+            return header;
+        }
+
+        /* Create regular row */
+        String[] result = new String[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            result[i] = dictionaries[i][input.getCode(row, indexes[i])];
+        }
+        row++;
+        return result;
+    }
+
+    /**
+     * Dummy.
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates the header row, using either the names assigned explicitly or the names
+     * of columns stored in the file. Empty names are ignored.
+     *
+     * @return
+     */
+    private String[] createHeader() {
+
+        /* Initialization */
+        String[] names = input.getHeader();
+        List<ImportColumn> columns = config.getColumns();
+        String[] header = new String[columns.size()];
+
+        /* Create header */
+        for (int i = 0; i < header.length; i++) {
+            ImportColumn column = columns.get(i);
+
+            /* Check whether name has been assigned explicitly or is nonempty */
+            if (column.getAliasName() != null && !column.getAliasName().equals("")) {
+                header[i] = column.getAliasName();
+            } else if (!names[indexes[i]].equals("")) {
+                header[i] = names[indexes[i]];
+            } else {
+                /* Nothing defined in the file (or empty), build name manually */
+                header[i] = "Column #" + indexes[i];
+            }
+            column.setAliasName(header[i]);
+        }
+
+        /* Return header */
+        return header;
+    }
+
+    /**
+     * Returns an array with indexes of columns that should be imported
+     *
+     * @return Array containing indexes of columns that should be imported
+     */
+    protected int[] getIndexesToImport() {
+        List<ImportColumn> columns = config.getColumns();
+        int[] result = new int[columns.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((ImportColumnBinary) columns.get(i)).getIndex();
+        }
+        return result;
+    }
+}
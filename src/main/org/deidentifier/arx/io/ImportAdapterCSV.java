@@ -20,12 +20,21 @@ package org.deidentifier.arx.io;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.input.CountingInputStream;
 import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.common.ThreadPool;
+
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 
 /**
  * Import adapter for CSV files
@@ -35,13 +44,297 @@ import org.deidentifier.arx.DataType;
  * this class makes use of {@link CSVDataInput} to read the CSV file on a line
  * by line basis. A counting input stream (@link CountingInputStream} is used in
  * order for {@link #getProgress() to be able to return the percentage of data
- * that has already been processed.
+ * that has already been processed. Gzip-compressed files are decompressed
+ * transparently. If multiple files are configured, they are parsed in parallel
+ * and returned in the given order. Each file is encoded into its own dictionary
+ * while it is parsed, which means that memory requirements depend on the
+ * number of distinct values rather than on the number of cells.
  * 
  * @author Karol Babioch
  * @author Fabian Prasser
  */
 public class ImportAdapterCSV extends ImportAdapter {
 
+    /**
+     * Parses and encodes a single file of a sharded import. Values are stored once
+     * per column in a dictionary which is local to the file and rows are stored as
+     * codes referring to it.
+     * 
+     * @author Fabian Prasser
+     */
+    private class Shard implements Callable<Shard> {
+
+        /** File */
+        private final File                                file;
+
+        /** Values for each column */
+        private final List<List<String>>                  values = new ArrayList<List<String>>();
+
+        /** Codes of the values for each column */
+        private final List<ObjectIntOpenHashMap<String>>  codes  = new ArrayList<ObjectIntOpenHashMap<String>>();
+
+        /** Encoded rows */
+        private int[][]                                   rows   = new int[1024][];
+
+        /** Number of encoded rows */
+        private int                                       size;
+
+        /** Header, if any */
+        private String[]                                  header;
+
+        /**
+         * Creates a new instance
+         * @param file
+         */
+        private Shard(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public Shard call() throws IOException {
+            InputStream stream = IOUtil.decompress(new FileInputStream(file));
+            try {
+                Iterator<String[]> iterator = new CSVDataInput(stream,
+                                                               config.getCharset(),
+                                                               config.getDelimiter(),
+                                                               config.getQuote(),
+                                                               config.getEscape(),
+                                                               config.getLinebreak()).iterator();
+                if (config.getContainsHeader() && iterator.hasNext()) {
+                    header = iterator.next();
+                }
+                while (iterator.hasNext()) {
+                    if (closed || Thread.currentThread().isInterrupted()) {
+                        return this;
+                    }
+                    encode(iterator.next());
+                }
+            } finally {
+                stream.close();
+            }
+            return this;
+        }
+
+        /**
+         * Encodes the given row
+         * @param row
+         */
+        private void encode(String[] row) {
+            while (codes.size() < row.length) {
+                codes.add(new ObjectIntOpenHashMap<String>());
+                values.add(new ArrayList<String>());
+            }
+            int[] tuple = new int[row.length];
+            for (int column = 0; column < row.length; column++) {
+                ObjectIntOpenHashMap<String> map = codes.get(column);
+                String value = row[column];
+                if (map.containsKey(value)) {
+                    tuple[column] = map.lget();
+                } else {
+                    tuple[column] = map.size();
+                    map.put(value, tuple[column]);
+                    values.get(column).add(value);
+                }
+            }
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, rows.length + (rows.length >> 1));
+            }
+            rows[size++] = tuple;
+        }
+    }
+
+    /**
+     * Iterator over the rows of multiple files, which are parsed in parallel.
+     * All files are submitted for parsing at once. The dictionary of each file is
+     * merged into a common dictionary when the file is reached, in the given order.
+     * Rows are then returned with the values from the common dictionary and
+     * released afterwards.
+     * 
+     * @author Fabian Prasser
+     */
+    private class ShardIterator implements Iterator<String[]> {
+
+        /** Files */
+        private final File[]                             files;
+
+        /** Executor */
+        private final ExecutorService                    executor;
+
+        /** Files that are being parsed */
+        private final List<Future<Shard>>                shards = new ArrayList<Future<Shard>>();
+
+        /** Values of the common dictionary for each column */
+        private final List<List<String>>                 values = new ArrayList<List<String>>();
+
+        /** Codes of the common dictionary for each column */
+        private final List<ObjectIntOpenHashMap<String>> codes  = new ArrayList<ObjectIntOpenHashMap<String>>();
+
+        /** Number of files returned */
+        private int                                      returned;
+
+        /** The file that is currently being returned */
+        private Shard                                    current;
+
+        /** Codes of the current file mapped to codes of the common dictionary */
+        private int[][]                                  remap;
+
+        /** The next row of the current file */
+        private int                                      offset;
+
+        /** The next row, if it has been fetched */
+        private String[]                                 next;
+
+        /** Whether the next row has been fetched */
+        private boolean                                  fetched;
+
+        /** Header of the first file */
+        private String[]                                 header;
+
+        /** Number of bytes in files that have been returned */
+        private long                                     bytesRead;
+
+        /**
+         * Creates a new instance
+         * @param files
+         * @param threads
+         */
+        private ShardIterator(File[] files, int threads) {
+            this.files = files;
+            this.executor = ThreadPool.create("ARX CSV import", threads);
+            for (File file : files) {
+                shards.add(executor.submit(new Shard(file)));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!fetched) {
+                next = fetch();
+                fetched = true;
+            }
+            return next != null;
+        }
+
+        @Override
+        public String[] next() {
+            if (!hasNext()) {
+                return null;
+            }
+            fetched = false;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Stops parsing and releases all threads
+         */
+        private void close() {
+            closed = true;
+            executor.shutdownNow();
+        }
+
+        /**
+         * Returns the next row, or null if there is none
+         * @return
+         */
+        private String[] fetch() {
+
+            while (true) {
+
+                // Switch to the next file
+                if (current == null) {
+                    if (returned == files.length) {
+                        close();
+                        return null;
+                    }
+                    current = get(shards.get(returned));
+                    shards.set(returned, null);
+                    merge();
+
+                    // Return first and compare further headers
+                    if (current.header != null) {
+                        if (header == null) {
+                            header = current.header;
+                            return header;
+                        } else if (!Arrays.equals(header, current.header)) {
+                            close();
+                            throw new IllegalArgumentException("Header of file '" + current.file + "' differs from the first file");
+                        }
+                    }
+                }
+
+                // End of file
+                if (offset == current.size) {
+                    bytesRead += current.file.length();
+                    returned++;
+                    current = null;
+                    remap = null;
+                    offset = 0;
+                    continue;
+                }
+
+                // Decode and release
+                int[] tuple = current.rows[offset];
+                current.rows[offset++] = null;
+                String[] row = new String[tuple.length];
+                for (int column = 0; column < tuple.length; column++) {
+                    row[column] = values.get(column).get(remap[column][tuple[column]]);
+                }
+                return row;
+            }
+        }
+
+        /**
+         * Waits for the given file to be parsed
+         * @param future
+         * @return
+         */
+        private Shard get(Future<Shard> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new RuntimeException("Interrupted while parsing CSV files", e);
+            } catch (ExecutionException e) {
+                close();
+                throw new RuntimeException("Error while parsing '" + files[returned] + "': " + e.getCause(), e.getCause());
+            }
+        }
+
+        /**
+         * Merges the dictionary of the current file into the common dictionary
+         */
+        private void merge() {
+            remap = new int[current.codes.size()][];
+            for (int column = 0; column < remap.length; column++) {
+                if (column == codes.size()) {
+                    codes.add(new ObjectIntOpenHashMap<String>());
+                    values.add(new ArrayList<String>());
+                }
+                ObjectIntOpenHashMap<String> map = codes.get(column);
+                List<String> local = current.values.get(column);
+                remap[column] = new int[local.size()];
+                for (int code = 0; code < local.size(); code++) {
+                    String value = local.get(code);
+                    if (map.containsKey(value)) {
+                        remap[column][code] = map.lget();
+                    } else {
+                        remap[column][code] = map.size();
+                        map.put(value, remap[column][code]);
+                        values.get(column).add(value);
+                    }
+                }
+            }
+            current.codes.clear();
+            current.values.clear();
+        }
+    }
+
     /** The configuration describing the CSV file being used. */
     private ImportConfigurationCSV config;
 
@@ -56,6 +349,12 @@ public class ImportAdapterCSV extends ImportAdapter {
      */
     private CountingInputStream    cin;
 
+    /** Iterator over multiple files, null if only one file is imported. */
+    private ShardIterator          shards;
+
+    /** Whether the import has been closed */
+    private volatile boolean       closed;
+
     /**
      * @see {@link CSVDataInput}
      */
@@ -95,29 +394,66 @@ public class ImportAdapterCSV extends ImportAdapter {
 
         super(config);
         this.config = config;
-        this.bytesTotal = new File(config.getFileLocation()).length();
-
-        /* Used to keep track of progress */
-        cin = new CountingInputStream(new FileInputStream(new File(config.getFileLocation())));
+        String[] locations = config.getFileLocations();
+        File[] files = new File[locations.length];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = new File(locations[i]);
+            this.bytesTotal += files[i].length();
+        }
 
         /* Get CSV iterator */
-        in = new CSVDataInput(cin, config.getCharset(), config.getDelimiter(), config.getQuote(), config.getEscape(), config.getLinebreak());
-        it = in.iterator();
+        if (files.length == 1) {
 
-        /* Check whether there is actual data within the CSV file */
-        if (it.hasNext()) {
-            row = it.next();
-            if (config.getContainsHeader()) {
-                if (!it.hasNext()) {
-                    throw new IOException("CSV contains nothing but header");
+            /* Used to keep track of progress */
+            cin = new CountingInputStream(new FileInputStream(files[0]));
+            in = new CSVDataInput(IOUtil.decompress(cin), config.getCharset(), config.getDelimiter(), config.getQuote(), config.getEscape(), config.getLinebreak());
+            it = in.iterator();
+        } else {
+            shards = new ShardIterator(files, Math.min(config.getNumThreads(), files.length));
+            it = shards;
+        }
+
+        try {
+
+            /* Check whether there is actual data within the CSV file */
+            if (it.hasNext()) {
+                row = it.next();
+                if (config.getContainsHeader()) {
+                    if (!it.hasNext()) {
+                        throw new IOException("CSV contains nothing but header");
+                    }
                 }
+            } else {
+                throw new IOException("CSV file contains no data");
             }
-        } else {
-            throw new IOException("CSV file contains no data");
+
+            // Create header
+            header = createHeader();
+
+        } catch (IOException e) {
+            close();
+            throw e;
+        } catch (RuntimeException e) {
+            close();
+            throw e;
         }
+    }
 
-        // Create header
-        header = createHeader();
+    /**
+     * Stops parsing and closes all files.
+     */
+    @Override
+    public void close() {
+        if (shards != null) {
+            shards.close();
+        }
+        try {
+            if (cin != null) {
+                cin.close();
+            }
+        } catch (IOException e) {
+            /* Ignore silently */
+        }
     }
 
     /**
@@ -131,6 +467,16 @@ public class ImportAdapterCSV extends ImportAdapter {
     @Override
     public int getProgress() {
 
+        /* Multiple files */
+        if (shards != null) {
+            double bytesRead = shards.bytesRead;
+            Shard current = shards.current;
+            if (current != null && current.size > 0) {
+                bytesRead += (double) current.file.length() * (double) shards.offset / (double) current.size;
+            }
+            return (int) (bytesRead / (double) bytesTotal * 100d);
+        }
+
         /* Check whether stream has been opened already at all */
         if (cin == null) {
             return 0;
@@ -179,6 +525,7 @@ public class ImportAdapterCSV extends ImportAdapter {
                 if (config.columns.get(i).isCleansing()) {
                     result[i] = DataType.NULL_VALUE;
                 } else {
+                    close();
                     throw new IllegalArgumentException("Data value does not match data type");
                 }
             }
@@ -18,40 +18,99 @@
 package org.deidentifier.arx.io;
 
 import java.io.IOException;
+import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.common.ThreadPool;
 
 /**
  * Import adapter for JDBC
  * 
  * This adapter can import data from JDBC sources. The source itself is
  * described by an appropriate {@link ImportConfigurationJDBC} object.
+ * Only the configured columns are selected. Depending on the configuration,
+ * rows are fetched with a forward-only cursor and key ranges of the table
+ * are read in parallel on separate connections.
  * 
  * @author Karol Babioch
  * @author Fabian Prasser
  */
 public class ImportAdapterJDBC extends ImportAdapter {
     
+    /**
+     * Reads a range of the table on a separate connection
+     * 
+     * @author Fabian Prasser
+     */
+    private class RangeScan implements Runnable {
+        
+        /** Query */
+        private final String query;
+        
+        /**
+         * Creates a new instance
+         * @param query
+         */
+        private RangeScan(String query) {
+            this.query = query;
+        }
+        
+        @Override
+        public void run() {
+            Connection connection = null;
+            try {
+                connection = config.createConnection();
+                Statement statement = createStatement(connection);
+                ResultSet resultSet = statement.executeQuery(query);
+                while (!closed && !Thread.currentThread().isInterrupted() && resultSet.next()) {
+                    if (!put(read(resultSet))) {
+                        break;
+                    }
+                }
+            } catch (Throwable e) {
+                if (error == null) {
+                    error = e;
+                }
+            } finally {
+                try {
+                    if (connection != null) {
+                        connection.close();
+                    }
+                } catch (Exception e) {
+                    /* Ignore silently */
+                }
+                put(END);
+            }
+        }
+    }
+    
+    /** Marks the end of a range scan */
+    private static final String[]         END = new String[0];
+    
     /** The configuration describing the CSV file being used. */
-    private ImportConfigurationJDBC config;
+    private ImportConfigurationJDBC       config;
     
     /**
      * ResultSet containing rows to return.
      *
      * @see {@link #next()}
      */
-    private ResultSet               resultSet;
+    private ResultSet                     resultSet;
     
     /** JDBC statement. */
-    private Statement               statement;
+    private Statement                     statement;
     
-    /** Indicates whether there is another row to return. */
-    private boolean                 hasNext;
+    /** The next row to return, null if there is none. */
+    private String[]                      nextRow;
     
     /**
      * Indicates whether the first row has already been returned
@@ -60,14 +119,35 @@ public class ImportAdapterJDBC extends ImportAdapter {
      * the name of the column has been assigned explicitly, this is either the
      * value of the table itself, the value defined by the user.
      */
-    private boolean                 headerReturned;
+    private boolean                       headerReturned;
     
     /**
      * Number of rows that need to be processed in total.
      *
      * @see {@link #getProgress()}
      */
-    private int                     totalRows;
+    private int                           totalRows;
+    
+    /** Number of rows that have been returned. */
+    private int                           returnedRows;
+    
+    /** Whether auto-commit has been disabled for cursor-based fetching */
+    private boolean                       resetAutoCommit;
+    
+    /** Rows read by parallel range scans, null if the table is read sequentially */
+    private BlockingQueue<String[]>       queue;
+    
+    /** Executor running the range scans */
+    private ExecutorService               executor;
+    
+    /** Number of range scans that have not finished yet */
+    private int                           pendingScans;
+    
+    /** First error that occurred in a range scan */
+    private volatile Throwable            error;
+    
+    /** Whether resources have been closed */
+    private volatile boolean              closed;
     
     /**
      * Creates a new instance of this object with given configuration.
@@ -84,13 +164,14 @@ public class ImportAdapterJDBC extends ImportAdapter {
         /* Preparation work */
         indexes = getIndexesToImport();
         dataTypes = getColumnDatatypes();
+        Connection connection = config.getConnection();
+        String[] names;
         
         try {
             
             /* Used to keep track of progress */
-            statement = config.getConnection().createStatement();
-            statement.execute("SELECT COUNT(*) FROM " + config.getTable());
-            resultSet = statement.getResultSet();
+            statement = connection.createStatement();
+            resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + config.getTable());
             
             if (resultSet.next()) {
                 
@@ -104,12 +185,34 @@ public class ImportAdapterJDBC extends ImportAdapter {
                 closeResources();
                 throw new IOException("Couldn't determine number of rows");
             }
+            resultSet.close();
+            statement.close();
+            
+            /* Only select the columns to import */
+            names = getColumnNames(connection);
+            String quote = getQuote(connection);
+            StringBuilder query = new StringBuilder("SELECT ");
+            List<ImportColumn> columns = config.getColumns();
+            for (int i = 0; i < columns.size(); i++) {
+                int index = ((ImportColumnJDBC) columns.get(i)).getIndex();
+                if (index < 0 || index >= names.length) {
+                    closeResources();
+                    throw new IllegalArgumentException("Index for column '" + index + "' couldn't be found");
+                }
+                query.append(i == 0 ? "" : ", ").append(quote).append(names[index]).append(quote);
+            }
+            query.append(" FROM ").append(config.getTable());
             
             /* Query for actual data */
-            statement = config.getConnection().createStatement();
-            statement.execute("SELECT * FROM " + config.getTable());
-            resultSet = statement.getResultSet();
-            hasNext = resultSet.next();
+            if (config.getNumConnections() > 1) {
+                startRangeScans(connection, query.toString(), quote + config.getKeyColumn() + quote);
+                statement = null;
+                resultSet = null;
+            } else {
+                statement = createStatement(connection);
+                resultSet = statement.executeQuery(query.toString());
+            }
+            nextRow = fetch();
             
         } catch (SQLException e) {
             closeResources();
@@ -117,38 +220,32 @@ public class ImportAdapterJDBC extends ImportAdapter {
         }
         
         // Create header
-        header = createHeader();
+        header = createHeader(names);
     }
     
     /**
      * Returns the percentage of data that has already been returned
      * 
      * This divides the number of rows that have already been returned by the
-     * number of total rows and casts the result into a percentage. In case of
-     * an {@link SQLException} 0 will be returned.
+     * number of total rows and casts the result into a percentage.
      *
      * @return
      */
     @Override
     public int getProgress() {
-        
-        try {
-            return (int) (((double) resultSet.getRow() / (double) totalRows) * 100d);
-        } catch (SQLException e) {
-            return 0;
-        }
+        return (int) (((double) returnedRows / (double) totalRows) * 100d);
     }
     
     /**
      * Indicates whether there is another element to return
      * 
-     * This returns true when there is another element in the result set {@link #resultSet}.
+     * This returns true when there is another row that has been fetched from the database.
      *
      * @return
      */
     @Override
     public boolean hasNext() {
-        return hasNext;
+        return !headerReturned || nextRow != null;
     }
     
     /*
@@ -167,11 +264,9 @@ public class ImportAdapterJDBC extends ImportAdapter {
         
         try {
             
-            /* Create regular row */
-            String[] result = new String[indexes.length];
+            /* Check regular row */
+            String[] result = nextRow;
             for (int i = 0; i < indexes.length; i++) {
-                
-                result[i] = IOUtil.trim(resultSet.getString(indexes[i]));
                 if (!dataTypes[i].isValid(result[i])) {
                     if (config.columns.get(i).isCleansing()) {
                         result[i] = DataType.NULL_VALUE;
@@ -182,10 +277,11 @@ public class ImportAdapterJDBC extends ImportAdapter {
                 }
             }
             
-            /* Move cursor forward and assign result to {@link #hasNext} */
-            hasNext = resultSet.next();
+            /* Move cursor forward */
+            returnedRows++;
+            nextRow = fetch();
             
-            if (!hasNext) {
+            if (nextRow == null) {
                 closeResources();
             }
             
@@ -197,6 +293,14 @@ public class ImportAdapterJDBC extends ImportAdapter {
         }
     }
     
+    /**
+     * Closes the JDBC resources and stops all range scans.
+     */
+    @Override
+    public void close() {
+        closeResources();
+    }
+    
     /**
      * Dummy.
      */
@@ -209,6 +313,13 @@ public class ImportAdapterJDBC extends ImportAdapter {
      * Closes the JDBC resources.
      */
     private void closeResources() {
+        closed = true;
+        if (queue != null) {
+            queue.clear();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
         try {
             if (resultSet != null) {
                 resultSet.close();
@@ -223,6 +334,14 @@ public class ImportAdapterJDBC extends ImportAdapter {
         } catch (Exception e) {
             /* Ignore silently */
         }
+        try {
+            if (resetAutoCommit) {
+                resetAutoCommit = false;
+                config.getConnection().setAutoCommit(true);
+            }
+        } catch (Exception e) {
+            /* Ignore silently */
+        }
         try {
             if (config.isManageConnection()) {
                 config.getConnection().close();
@@ -240,9 +359,10 @@ public class ImportAdapterJDBC extends ImportAdapter {
      * or not names have been assigned explicitly either the appropriate values
      * will be returned, or names from the JDBC metadata will be used.
      *
+     * @param names Names of all columns from the JDBC metadata
      * @return
      */
-    private String[] createHeader() {
+    private String[] createHeader(String[] names) {
         
         /* Initialization */
         String[] header = new String[config.getColumns().size()];
@@ -262,12 +382,7 @@ public class ImportAdapterJDBC extends ImportAdapter {
             } else {
                 
                 /* Assign name from JDBC metadata */
-                try {
-                    /* +1 offset, because counting in JDBC starts at 1 */
-                    header[i] = IOUtil.trim(resultSet.getMetaData().getColumnName(((ImportColumnJDBC) column).getIndex() + 1));
-                } catch (SQLException e) {
-                    throw new IllegalArgumentException("Index for column '" + ((ImportColumnJDBC) column).getIndex() + "' couldn't be found");
-                }
+                header[i] = IOUtil.trim(names[((ImportColumnJDBC) column).getIndex()]);
             }
             column.setAliasName(header[i]);
         }
@@ -277,26 +392,221 @@ public class ImportAdapterJDBC extends ImportAdapter {
         
     }
     
+    /**
+     * Creates a statement for reading the table. If a fetch size has been
+     * configured, a forward-only cursor is used.
+     * 
+     * @param connection
+     * @return
+     * @throws SQLException
+     */
+    private Statement createStatement(Connection connection) throws SQLException {
+        
+        /* Default behavior */
+        if (config.getFetchSize() == 0) {
+            return connection.createStatement();
+        }
+        
+        /* Some drivers, e.g. for PostgreSQL, only use cursors within transactions */
+        if (connection.getAutoCommit()) {
+            connection.setAutoCommit(false);
+            if (connection == config.getConnection()) {
+                resetAutoCommit = true;
+            }
+        }
+        
+        /* MySQL only streams rows one by one */
+        Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        if ("MySQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            statement.setFetchSize(Integer.MIN_VALUE);
+        } else {
+            statement.setFetchSize(config.getFetchSize());
+        }
+        return statement;
+    }
+    
+    /**
+     * Returns the next row, or null if there is none. Errors that occurred
+     * in a range scan are rethrown as soon as the scan has ended.
+     * 
+     * @return
+     * @throws SQLException
+     */
+    private String[] fetch() throws SQLException {
+        
+        /* Sequential scan */
+        if (queue == null) {
+            return resultSet.next() ? read(resultSet) : null;
+        }
+        
+        /* Parallel range scans */
+        while (pendingScans > 0) {
+            String[] row;
+            try {
+                row = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                closeResources();
+                throw new RuntimeException("Interrupted while retrieving data from database", e);
+            }
+            if (row != END) {
+                return row;
+            }
+            pendingScans--;
+            if (error != null) {
+                closeResources();
+                if (error instanceof SQLException) {
+                    throw (SQLException) error;
+                } else if (error instanceof RuntimeException) {
+                    throw (RuntimeException) error;
+                } else if (error instanceof Error) {
+                    throw (Error) error;
+                } else {
+                    throw new RuntimeException(error);
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the names of all columns of the table
+     * 
+     * @param connection
+     * @return
+     * @throws SQLException
+     */
+    private String[] getColumnNames(Connection connection) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            ResultSetMetaData metadata = statement.executeQuery("SELECT * FROM " + config.getTable() + " WHERE 1 = 0").getMetaData();
+            String[] names = new String[metadata.getColumnCount()];
+            for (int i = 0; i < names.length; i++) {
+                /* +1 offset, because counting in JDBC starts at 1 */
+                names[i] = metadata.getColumnName(i + 1);
+            }
+            return names;
+        } finally {
+            statement.close();
+        }
+    }
+    
+    /**
+     * Returns the string used to quote identifiers
+     * 
+     * @param connection
+     * @return
+     * @throws SQLException
+     */
+    private String getQuote(Connection connection) throws SQLException {
+        String quote = connection.getMetaData().getIdentifierQuoteString();
+        return quote == null ? "" : quote.trim();
+    }
+    
+    /**
+     * Passes a row read by a range scan to the adapter. Returns false if the adapter has been
+     * closed or the range scan has been interrupted.
+     * 
+     * @param row
+     * @return
+     */
+    private boolean put(String[] row) {
+        try {
+            while (!closed) {
+                if (queue.offer(row, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+    
+    /**
+     * Reads the current row from the given result set
+     * 
+     * @param resultSet
+     * @return
+     * @throws SQLException
+     */
+    private String[] read(ResultSet resultSet) throws SQLException {
+        String[] result = new String[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            result[i] = IOUtil.trim(resultSet.getString(indexes[i]));
+        }
+        return result;
+    }
+    
+    /**
+     * Splits the table into ranges of the key column and starts reading them in parallel
+     * 
+     * @param connection
+     * @param query
+     * @param key
+     * @throws SQLException
+     */
+    private void startRangeScans(Connection connection, String query, String key) throws SQLException {
+        
+        /* Determine domain of the key */
+        long min = 0;
+        long max = 0;
+        Statement statement = connection.createStatement();
+        try {
+            ResultSet resultSet = statement.executeQuery("SELECT MIN(" + key + "), MAX(" + key + ") FROM " + config.getTable());
+            if (resultSet.next()) {
+                min = resultSet.getLong(1);
+                max = resultSet.getLong(2);
+            }
+        } finally {
+            statement.close();
+        }
+        
+        /* Split into ranges. Rows with a null key are read by the first range. */
+        int ranges = config.getNumConnections();
+        long width = (max - min) / ranges + 1;
+        if (max - min < 0) {
+            ranges = 1;
+        }
+        String[] queries = new String[ranges];
+        for (int i = 0; i < ranges; i++) {
+            long lower = min + i * width;
+            long upper = lower + width;
+            if (ranges == 1) {
+                queries[i] = query;
+            } else if (i == 0) {
+                queries[i] = query + " WHERE " + key + " < " + upper + " OR " + key + " IS NULL";
+            } else if (i == ranges - 1) {
+                queries[i] = query + " WHERE " + key + " >= " + lower;
+            } else {
+                queries[i] = query + " WHERE " + key + " >= " + lower + " AND " + key + " < " + upper;
+            }
+        }
+        
+        /* Start */
+        queue = new ArrayBlockingQueue<String[]>(Math.max(config.getFetchSize(), 1000));
+        pendingScans = ranges;
+        executor = ThreadPool.create("ARX JDBC range scan", ranges);
+        for (int i = 0; i < ranges; i++) {
+            executor.execute(new RangeScan(queries[i]));
+        }
+    }
+    
     /**
      * Returns an array with indexes of columns that should be imported
      * 
-     * Only columns listed within {@link #column} will be imported. This
-     * iterates over the list of columns and returns an array with indexes of
-     * columns that should be imported.
+     * Only columns listed within {@link #column} are selected from the
+     * table, in the order in which they have been configured. This returns
+     * the JDBC indexes of these columns within the result set.
      * 
      * @return Array containing indexes of columns that should be imported
      */
     protected int[] getIndexesToImport() {
         
-        /* Get indexes to import from */
-        ArrayList<Integer> indexes = new ArrayList<Integer>();
-        for (ImportColumn column : config.getColumns()) {
-            indexes.add(((ImportColumnJDBC) column).getIndex());
-        }
-        
-        int[] result = new int[indexes.size()];
+        /* +1 offset, because counting in JDBC starts at 1 */
+        int[] result = new int[config.getColumns().size()];
         for (int i = 0; i < result.length; i++) {
-            result[i] = indexes.get(i) + 1;
+            result[i] = i + 1;
         }
         
         return result;
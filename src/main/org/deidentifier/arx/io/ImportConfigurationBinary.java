@@ -0,0 +1,95 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+/**
+ * Configuration describing a binary data file written by {@link BinaryDataOutput}.
+ * Binary files always contain the names of all columns.
+ *
+ * @author Fabian Prasser
+ */
+public class ImportConfigurationBinary extends ImportConfigurationFile {
+
+    /**
+     * Creates a new instance of this object.
+     *
+     * @param fileLocation {@link #setFileLocation(String)}
+     */
+    public ImportConfigurationBinary(String fileLocation) {
+        setFileLocation(fileLocation);
+    }
+
+    /**
+     * Adds a single column to import from
+     *
+     * This makes sure that only {@link ImportColumnBinary} can be added,
+     * otherwise an {@link IllegalArgumentException} will be thrown.
+     *
+     * @param column
+     *            A single column to import from, {@link ImportColumnBinary}
+     */
+    @Override
+    public void addColumn(ImportColumn column) {
+
+        if (!(column instanceof ImportColumnBinary)) {
+            throw new IllegalArgumentException("Column needs to be of type BinaryColumn");
+        }
+
+        for (ImportColumn c : columns) {
+            if (((ImportColumnBinary) column).isIndexSpecified() &&
+                ((ImportColumnBinary) column).getIndex() == ((ImportColumnBinary) c).getIndex()) {
+                throw new IllegalArgumentException("Column for this index already assigned");
+            }
+
+            if (!((ImportColumnBinary) column).isIndexSpecified() &&
+                ((ImportColumnBinary) column).getName().equals(((ImportColumnBinary) c).getName())) {
+                throw new IllegalArgumentException("Column for this name already assigned");
+            }
+
+            if (column.getAliasName() != null && c.getAliasName() != null &&
+                c.getAliasName().equals(column.getAliasName())) {
+                throw new IllegalArgumentException("Column names need to be unique");
+            }
+        }
+        this.columns.add(column);
+    }
+
+    /**
+     * Sets the indexes based on the header.
+     *
+     * @param header
+     */
+    public void prepare(String[] header) {
+
+        for (ImportColumn c : super.getColumns()) {
+            ImportColumnBinary column = (ImportColumnBinary) c;
+            if (!column.isIndexSpecified()) {
+                boolean found = false;
+                for (int i = 0; i < header.length; i++) {
+                    if (header[i].equals(column.getName())) {
+                        found = true;
+                        column.setIndex(i);
+                    }
+                }
+                if (!found) {
+                    throw new IllegalArgumentException("Index for column '" + column.getName() + "' couldn't be found");
+                }
+            }
+        }
+    }
+}
@@ -49,6 +49,12 @@ public class ImportConfigurationCSV extends ImportConfigurationFile implements I
     /** The charset of the CSV file */
     private final Charset charset;
 
+    /** Further files with the same structure, which are imported after the first file. */
+    private String[]      additionalFileLocations = new String[0];
+
+    /** Number of threads used for parsing multiple files. */
+    private int           numThreads              = Runtime.getRuntime().availableProcessors();
+
     /**
      * Creates a new instance of this object.
      *
@@ -262,6 +268,49 @@ public class ImportConfigurationCSV extends ImportConfigurationFile implements I
         this.containsHeader = containsHeader;
     }
 
+    /**
+     * Returns the locations of all files, starting with {@link #getFileLocation()}.
+     * @return
+     */
+    public String[] getFileLocations() {
+        String[] result = new String[additionalFileLocations.length + 1];
+        result[0] = getFileLocation();
+        System.arraycopy(additionalFileLocations, 0, result, 1, additionalFileLocations.length);
+        return result;
+    }
+
+    /**
+     * Returns the number of threads used for parsing multiple files.
+     * @return
+     */
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    /**
+     * Sets further files, e.g. shards of an extract, which must have the same structure
+     * as the first file. If the files contain a header, each file must contain the same one.
+     * Files are imported in the given order.
+     * 
+     * @param fileLocations
+     */
+    public void setAdditionalFileLocations(String... fileLocations) {
+        this.additionalFileLocations = fileLocations.clone();
+    }
+
+    /**
+     * Sets the number of threads used for parsing multiple files. Files are parsed
+     * in parallel and then returned in the given order.
+     * 
+     * @param numThreads
+     */
+    public void setNumThreads(int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.numThreads = numThreads;
+    }
+
     /**
      * Returns the charset of the CSV file.
      * @return
@@ -52,6 +52,36 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
      */
     private final boolean manageConnection;
     
+    /** URL used to open additional connections, null if the connection has been passed. */
+    private final String  url;
+    
+    /** User used to open additional connections. */
+    private final String  user;
+    
+    /** Password used to open additional connections. */
+    private final String  password;
+    
+    /**
+     * Number of rows fetched from the database at once, 0 for the driver's default.
+     *
+     * @see {@link #setFetchSize(int)}
+     */
+    private int           fetchSize        = 0;
+    
+    /**
+     * Integral column used to split the table into key ranges.
+     *
+     * @see {@link #setParallelScan(String, int)}
+     */
+    private String        keyColumn        = null;
+    
+    /**
+     * Number of connections on which key ranges are read in parallel.
+     *
+     * @see {@link #setParallelScan(String, int)}
+     */
+    private int           numConnections   = 1;
+    
     /**
      * Creates a new instance of this object.
      *
@@ -62,6 +92,9 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         this.connection = connection;
         this.table = table;
         this.manageConnection = false;
+        this.url = null;
+        this.user = null;
+        this.password = null;
     }
     
     /**
@@ -75,6 +108,9 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         this.connection = DriverManager.getConnection(url);
         this.table = table;
         this.manageConnection = true;
+        this.url = url;
+        this.user = null;
+        this.password = null;
     }
     
     /**
@@ -90,6 +126,9 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         this.connection = DriverManager.getConnection(url, user, password);
         this.table = table;
         this.manageConnection = true;
+        this.url = url;
+        this.user = user;
+        this.password = password;
     }
     
     /**
@@ -138,6 +177,56 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         this.columns.add(column);
     }
     
+    /**
+     * Enables streaming of the result set. Most drivers, e.g. for PostgreSQL and MySQL,
+     * buffer the complete result on the client before returning the first row. If a fetch
+     * size is given, the table is read with a forward-only cursor instead, which fetches
+     * the given number of rows at a time. For PostgreSQL, this requires disabling auto-commit
+     * for the duration of the import, for MySQL rows are streamed one by one.
+     *
+     * @param fetchSize Number of rows to fetch at once, 0 to use the driver's default behavior
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("Fetch size must not be negative");
+        }
+        this.fetchSize = fetchSize;
+    }
+    
+    /**
+     * Splits the table into ranges of the given integral key column, which are read
+     * in parallel on separate connections. This requires that the configuration has
+     * been created with a JDBC URL. The order in which rows are imported is undefined.
+     *
+     * @param keyColumn Name of an integral column, ideally an indexed primary key
+     * @param numConnections Number of connections
+     */
+    public void setParallelScan(String keyColumn, int numConnections) {
+        if (keyColumn == null) {
+            throw new IllegalArgumentException("Key column must not be null");
+        }
+        if (numConnections < 1) {
+            throw new IllegalArgumentException("Number of connections must be positive");
+        }
+        if (numConnections > 1 && url == null) {
+            throw new IllegalArgumentException("Parallel scans require a JDBC URL");
+        }
+        this.keyColumn = keyColumn;
+        this.numConnections = numConnections;
+    }
+    
+    /**
+     * Opens an additional connection to the database
+     * @return
+     * @throws SQLException
+     */
+    protected Connection createConnection() throws SQLException {
+        if (url == null) {
+            throw new IllegalStateException("No JDBC URL available");
+        }
+        return user == null ? DriverManager.getConnection(url) : DriverManager.getConnection(url, user, password);
+    }
+    
     /**
      * @return {@link #connection}
      */
@@ -145,6 +234,27 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         return this.connection;
     }
     
+    /**
+     * @return {@link #fetchSize}
+     */
+    protected int getFetchSize() {
+        return this.fetchSize;
+    }
+    
+    /**
+     * @return {@link #keyColumn}
+     */
+    protected String getKeyColumn() {
+        return this.keyColumn;
+    }
+    
+    /**
+     * @return {@link #numConnections}
+     */
+    protected int getNumConnections() {
+        return this.numConnections;
+    }
+    
     /**
      * @return {@link #table}
      */
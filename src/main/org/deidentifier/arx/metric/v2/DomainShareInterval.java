@@ -70,8 +70,8 @@ public class DomainShareInterval<T> extends HierarchyBuilderIntervalBased<T> imp
     public DomainShareInterval(HierarchyBuilderIntervalBased<T> builder,
                                int[][] hierarchy, String[] dictionary) {
         
-        // Super
-        super(builder.getDataType(), builder.getLowerRange(), builder.getUpperRange());
+        // Super, the data type of the builder may be shared and is not thread-safe
+        super(builder.getDataType().clone(), builder.getLowerRange(), builder.getUpperRange());
         
         // Prepare
         this.duplicates = new LongDoubleOpenHashMap();
@@ -300,9 +300,9 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
                 
             // Create fallback-shares for materialized hierarchies
             } else {
-                shares[i] = new DomainShareMaterialized(hierarchy, 
-                                                        input.getDictionary().getMapping()[i],
-                                                        hierarchies[i].getArray());
+                shares[i] = PrecomputationCache.getDomainShareMaterialized(hierarchy, 
+                                                                           input.getDictionary().getMapping()[i],
+                                                                           hierarchies[i].getArray());
             }
         }
    
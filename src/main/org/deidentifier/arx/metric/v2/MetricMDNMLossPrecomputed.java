@@ -141,7 +141,7 @@ public class MetricMDNMLossPrecomputed extends MetricMDNMLoss {
         RowSet subset = super.getSubset(config);
         
         // Cardinalities
-        this.cardinalities = new Cardinalities(input, subset, hierarchies);
+        this.cardinalities = PrecomputationCache.getCardinalities(input, subset, hierarchies);
         
         // Distinct values
         this.values = new int[hierarchies.length][][];
@@ -275,7 +275,7 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
         RowSet subset = super.getSubset(config);
         
         // Cardinalities
-        this.cardinalities = new Cardinalities(input, subset, hierarchies);
+        this.cardinalities = PrecomputationCache.getCardinalities(input, subset, hierarchies);
         this.rows = input.getDataLength();
         double gFactor = super.getGeneralizationFactor();
         double sFactor = super.getSuppressionFactor();
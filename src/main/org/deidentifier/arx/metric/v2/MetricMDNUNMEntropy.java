@@ -17,7 +17,6 @@
 
 package org.deidentifier.arx.metric.v2;
 
-import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.MetricConfiguration;
 
 
@@ -69,9 +68,4 @@ public class MetricMDNUNMEntropy extends MetricMDNUNMEntropyPrecomputed {
     public String toString() {
         return "Non-monotonic non-uniform entropy";
     }
-
-    @Override
-    protected AbstractILMultiDimensional getLowerBoundInternal(Transformation node) {
-        return null;
-    }
 }
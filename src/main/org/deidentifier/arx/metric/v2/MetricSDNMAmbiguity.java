@@ -213,9 +213,9 @@ public class MetricSDNMAmbiguity extends AbstractMetricSingleDimensional {
             // Extract info
             String attribute = input.getHeader()[i];
             String[][] hierarchy = definition.getHierarchy(attribute);
-            this.shares[i] = new DomainShareMaterialized(hierarchy,
-                                                         input.getDictionary().getMapping()[i],
-                                                         hierarchies[i].getArray());
+            this.shares[i] = PrecomputationCache.getDomainShareMaterialized(hierarchy,
+                                                                            input.getDictionary().getMapping()[i],
+                                                                            hierarchies[i].getArray());
             this.max *= hierarchy.length;
         }
 
@@ -17,8 +17,10 @@
 
 package org.deidentifier.arx.metric.v2;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.deidentifier.arx.ARXConfiguration;
@@ -92,18 +94,33 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     /** Maximum value */
     private Double              max               = null;
 
-    /** Tuple matcher */
+    /** Tuple matcher for distinct input tuples */
     private TupleMatcher        matcher           = null;
 
-    /** Distribution */
+    /** Distinct input tuples */
+    private int[][]             inputTuples       = null;
+
+    /** Frequencies of distinct input tuples */
     private double[]            inputDistribution = null;
 
+    /** Number of occurrences of distinct input tuples */
+    private double[]            inputCounts       = null;
+
+    /** Share times domain size of the generalized value for each dimension, level and input value */
+    private double[][][]        areas             = null;
+
     /** Log 2. */
     private static final double LOG2              = Math.log(2);
 
     /** Maximal area */
     private double              maximalArea       = 0d;
 
+    /** Lower bound: weighted logarithms of the input frequencies */
+    private double              boundFrequencies  = 0d;
+
+    /** Lower bound: weighted logarithms of the areas for each dimension and level */
+    private double[][]          boundAreas        = null;
+
     /**
      * Default constructor.
      */
@@ -150,17 +167,35 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     }
 
     /**
-     * Returns the area
-     * @param output
+     * Returns a lower bound on the information loss of the given generalization, which
+     * does not depend on the data. The output frequency of each distinct input tuple
+     * is at most one divided by its area, because a class contains at most all tuples
+     * and suppressed tuples are distributed over the maximal area. As areas grow with
+     * generalization, the bound is also a lower bound for all successors.
+     * 
+     * @param generalization
+     * @return
+     */
+    private double getLowerBound(int[] generalization) {
+        double result = this.boundFrequencies;
+        for (int dimension = 0; dimension < generalization.length; dimension++) {
+            result += this.boundAreas[dimension][generalization[dimension]];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the area of the class of the given distinct input tuple
+     * @param tuple
      * @param generalization
      * @return
      */
-    private double getArea(int[] output, int[] generalization) {
+    private double getArea(int tuple, int[] generalization) {
         
+        int[] input = this.inputTuples[tuple];
         double result = 1d;
-        for (int dimension = 0; dimension < output.length; dimension++) {
-            DomainShare share = this.shares[dimension];
-            result *= share.getShare(output[dimension], generalization[dimension]) * share.getDomainSize();
+        for (int dimension = 0; dimension < input.length; dimension++) {
+            result *= this.areas[dimension][generalization[dimension]][input[dimension]];
         }
         return result;
     }
@@ -169,38 +204,28 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     protected ILSingleDimensionalWithBound getInformationLossInternal(Transformation node, HashGroupify g) {
         
         // Obtain number of outliers
-        double outliers = 0d;
-        HashGroupifyEntry m = g.getFirstEquivalenceClass();
-        while (m != null) {
-            outliers += !m.isNotOutlier ? m.count : 0d;
-            m = m.nextOrdered;
-        }
+        double outliers = g.getNumberOfOutliers();
         
         // Init
         double result = 0d;
         
-        // For each tuple
-        for (int row = 0; row < this.inputDistribution.length; row++) {
+        // For each distinct tuple
+        int[] generalization = node.getGeneralization();
+        for (int tuple = 0; tuple < this.inputTuples.length; tuple++) {
             
             // Obtain frequency
-            double inputFrequency = inputDistribution[row];
+            double inputFrequency = inputDistribution[tuple];
+            HashGroupifyEntry entry = this.matcher.getEntry(tuple, generalization, g);
+            double outputFrequency = entry.isNotOutlier ? entry.count : outliers;
+            outputFrequency /= this.tuples;
+            outputFrequency /= entry.isNotOutlier ? getArea(tuple, generalization) : maximalArea;
             
-            // Only if present
-            if (inputFrequency != 0d) {
-                
-                int[] generalization = node.getGeneralization();
-                HashGroupifyEntry entry = this.matcher.getEntry(row, generalization, g);
-                double outputFrequency = entry.isNotOutlier ? entry.count : outliers;
-                outputFrequency /= this.tuples;
-                outputFrequency /= entry.isNotOutlier ? getArea(entry.key, generalization) : maximalArea;
-                
-                // Compute KL-Divergence
-                result += inputFrequency * log2(inputFrequency / outputFrequency);
-            }
+            // Compute KL-Divergence for all rows containing the tuple
+            result += inputCounts[tuple] * inputFrequency * log2(inputFrequency / outputFrequency);
         }
         
         // Return
-        return new ILSingleDimensionalWithBound(result);
+        return new ILSingleDimensionalWithBound(result, getLowerBound(generalization));
     }
 
     @Override
@@ -210,13 +235,13 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     
     @Override
     protected ILSingleDimensional getLowerBoundInternal(Transformation node) {
-        return null;
+        return new ILSingleDimensional(getLowerBound(node.getGeneralization()));
     }
 
     @Override
     protected ILSingleDimensional getLowerBoundInternal(Transformation node,
                                                         HashGroupify g) {
-        return null;
+        return this.getLowerBoundInternal(node);
     }
     
     @Override
@@ -236,45 +261,78 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
             // Extract info
             String attribute = input.getHeader()[i];
             String[][] hierarchy = definition.getHierarchy(attribute);
-            this.shares[i] = new DomainShareMaterialized(hierarchy,
-                                                         input.getDictionary().getMapping()[i],
-                                                         hierarchies[i].getArray());
+            this.shares[i] = PrecomputationCache.getDomainShareMaterialized(hierarchy,
+                                                                            input.getDictionary().getMapping()[i],
+                                                                            hierarchies[i].getArray());
         }
 
         // Determine total number of tuples
         this.tuples = (double)super.getNumRecords(config, input);
         RowSet subset = super.getSubset(config);
         
-        // Tuple matcher
-        this.matcher = new TupleMatcher(hierarchies, input.getArray());
-       
         // Areamax
         this.maximalArea = 1d;
         for (int dimension = 0; dimension < this.shares.length; dimension++) {
             maximalArea *= this.shares[dimension].getDomainSize();
         }
         
+        // Precompute areas for each dimension, level and input value
+        this.areas = new double[hierarchies.length][][];
+        for (int dimension = 0; dimension < hierarchies.length; dimension++) {
+            DomainShare share = this.shares[dimension];
+            int[][] hierarchy = hierarchies[dimension].getArray();
+            int levels = hierarchies[dimension].getHeight();
+            this.areas[dimension] = new double[levels][hierarchy.length];
+            for (int level = 0; level < levels; level++) {
+                for (int value = 0; value < hierarchy.length; value++) {
+                    this.areas[dimension][level][value] = share.getShare(hierarchy[value][level], level) * share.getDomainSize();
+                }
+            }
+        }
+        
         // Groupify
        Map<TupleWrapper, Integer> groupify = new HashMap<TupleWrapper, Integer>();
+       List<int[]> distinct = new ArrayList<int[]>();
+       List<Integer> counts = new ArrayList<Integer>();
        for (int row = 0; row < input.getDataLength(); row++) {
            if (subset == null || subset.contains(row)) {
                TupleWrapper wrapper = new TupleWrapper(input.getArray()[row]);
-               Integer count = groupify.get(wrapper);
-               count = count == null ? 1 : count + 1;
-               groupify.put(wrapper, count);
+               Integer index = groupify.get(wrapper);
+               if (index == null) {
+                   groupify.put(wrapper, distinct.size());
+                   distinct.add(input.getArray()[row]);
+                   counts.add(1);
+               } else {
+                   counts.set(index, counts.get(index) + 1);
+               }
            }
        }
        
-       // Build input distribution and compute max
+       // Build input distribution over distinct tuples and compute max and lower bounds
        this.max = 0d;
-       this.inputDistribution = new double[input.getArray().length];
-       for (int row = 0; row < input.getDataLength(); row++) {
-           if (subset == null || subset.contains(row)) {
-               TupleWrapper wrapper = new TupleWrapper(input.getArray()[row]);
-               double frequency = groupify.get(wrapper).doubleValue() / this.tuples;
-               this.inputDistribution[row] = frequency ;
-               max += frequency * log2(frequency * maximalArea);
+       this.inputTuples = distinct.toArray(new int[distinct.size()][]);
+       this.inputDistribution = new double[inputTuples.length];
+       this.inputCounts = new double[inputTuples.length];
+       this.boundFrequencies = 0d;
+       this.boundAreas = new double[hierarchies.length][];
+       for (int dimension = 0; dimension < hierarchies.length; dimension++) {
+           this.boundAreas[dimension] = new double[hierarchies[dimension].getHeight()];
+       }
+       for (int tuple = 0; tuple < inputTuples.length; tuple++) {
+           double count = counts.get(tuple).doubleValue();
+           double frequency = count / this.tuples;
+           this.inputDistribution[tuple] = frequency;
+           this.inputCounts[tuple] = count;
+           max += count * frequency * log2(frequency * maximalArea);
+           boundFrequencies += count * frequency * log2(frequency);
+           for (int dimension = 0; dimension < hierarchies.length; dimension++) {
+               for (int level = 0; level < boundAreas[dimension].length; level++) {
+                   boundAreas[dimension][level] += count * frequency * log2(areas[dimension][level][inputTuples[tuple][dimension]]);
+               }
            }
        }
+       
+       // Tuple matcher
+       this.matcher = new TupleMatcher(hierarchies, inputTuples);
     }
 }
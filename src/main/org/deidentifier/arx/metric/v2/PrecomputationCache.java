@@ -0,0 +1,326 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.metric.v2;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.deidentifier.arx.RowSet;
+import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+
+/**
+ * A bounded cache for cardinalities and domain shares, which are shared by all metrics
+ * and anonymization processes. Entries are addressed by the content they are derived from,
+ * i.e. the encoded data, research subset and hierarchies, which is compared completely
+ * on every hit. As a consequence, anonymizing the same dataset with different privacy
+ * models reuses the results from previous runs. Entries are only softly referenced and
+ * may be reclaimed by the garbage collector at any time. Moreover, the least recently
+ * used entry is evicted first.
+ *
+ * @author Fabian Prasser
+ */
+public class PrecomputationCache {
+
+    /**
+     * Key of cached cardinalities
+     *
+     * @author Fabian Prasser
+     */
+    private static class CardinalitiesKey {
+
+        /** Encoded data */
+        private final int[][]   data;
+        /** Rows in the research subset, null if there is none */
+        private final int[]     subset;
+        /** Sizes of the domains */
+        private final int[]     domains;
+        /** Encoded hierarchies */
+        private final int[][][] hierarchies;
+        /** Hash code */
+        private final int       hashcode;
+
+        /**
+         * Creates a new instance
+         *
+         * @param data
+         * @param subset
+         * @param hierarchies
+         */
+        private CardinalitiesKey(Data data, RowSet subset, GeneralizationHierarchy[] hierarchies) {
+            this.data = data.getArray();
+            this.subset = subset == null ? null : getRows(subset, this.data.length);
+            this.domains = new int[hierarchies.length];
+            this.hierarchies = new int[hierarchies.length][][];
+            String[][] mapping = data.getDictionary().getMapping();
+            for (int column = 0; column < hierarchies.length; column++) {
+                this.domains[column] = mapping[column].length;
+                this.hierarchies[column] = hierarchies[column].getArray();
+            }
+            int result = Arrays.deepHashCode(this.data);
+            result = 31 * result + Arrays.hashCode(this.subset);
+            result = 31 * result + Arrays.hashCode(this.domains);
+            result = 31 * result + Arrays.deepHashCode(this.hierarchies);
+            this.hashcode = result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) { return true; }
+            if (obj == null || getClass() != obj.getClass()) { return false; }
+            CardinalitiesKey other = (CardinalitiesKey) obj;
+            return hashcode == other.hashcode &&
+                   Arrays.equals(domains, other.domains) &&
+                   Arrays.equals(subset, other.subset) &&
+                   Arrays.deepEquals(hierarchies, other.hierarchies) &&
+                   Arrays.deepEquals(data, other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+
+        /**
+         * Returns the indices of the rows contained in the given subset
+         *
+         * @param subset
+         * @param rows
+         * @return
+         */
+        private static int[] getRows(RowSet subset, int rows) {
+            int[] result = new int[subset.size()];
+            int index = 0;
+            for (int row = 0; row < rows; row++) {
+                if (subset.contains(row)) {
+                    result[index++] = row;
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Key of cached domain shares
+     *
+     * @author Fabian Prasser
+     */
+    private static class DomainShareKey {
+
+        /** Raw hierarchy */
+        private final String[][] rawHierarchy;
+        /** Encoded values */
+        private final String[]   encodedValues;
+        /** Encoded hierarchy */
+        private final int[][]    encodedHierarchy;
+        /** Hash code */
+        private final int        hashcode;
+
+        /**
+         * Creates a new instance
+         *
+         * @param rawHierarchy
+         * @param encodedValues
+         * @param encodedHierarchy
+         */
+        private DomainShareKey(String[][] rawHierarchy, String[] encodedValues, int[][] encodedHierarchy) {
+            this.rawHierarchy = rawHierarchy;
+            this.encodedValues = encodedValues;
+            this.encodedHierarchy = encodedHierarchy;
+            int result = Arrays.deepHashCode(rawHierarchy);
+            result = 31 * result + Arrays.hashCode(encodedValues);
+            result = 31 * result + Arrays.deepHashCode(encodedHierarchy);
+            this.hashcode = result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) { return true; }
+            if (obj == null || getClass() != obj.getClass()) { return false; }
+            DomainShareKey other = (DomainShareKey) obj;
+            return hashcode == other.hashcode &&
+                   Arrays.equals(encodedValues, other.encodedValues) &&
+                   Arrays.deepEquals(encodedHierarchy, other.encodedHierarchy) &&
+                   Arrays.deepEquals(rawHierarchy, other.rawHierarchy);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+    }
+
+    /**
+     * A cached value and the key it has been derived from
+     *
+     * @author Fabian Prasser
+     */
+    private static class Entry<K, V> {
+
+        /** Key */
+        private final K key;
+        /** Value */
+        private final V value;
+
+        /**
+         * Creates a new instance
+         *
+         * @param key
+         * @param value
+         */
+        private Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /** Maximal number of entries per type */
+    private static final int                                                                           SIZE          = 32;
+
+    /** Cardinalities */
+    private static final LinkedHashMap<Integer, SoftReference<Entry<CardinalitiesKey, Cardinalities>>> CARDINALITIES = create();
+
+    /** Domain shares */
+    private static final LinkedHashMap<Integer, SoftReference<Entry<DomainShareKey, DomainShare>>>     SHARES        = create();
+
+    /** Number of hits */
+    private static final AtomicLong                                                                    HITS          = new AtomicLong();
+
+    /**
+     * Removes all entries from the cache
+     */
+    public static void clear() {
+        synchronized (CARDINALITIES) {
+            CARDINALITIES.clear();
+        }
+        synchronized (SHARES) {
+            SHARES.clear();
+        }
+    }
+
+    /**
+     * Returns the number of requests that have been answered from the cache
+     *
+     * @return
+     */
+    public static long getNumHits() {
+        return HITS.get();
+    }
+
+    /**
+     * Returns the cardinalities for the given data set
+     *
+     * @param data
+     * @param subset
+     * @param hierarchies
+     * @return
+     */
+    static Cardinalities getCardinalities(Data data, RowSet subset, GeneralizationHierarchy[] hierarchies) {
+        CardinalitiesKey key = new CardinalitiesKey(data, subset, hierarchies);
+        Cardinalities result = get(CARDINALITIES, key);
+        if (result == null) {
+            result = new Cardinalities(data, subset, hierarchies);
+            put(CARDINALITIES, key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the domain shares for the given materialized hierarchy
+     *
+     * @param rawHierarchy
+     * @param encodedValues
+     * @param encodedHierarchy
+     * @return
+     */
+    static DomainShare getDomainShareMaterialized(String[][] rawHierarchy,
+                                                  String[] encodedValues,
+                                                  int[][] encodedHierarchy) {
+        DomainShareKey key = new DomainShareKey(rawHierarchy, encodedValues, encodedHierarchy);
+        DomainShare result = get(SHARES, key);
+        if (result == null) {
+            result = new DomainShareMaterialized(rawHierarchy, encodedValues, encodedHierarchy);
+            put(SHARES, key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a map which evicts the least recently used entry
+     * @return
+     */
+    @SuppressWarnings("serial")
+    private static <T> LinkedHashMap<Integer, T> create() {
+        return new LinkedHashMap<Integer, T>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+                return size() > SIZE;
+            }
+        };
+    }
+
+    /**
+     * Returns the value cached for the given key, or null if there is none
+     *
+     * @param cache
+     * @param key
+     * @return
+     */
+    private static <K, V> V get(LinkedHashMap<Integer, SoftReference<Entry<K, V>>> cache, K key) {
+
+        // Probe
+        Entry<K, V> entry;
+        synchronized (cache) {
+            SoftReference<Entry<K, V>> reference = cache.get(key.hashCode());
+            entry = reference == null ? null : reference.get();
+            if (reference != null && entry == null) {
+                cache.remove(key.hashCode());
+            }
+        }
+
+        // Compare the complete key, outside of the lock
+        if (entry == null || !entry.key.equals(key)) {
+            return null;
+        }
+        HITS.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Stores the given value
+     *
+     * @param cache
+     * @param key
+     * @param value
+     */
+    private static <K, V> void put(LinkedHashMap<Integer, SoftReference<Entry<K, V>>> cache, K key, V value) {
+        synchronized (cache) {
+            cache.put(key.hashCode(), new SoftReference<Entry<K, V>>(new Entry<K, V>(key, value)));
+        }
+    }
+
+    /**
+     * No instantiation
+     */
+    private PrecomputationCache() {
+        // Empty by design
+    }
+}
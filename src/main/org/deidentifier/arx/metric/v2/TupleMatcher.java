@@ -48,7 +48,7 @@ public class TupleMatcher implements Serializable {
     TupleMatcher(GeneralizationHierarchy[] hierarchies, int[][] input) {
         
         // Store hierarchies
-        this.hierarchies = new int[input[0].length][][];
+        this.hierarchies = new int[hierarchies.length][][];
         for (int dimension = 0; dimension < this.hierarchies.length; dimension++) {
             this.hierarchies[dimension] = hierarchies[dimension].getArray();
         }
@@ -0,0 +1,166 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.risk;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.deidentifier.arx.ARXSolverConfiguration;
+import org.deidentifier.arx.risk.RiskModelPopulationUniqueness.PopulationUniquenessModel;
+
+/**
+ * A bounded cache for the estimates of the statistical models for population uniqueness.
+ * Estimates only depend on the histogram of class sizes, the size of the population and the
+ * configuration of the solver. The least recently used estimate is evicted first.
+ * 
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+class ModelCache {
+
+    /**
+     * Key of a cached estimate
+     * 
+     * @author Fabian Prasser
+     * @author Florian Kohlmayer
+     */
+    private static class Key {
+
+        /** Model */
+        private final PopulationUniquenessModel model;
+        /** Class sizes and their frequencies */
+        private final int[]                     histogram;
+        /** Population size */
+        private final long                      populationSize;
+        /** Solver configuration */
+        private final double                    accuracy;
+        /** Solver configuration */
+        private final int                       iterationsPerTry;
+        /** Solver configuration */
+        private final int                       iterationsTotal;
+        /** Solver configuration */
+        private final int                       timePerTry;
+        /** Solver configuration */
+        private final int                       timeTotal;
+        /** Solver configuration */
+        private final double[][]                startValues;
+        /** Hash code */
+        private final int                       hashcode;
+
+        /**
+         * Creates a new instance
+         * 
+         * @param model
+         * @param histogram
+         * @param populationSize
+         * @param config
+         */
+        private Key(PopulationUniquenessModel model,
+                    int[] histogram,
+                    long populationSize,
+                    ARXSolverConfiguration config) {
+            this.model = model;
+            this.histogram = histogram;
+            this.populationSize = populationSize;
+            this.accuracy = config.getAccuracy();
+            this.iterationsPerTry = config.getIterationsPerTry();
+            this.iterationsTotal = config.getIterationsTotal();
+            this.timePerTry = config.getTimePerTry();
+            this.timeTotal = config.getTimeTotal();
+            this.startValues = config.getStartValues() == null ? null : config.getStartValues().clone();
+            int result = model.hashCode();
+            result = 31 * result + Arrays.hashCode(histogram);
+            result = 31 * result + (int) (populationSize ^ (populationSize >>> 32));
+            this.hashcode = result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) { return true; }
+            if (obj == null || getClass() != obj.getClass()) { return false; }
+            Key other = (Key) obj;
+            return hashcode == other.hashcode &&
+                   model == other.model &&
+                   populationSize == other.populationSize &&
+                   Double.compare(accuracy, other.accuracy) == 0 &&
+                   iterationsPerTry == other.iterationsPerTry &&
+                   iterationsTotal == other.iterationsTotal &&
+                   timePerTry == other.timePerTry &&
+                   timeTotal == other.timeTotal &&
+                   Arrays.deepEquals(startValues, other.startValues) &&
+                   Arrays.equals(histogram, other.histogram);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+    }
+
+    /** The estimates */
+    private final LinkedHashMap<Key, Double> estimates;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param size The maximal number of estimates
+     */
+    @SuppressWarnings("serial")
+    ModelCache(final int size) {
+        this.estimates = new LinkedHashMap<Key, Double>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached estimate, or null if there is none
+     * 
+     * @param model
+     * @param histogram
+     * @param populationSize
+     * @param config
+     * @return
+     */
+    synchronized Double get(PopulationUniquenessModel model,
+                            RiskModelHistogram histogram,
+                            long populationSize,
+                            ARXSolverConfiguration config) {
+        return estimates.get(new Key(model, histogram.getHistogram(), populationSize, config));
+    }
+
+    /**
+     * Stores the given estimate
+     * 
+     * @param model
+     * @param histogram
+     * @param populationSize
+     * @param config
+     * @param estimate
+     */
+    synchronized void put(PopulationUniquenessModel model,
+                          RiskModelHistogram histogram,
+                          long populationSize,
+                          ARXSolverConfiguration config,
+                          double estimate) {
+        estimates.put(new Key(model, histogram.getHistogram().clone(), populationSize, config), estimate);
+    }
+}
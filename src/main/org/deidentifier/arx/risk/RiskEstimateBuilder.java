@@ -167,31 +167,6 @@ public class RiskEstimateBuilder {
         }
     }
 
-    /**
-     * Creates a new instance
-     * 
-     * @param population
-     * @param handle
-     * @param identifiers
-     * @param solverconfig
-     */
-    private RiskEstimateBuilder(ARXPopulationModel population,
-                                DataHandleInternal handle,
-                                Set<String> identifiers,
-                                WrappedBoolean stop,
-                                ARXSolverConfiguration solverconfig,
-                                ARXConfiguration arxconfig) {
-        this.population = population;
-        this.handle = handle;
-        this.identifiers = identifiers;
-        this.classes = null;
-        this.solverconfig = solverconfig;
-        this.arxconfig = arxconfig;
-        synchronized (this) {
-            this.stop = stop;
-        }
-    }
-
     /**
      * Returns a model of the equivalence classes in this data set
      * 
@@ -327,22 +302,14 @@ public class RiskEstimateBuilder {
      */
     private RiskModelAttributes getAttributeRisks(final PopulationUniquenessModel model) {
         progress.value = 0;
-        return new RiskModelAttributes(this.identifiers, this.stop, progress) {
+        return new RiskModelAttributes(this.handle, this.identifiers, this.stop, progress, solverconfig.getNumThreads()) {
             @Override
             protected RiskProvider getRiskProvider(final Set<String> attributes,
+                                                   final RiskModelHistogram classes,
                                                    final WrappedBoolean stop) {
 
-                // Compute classes
-                RiskEstimateBuilder builder = new RiskEstimateBuilder(population,
-                                                                      handle,
-                                                                      attributes,
-                                                                      stop,
-                                                                      solverconfig,
-                                                                      arxconfig);
-                RiskModelHistogram classes = builder.getEquivalenceClassModel();
-                builder = new RiskEstimateBuilder(population, handle, classes, stop, solverconfig, arxconfig);
-
                 // Use classes to compute risks
+                RiskEstimateBuilder builder = new RiskEstimateBuilder(population, handle, classes, stop, solverconfig, arxconfig);
                 final RiskModelSampleRisks reidentificationRisks = builder.getSampleBasedReidentificationRisk();
                 final double highestRisk = reidentificationRisks.getHighestRisk();
                 final double averageRisk = reidentificationRisks.getAverageRisk();
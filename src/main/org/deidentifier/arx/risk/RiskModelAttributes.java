@@ -2,19 +2,26 @@ package org.deidentifier.arx.risk;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.common.GroupifyEncoded;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
 
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
 /**
- * A class for attribute-related risks
+ * A class for attribute-related risks. The equivalence classes of all subsets of the
+ * quasi-identifiers are computed by rolling up the classes of a parent subset, which
+ * requires only a single scan over the data. Subsets are processed in parallel, using the
+ * number of threads specified by the solver configuration.
  * 
  * @author Fabian Prasser
  */
@@ -41,9 +48,9 @@ public abstract class RiskModelAttributes {
          * Creates a new instance
          * 
          * @param identifier
+         * @param provider
          */
-        private QuasiIdentifierRisk(Set<String> identifier) {
-            RiskProvider provider = getRiskProvider(identifier, stop);
+        private QuasiIdentifierRisk(Set<String> identifier, RiskProvider provider) {
             this.identifier = identifier;
             this.highestReidentificationRisk = provider.getHighestRisk();
             this.averageReidentificationRisk = provider.getAverageRisk();
@@ -107,63 +114,171 @@ public abstract class RiskModelAttributes {
         public abstract double getHighestRisk();
     }
 
+
+    /**
+     * Computes the risks of a subset of the quasi-identifiers and, recursively, of its subsets.
+     * The equivalence classes of the subset are obtained by rolling up the classes of its parent,
+     * from which exactly one identifier has been removed. Each subset is visited exactly once,
+     * as identifiers are removed in ascending order.
+     * 
+     * @author Fabian Prasser
+     */
+    private class RiskTask extends RecursiveAction {
+
+        /** SVUID */
+        private static final long     serialVersionUID = -4482785218376306432L;
+
+        /** The subset, a bit set over the identifiers */
+        private final int             subset;
+
+        /** The identifier that has been removed from the parent, -1 for the complete set */
+        private final int             removed;
+
+        /** The classes of the parent, or of the subset itself if it is the complete set */
+        private final GroupifyEncoded parentClasses;
+
+        /** The risks of the parent, may be null */
+        private final RiskProvider    parentRisks;
+
+        /**
+         * Creates a new instance
+         * 
+         * @param subset
+         * @param removed
+         * @param parentClasses
+         * @param parentRisks
+         */
+        private RiskTask(int subset, int removed, GroupifyEncoded parentClasses, RiskProvider parentRisks) {
+            this.subset = subset;
+            this.removed = removed;
+            this.parentClasses = parentClasses;
+            this.parentRisks = parentRisks;
+        }
+
+        @Override
+        protected void compute() {
+
+            checkInterrupt();
+            Set<String> attributes = getAttributes(subset);
+
+            // Roll up classes and compute risks. If removing the identifier does not merge
+            // any classes, the subset is dominated by its parent and has the same risks
+            GroupifyEncoded classes = parentClasses;
+            RiskProvider risks = parentRisks;
+            if (removed != -1) {
+                classes = getClasses(parentClasses,
+                                     Integer.bitCount(subset),
+                                     Integer.bitCount(subset & ((1 << removed) - 1)));
+            }
+            if (risks == null || classes.size() != parentClasses.size()) {
+                risks = getRiskProvider(attributes, getHistogram(classes), stop);
+            }
+            results[subset] = new QuasiIdentifierRisk(attributes, risks);
+            percentageDone.value = (int) Math.round((double) done.incrementAndGet() /
+                                                    (double) (results.length - 1) * 100d);
+
+            // Process subsets
+            List<RiskTask> tasks = new ArrayList<RiskTask>();
+            if (attributes.size() > 1) {
+                for (int identifier = removed + 1; identifier < identifiers.length; identifier++) {
+                    if ((subset & (1 << identifier)) != 0) {
+                        tasks.add(new RiskTask(subset & ~(1 << identifier), identifier, classes, risks));
+                    }
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
+
     /** Stop */
     private final WrappedBoolean        stop;
     /** Result */
     private final QuasiIdentifierRisk[] risks;
     /** Result */
     private final int                   numIdentifiers;
+    /** The identifiers, in the order of their columns */
+    private final String[]              identifiers;
+    /** Results of all subsets, indexed by their bit set */
+    private final QuasiIdentifierRisk[] results;
+    /** Progress */
+    private final WrappedInteger        percentageDone;
+    /** Number of subsets processed */
+    private final AtomicInteger         done = new AtomicInteger();
 
     /**
      * Creates a new instance
      * 
+     * @param handle
      * @param identifiers
      * @param stop
+     * @param percentageDone
+     * @param numThreads
      */
-    RiskModelAttributes(Set<String> identifiers,
+    RiskModelAttributes(DataHandleInternal handle,
+                        Set<String> identifiers,
                         WrappedBoolean stop,
-                        WrappedInteger percentageDone) {
+                        WrappedInteger percentageDone,
+                        int numThreads) {
         this.stop = stop;
+        this.percentageDone = percentageDone;
         this.numIdentifiers = identifiers.size();
+        if (numIdentifiers >= Integer.SIZE - 1) {
+            throw new IllegalArgumentException("Too many quasi-identifiers: " + numIdentifiers);
+        }
+
+        // Order identifiers by column
+        for (String identifier : identifiers) {
+            if (handle.getColumnIndexOf(identifier) == -1) { throw new IllegalArgumentException(identifier + " is not an attribute"); }
+        }
+        this.identifiers = new String[numIdentifiers];
+        int index = 0;
+        for (int column = 0; column < handle.getNumColumns(); column++) {
+            if (identifiers.contains(handle.getAttributeName(column))) {
+                this.identifiers[index++] = handle.getAttributeName(column);
+            }
+        }
 
         // Compute risk estimates for all elements in the power set
-        Set<Set<String>> powerset = getPowerSet(identifiers);
-        Map<Set<String>, QuasiIdentifierRisk> scores = new HashMap<Set<String>, QuasiIdentifierRisk>();
-        int done = 0;
-        for (Set<String> set : powerset) {
-            checkInterrupt();
-            if (!set.isEmpty()) {
-                scores.put(set, new QuasiIdentifierRisk(set));
-                percentageDone.value = (int) Math.round((double) done++ /
-                                                        (double) (powerset.size() - 1) *
-                                                        100d);
+        int all = (1 << numIdentifiers) - 1;
+        this.results = new QuasiIdentifierRisk[all + 1];
+        if (numIdentifiers > 0) {
+            ForkJoinPool pool = new ForkJoinPool(numThreads);
+            try {
+                pool.invoke(new RiskTask(all, -1, getClasses(handle), null));
+            } finally {
+                pool.shutdown();
             }
         }
 
-        // Now compute the average of all sets
-        for (Entry<Set<String>, QuasiIdentifierRisk> entry : scores.entrySet()) {
-            int count = 1;
-            for (Entry<Set<String>, QuasiIdentifierRisk> entry2 : scores.entrySet()) {
-                checkInterrupt();
-                if (!entry.getKey().equals(entry2.getKey()) &&
-                    entry2.getKey().containsAll(entry.getKey())) {
-                    entry.getValue().averageReidentificationRisk += entry2.getValue().averageReidentificationRisk;
-                    entry.getValue().fractionOfUniqueTuples += entry2.getValue().fractionOfUniqueTuples;
-                    entry.getValue().highestReidentificationRisk += entry2.getValue().highestReidentificationRisk;
-                    count++;
+        // Now compute the average of all supersets of each set, including the set itself
+        double[] averageRisks = new double[all + 1];
+        double[] fractionsOfUniqueTuples = new double[all + 1];
+        double[] highestRisks = new double[all + 1];
+        for (int subset = 1; subset <= all; subset++) {
+            averageRisks[subset] = results[subset].averageReidentificationRisk;
+            fractionsOfUniqueTuples[subset] = results[subset].fractionOfUniqueTuples;
+            highestRisks[subset] = results[subset].highestReidentificationRisk;
+        }
+        for (int identifier = 0; identifier < numIdentifiers; identifier++) {
+            checkInterrupt();
+            int bit = 1 << identifier;
+            for (int subset = 1; subset <= all; subset++) {
+                if ((subset & bit) == 0) {
+                    averageRisks[subset] += averageRisks[subset | bit];
+                    fractionsOfUniqueTuples[subset] += fractionsOfUniqueTuples[subset | bit];
+                    highestRisks[subset] += highestRisks[subset | bit];
                 }
             }
-            entry.getValue().averageReidentificationRisk /= (double) count;
-            entry.getValue().fractionOfUniqueTuples /= (double) count;
-            entry.getValue().highestReidentificationRisk /= (double) count;
+        }
+        for (int subset = 1; subset <= all; subset++) {
+            double count = 1 << (numIdentifiers - Integer.bitCount(subset));
+            results[subset].averageReidentificationRisk = averageRisks[subset] / count;
+            results[subset].fractionOfUniqueTuples = fractionsOfUniqueTuples[subset] / count;
+            results[subset].highestReidentificationRisk = highestRisks[subset] / count;
         }
 
         // Now create sorted array
-        risks = new QuasiIdentifierRisk[scores.size()];
-        int idx = 0;
-        for (QuasiIdentifierRisk value : scores.values()) {
-            risks[idx++] = value;
-        }
+        risks = Arrays.copyOfRange(results, 1, results.length);
         Arrays.sort(risks);
     }
 
@@ -193,39 +308,91 @@ public abstract class RiskModelAttributes {
     }
 
     /**
-     * Returns the power set
+     * Returns the identifiers contained in the given subset
+     * 
+     * @param subset
+     * @return
+     */
+    private Set<String> getAttributes(int subset) {
+        Set<String> result = new HashSet<String>();
+        for (int identifier = 0; identifier < identifiers.length; identifier++) {
+            if ((subset & (1 << identifier)) != 0) {
+                result.add(identifiers[identifier]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the equivalence classes of all identifiers. Suppressed records are ignored.
+     * 
+     * @param handle
+     * @return
+     */
+    private GroupifyEncoded getClasses(DataHandleInternal handle) {
+
+        int[] indices = new int[numIdentifiers];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = handle.getColumnIndexOf(identifiers[i]);
+        }
+
+        // Calculate equivalence classes
+        int capacity = handle.getNumRows() / 10;
+        capacity = capacity > 10 ? capacity : 10;
+        GroupifyEncoded classes = new GroupifyEncoded(handle, indices, false, capacity);
+        for (int row = 0; row < handle.getNumRows(); row++) {
+            checkInterrupt();
+            if (!handle.isOutlier(row)) {
+                classes.add(row);
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Rolls up the given classes by removing the identifier at the given position
      * 
-     * @param originalSet
+     * @param parent
+     * @param width The number of identifiers after removal
+     * @param position
      * @return
      */
-    private <T> Set<Set<T>> getPowerSet(Set<T> originalSet) {
-        checkInterrupt();
-        Set<Set<T>> sets = new HashSet<Set<T>>();
-        if (originalSet.isEmpty()) {
-            sets.add(new HashSet<T>());
-            return sets;
-        }
-        List<T> list = new ArrayList<T>(originalSet);
-        T head = list.get(0);
-        Set<T> rest = new HashSet<T>(list.subList(1, list.size()));
-        for (Set<T> set : getPowerSet(rest)) {
+    private GroupifyEncoded getClasses(GroupifyEncoded parent, int width, int position) {
+        GroupifyEncoded classes = new GroupifyEncoded(width, parent.size());
+        int[] tuple = new int[width];
+        for (int group = 0; group < parent.size(); group++) {
             checkInterrupt();
-            Set<T> newSet = new HashSet<T>();
-            newSet.add(head);
-            newSet.addAll(set);
-            sets.add(newSet);
-            sets.add(set);
+            for (int i = 0; i < width; i++) {
+                tuple[i] = parent.getValue(group, i < position ? i : i + 1);
+            }
+            classes.add(tuple, parent.getRow(group), parent.getCount(group));
+        }
+        return classes;
+    }
+
+    /**
+     * Returns the distribution of the sizes of the given classes
+     * 
+     * @param classes
+     * @return
+     */
+    private RiskModelHistogram getHistogram(GroupifyEncoded classes) {
+        IntIntOpenHashMap grouped = new IntIntOpenHashMap();
+        for (int group = 0; group < classes.size(); group++) {
+            grouped.putOrAdd(classes.getCount(group), 1, 1);
         }
-        return sets;
+        return new RiskModelHistogram(grouped);
     }
 
     /**
      * Implement this to provide risk estimates
      * 
      * @param attributes
+     * @param classes The equivalence classes induced by the attributes
      * @param stop
      * @return
      */
     protected abstract RiskProvider getRiskProvider(Set<String> attributes,
+                                                    RiskModelHistogram classes,
                                                     WrappedBoolean stop);
 }
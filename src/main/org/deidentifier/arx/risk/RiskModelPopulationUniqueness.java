@@ -18,15 +18,26 @@
 package org.deidentifier.arx.risk;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.ARXPopulationModel;
 import org.deidentifier.arx.ARXSolverConfiguration;
+import org.deidentifier.arx.common.ThreadPool;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
 
 /**
  * Class for risks based on population uniqueness. It implements Dankar et al.'s
- * decision rule.
+ * decision rule. The candidate models of the decision rule are evaluated concurrently,
+ * and estimates are cached, as they only depend on the histogram of class sizes, the
+ * population and the configuration of the solver.
  * 
  * @author Fabian Prasser
  */
@@ -45,6 +56,9 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
         DANKAR,
     }
 
+    /** Estimates, shared by all instances */
+    private static final ModelCache   CACHE            = new ModelCache(1000);
+
     /** Estimate */
     private double                    numUniquesZayatz = -1d;
     /** Estimate */
@@ -126,17 +140,12 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
         // If precomputation (for interruptible builders)
         if (precompute) {
 
-            // Estimate with Zayatz's model
-            getNumUniqueTuplesZayatz();
-            progress.value = 50;
-
-            // Estimate with Pitman's model
-            getNumUniqueTuplesPitman();
+            // Estimate with Zayatz's, Pitman's and the SNB model
+            precompute(PopulationUniquenessModel.ZAYATZ,
+                       PopulationUniquenessModel.PITMAN,
+                       PopulationUniquenessModel.SNB);
             progress.value = 75;
 
-            // Estimate with SNB model
-            getNumUniqueTuplesSNB();
-
             // Decision rule by Dankar et al.
             getNumUniqueTuplesDankar();
             progress.value = 100;
@@ -232,6 +241,9 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
             } else {
                 // Decision rule by Dankar et al.
                 if (samplingFraction <= 0.1) {
+                    if (useZayatzAsFallback) {
+                        precompute(PopulationUniquenessModel.PITMAN, PopulationUniquenessModel.ZAYATZ);
+                    }
                     getNumUniqueTuplesPitman();
                     if (isValid(numUniquesPitman)) {
                         numUniquesDankar = numUniquesPitman;
@@ -242,6 +254,7 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
                         dankarModel = PopulationUniquenessModel.ZAYATZ;
                     } 
                 } else {
+                    precompute(PopulationUniquenessModel.SNB, PopulationUniquenessModel.ZAYATZ);
                     getNumUniqueTuplesSNB();
                     getNumUniqueTuplesZayatz();
                     if (isValid(numUniquesSNB)) {
@@ -271,10 +284,7 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
             if (this.numClassesOfSize1 == 0) {
                 numUniquesPitman = 0;
             } else {
-                numUniquesPitman = new ModelPitman(model,
-                                                   histogram,
-                                                   config,
-                                                   stop).getNumUniques();
+                numUniquesPitman = estimate(PopulationUniquenessModel.PITMAN);
             }
         }
         return isValid(numUniquesPitman) ? numUniquesPitman : 0d;
@@ -289,10 +299,7 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
             if (this.numClassesOfSize1 == 0) {
                 numUniquesSNB = 0;
             } else {
-                numUniquesSNB = new ModelSNB(model,
-                                             histogram,
-                                             config,
-                                             stop).getNumUniques();
+                numUniquesSNB = estimate(PopulationUniquenessModel.SNB);
             }
         }
         return isValid(numUniquesSNB) ? numUniquesSNB : 0d;
@@ -307,9 +314,7 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
             if (this.numClassesOfSize1 == 0) {
                 numUniquesZayatz = 0;
             } else {
-                numUniquesZayatz = new ModelZayatz(model,
-                                                   histogram,
-                                                   stop).getNumUniques();
+                numUniquesZayatz = estimate(PopulationUniquenessModel.ZAYATZ);
             }
         }
         return isValid(numUniquesZayatz) ? numUniquesZayatz : 0d;
@@ -369,6 +374,140 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
         return getNumUniqueTuplesZayatz() != 0d || numClassesOfSize1 == 0;
     }
 
+    /**
+     * Returns the estimate of the given statistical model, which is cached
+     * 
+     * @param statisticalModel
+     * @return
+     */
+    private double estimate(PopulationUniquenessModel statisticalModel) {
+
+        // Check cache
+        Double result = CACHE.get(statisticalModel, histogram, model.getPopulationSize(), config);
+        if (result != null) {
+            return result;
+        }
+
+        // Estimate
+        switch (statisticalModel) {
+        case PITMAN:
+            result = new ModelPitman(model, histogram, config, stop).getNumUniques();
+            break;
+        case SNB:
+            result = new ModelSNB(model, histogram, config, stop).getNumUniques();
+            break;
+        case ZAYATZ:
+            result = new ModelZayatz(model, histogram, stop).getNumUniques();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown model");
+        }
+        CACHE.put(statisticalModel, histogram, model.getPopulationSize(), config, result);
+        return result;
+    }
+
+    /**
+     * Returns the current estimate of the given statistical model, -1 if it has not
+     * been computed, yet
+     * 
+     * @param statisticalModel
+     * @return
+     */
+    private double getEstimate(PopulationUniquenessModel statisticalModel) {
+        switch (statisticalModel) {
+        case PITMAN:
+            return numUniquesPitman;
+        case SNB:
+            return numUniquesSNB;
+        case ZAYATZ:
+            return numUniquesZayatz;
+        default:
+            throw new IllegalArgumentException("Unknown model");
+        }
+    }
+
+    /**
+     * Computes the estimates of the given statistical models concurrently
+     * 
+     * @param statisticalModels
+     */
+    private void precompute(PopulationUniquenessModel... statisticalModels) {
+
+        // Collect models which have not been evaluated
+        if (numClassesOfSize1 == 0) {
+            return;
+        }
+        List<PopulationUniquenessModel> models = new ArrayList<PopulationUniquenessModel>();
+        for (PopulationUniquenessModel statisticalModel : statisticalModels) {
+            if (getEstimate(statisticalModel) == -1d) {
+                models.add(statisticalModel);
+            }
+        }
+        if (models.size() < 2) {
+            return;
+        }
+
+        // Evaluate sequentially, if only a single thread may be used or if estimates
+        // are already computed concurrently, e.g. for subsets of the attributes
+        if (config.getNumThreads() == 1 || ForkJoinTask.inForkJoinPool()) {
+            for (PopulationUniquenessModel statisticalModel : models) {
+                setEstimate(statisticalModel, estimate(statisticalModel));
+            }
+            return;
+        }
+
+        // Evaluate the first model in this thread and all others in the background
+        ExecutorService executor = ThreadPool.create("ARX PopulationUniqueness",
+                                                     Math.min(config.getNumThreads(), models.size()) - 1);
+        List<Future<Double>> futures = new ArrayList<Future<Double>>();
+        for (int i = 1; i < models.size(); i++) {
+            final PopulationUniquenessModel statisticalModel = models.get(i);
+            futures.add(executor.submit(new Callable<Double>() {
+                @Override
+                public Double call() throws Exception {
+                    return estimate(statisticalModel);
+                }
+            }));
+        }
+        try {
+            setEstimate(models.get(0), estimate(models.get(0)));
+            for (int i = 1; i < models.size(); i++) {
+                setEstimate(models.get(i), futures.get(i - 1).get());
+            }
+        } catch (InterruptedException e) {
+            throw new ComputationInterruptedException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Sets the estimate of the given statistical model
+     * 
+     * @param statisticalModel
+     * @param value
+     */
+    private void setEstimate(PopulationUniquenessModel statisticalModel, double value) {
+        switch (statisticalModel) {
+        case PITMAN:
+            numUniquesPitman = value;
+            break;
+        case SNB:
+            numUniquesSNB = value;
+            break;
+        case ZAYATZ:
+            numUniquesZayatz = value;
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown model");
+        }
+    }
+
     /**
      * Is an estimate valid?
      * 
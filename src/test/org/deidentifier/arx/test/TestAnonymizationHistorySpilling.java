@@ -0,0 +1,120 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.criteria.EntropyLDiversity;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Test for anonymization with a small history, which spills evicted snapshots to disk.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationHistorySpilling extends AbstractAnonymizationTest {
+    
+    /**
+     * 
+     *
+     * @return
+     * @throws IOException 
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() throws IOException {
+        return Arrays.asList(new Object[][] {
+                                              /* 0 */{ new ARXAnonymizationTestCase(spill(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(5)), 1L << 24), "./data/adult.csv", 255559.85455731067, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(spill(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(100)), 1L << 24), "./data/adult.csv", 453196.8932458743, new int[] { 0, 4, 1, 1, 3, 2, 2, 1, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(spill(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(100)), 1L << 16), "./data/adult.csv", 379417.3460570988, new int[] { 1, 1, 1, 1, 3, 2, 2, 1, 1 }, true) },
+                                              { new ARXAnonymizationTestCase(spill(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addCriterion(new EntropyLDiversity("occupation", 5)), 1L << 24), "occupation", "./data/adult.csv", 228878.2039109517, new int[] { 1, 0, 1, 1, 2, 2, 2, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(spill(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addCriterion(new EntropyLDiversity("occupation", 5)), 1L << 16), "occupation", "./data/adult.csv", 324620.5269918692, new int[] { 1, 1, 1, 1, 3, 2, 2, 1 }, false) },
+        });
+    }
+    
+    /**
+     * Returns the names of all scratch files in the temporary directory
+     * 
+     * @return
+     */
+    private static Set<String> getScratchFiles() {
+        Set<String> result = new HashSet<String>();
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith("arx-history")) {
+                    result.add(file.getName());
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Enables spilling for the given configuration
+     * 
+     * @param config
+     * @param bytes
+     * @return
+     */
+    private static ARXConfiguration spill(ARXConfiguration config, long bytes) {
+        config.setHistorySpillSize(bytes);
+        return config;
+    }
+    
+    /**
+     * 
+     *
+     * @param testCase
+     */
+    public TestAnonymizationHistorySpilling(final ARXAnonymizationTestCase testCase) {
+        super(testCase);
+    }
+    
+    @Override
+    protected ARXAnonymizer createAnonymizer() {
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setHistorySize(2);
+        return anonymizer;
+    }
+    
+    @Override
+    @Test
+    public void test() throws IOException {
+        Set<String> files = getScratchFiles();
+        super.test();
+        Set<String> remaining = getScratchFiles();
+        remaining.removeAll(files);
+        assertTrue("Scratch files have not been deleted: " + remaining, remaining.isEmpty());
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVHierarchyInput;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Test for datasets with more quasi-identifiers than covered by the specialized transformers.
+ * Adding constant quasi-identifiers must not change the result.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestAnonymizationManyQuasiIdentifiers extends AbstractTest {
+
+    /** The number of constant attributes to add */
+    private static final int CONSTANT_ATTRIBUTES = 8;
+
+    /**
+     * Returns the adult dataset with the given number of additional constant attributes.
+     *
+     * @param constants
+     * @return
+     * @throws IOException
+     */
+    private static Data getData(int constants) throws IOException {
+
+        // Read input
+        DataHandle input = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';').getHandle();
+        int columns = input.getNumColumns();
+
+        // Create header
+        DefaultData data = Data.create();
+        String[] header = new String[columns + constants];
+        for (int column = 0; column < columns; column++) {
+            header[column] = input.getAttributeName(column);
+        }
+        for (int column = 0; column < constants; column++) {
+            header[columns + column] = "constant-" + column;
+        }
+        data.add(header);
+
+        // Add rows
+        for (int row = 0; row < input.getNumRows(); row++) {
+            String[] values = new String[header.length];
+            for (int column = 0; column < columns; column++) {
+                values[column] = input.getValue(row, column);
+            }
+            Arrays.fill(values, columns, values.length, "constant");
+            data.add(values);
+        }
+
+        // Define hierarchies
+        for (int column = 0; column < columns; column++) {
+            String attribute = input.getAttributeName(column);
+            File file = new File("./data/adult_hierarchy_" + attribute + ".csv");
+            data.getDefinition().setAttributeType(attribute, Hierarchy.create(new CSVHierarchyInput(file, StandardCharsets.UTF_8, ';').getHierarchy()));
+        }
+        for (int column = 0; column < constants; column++) {
+            DefaultHierarchy hierarchy = Hierarchy.create();
+            hierarchy.add("constant");
+            data.getDefinition().setAttributeType(header[columns + column], hierarchy);
+        }
+        return data;
+    }
+
+    /**
+     * Anonymizes the dataset with and without additional constant attributes.
+     *
+     * @param config
+     * @throws IOException
+     */
+    private void test(ARXConfiguration config) throws IOException {
+
+        // Anonymize
+        ARXResult expected = new ARXAnonymizer().anonymize(getData(0), config.clone());
+        ARXResult actual = new ARXAnonymizer().anonymize(getData(CONSTANT_ATTRIBUTES), config.clone());
+
+        // Compare transformations
+        int[] expectedTransformation = expected.getGlobalOptimum().getTransformation();
+        int[] actualTransformation = actual.getGlobalOptimum().getTransformation();
+        assertEquals(expectedTransformation.length + CONSTANT_ATTRIBUTES, actualTransformation.length);
+        assertArrayEquals(expectedTransformation, Arrays.copyOf(actualTransformation, expectedTransformation.length));
+
+        // Compare output
+        DataHandle expectedOutput = expected.getOutput();
+        DataHandle actualOutput = actual.getOutput();
+        assertEquals(expectedOutput.getNumRows(), actualOutput.getNumRows());
+        for (int row = 0; row < expectedOutput.getNumRows(); row++) {
+            for (int column = 0; column < expectedOutput.getNumColumns(); column++) {
+                assertEquals(expectedOutput.getValue(row, column), actualOutput.getValue(row, column));
+            }
+        }
+    }
+
+    /**
+     * Test without suppression.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testWithoutSuppression() throws IOException {
+        test(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(100)));
+    }
+
+    /**
+     * Test with suppression.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testWithSuppression() throws IOException {
+        test(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(5)));
+    }
+
+    /**
+     * Test with multiple threads.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testWithThreads() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(5));
+        config.setNumThreads(4);
+        test(config);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVHierarchyInput;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Test for anonymizing data to which records have been appended, based on a previous result.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestAnonymizationWarmStart extends AbstractTest {
+
+    /**
+     * Returns the given fraction of the adult dataset.
+     *
+     * @param fraction
+     * @return
+     * @throws IOException
+     */
+    private static Data getData(double fraction) throws IOException {
+
+        // Read input
+        DataHandle input = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';').getHandle();
+        int rows = (int) (input.getNumRows() * fraction);
+
+        // Copy
+        DefaultData data = Data.create();
+        String[] header = new String[input.getNumColumns()];
+        for (int column = 0; column < header.length; column++) {
+            header[column] = input.getAttributeName(column);
+        }
+        data.add(header);
+        for (int row = 0; row < rows; row++) {
+            String[] values = new String[header.length];
+            for (int column = 0; column < header.length; column++) {
+                values[column] = input.getValue(row, column);
+            }
+            data.add(values);
+        }
+
+        // Define hierarchies
+        for (String attribute : header) {
+            File file = new File("./data/adult_hierarchy_" + attribute + ".csv");
+            data.getDefinition().setAttributeType(attribute, Hierarchy.create(new CSVHierarchyInput(file, StandardCharsets.UTF_8, ';').getHierarchy()));
+        }
+        return data;
+    }
+
+    /**
+     * Returns the number of transformations that have been checked.
+     *
+     * @param result
+     * @return
+     */
+    private static int getNumChecked(ARXResult result) {
+        int checked = 0;
+        for (ARXNode[] level : result.getLattice().getLevels()) {
+            for (ARXNode node : level) {
+                checked += node.isChecked() ? 1 : 0;
+            }
+        }
+        return checked;
+    }
+
+    /**
+     * Anonymizes 99% of the dataset, and afterwards the complete dataset, with and without
+     * the previous result.
+     *
+     * @param config
+     * @throws IOException
+     */
+    private void test(ARXConfiguration config) throws IOException {
+
+        // Anonymize
+        ARXResult previous = new ARXAnonymizer().anonymize(getData(0.99d), config.clone());
+        ARXResult expected = new ARXAnonymizer().anonymize(getData(1d), config.clone());
+        ARXResult actual = new ARXAnonymizer().anonymize(getData(1d), config.clone(), previous);
+
+        // Compare
+        assertArrayEquals(expected.getGlobalOptimum().getTransformation(), actual.getGlobalOptimum().getTransformation());
+        assertEquals(0, expected.getGlobalOptimum().getMinimumInformationLoss().compareTo(actual.getGlobalOptimum().getMinimumInformationLoss()));
+        assertTrue("More transformations checked", getNumChecked(actual) <= getNumChecked(expected));
+    }
+
+    /**
+     * Test with k-anonymity without suppression.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testKAnonymity() throws IOException {
+        test(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(5)));
+    }
+
+    /**
+     * Test with k-anonymity and suppression.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testKAnonymityWithSuppression() throws IOException {
+        test(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(5)));
+    }
+
+    /**
+     * Test with a non-monotonic metric.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testNonMonotonicMetric() throws IOException {
+        test(ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric(false)).addCriterion(new KAnonymity(5)));
+    }
+}
@@ -17,10 +17,15 @@
 
 package org.deidentifier.arx.test;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 
 import org.deidentifier.arx.ARXAnonymizer;
@@ -33,10 +38,16 @@ import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.Data;
 import org.deidentifier.arx.DataHandle;
 import org.deidentifier.arx.DataSelector;
+import org.deidentifier.arx.DataSource;
 import org.deidentifier.arx.DataSubset;
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.criteria.Inclusion;
 import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.BinaryDataInput;
+import org.deidentifier.arx.io.CSVDataOutput;
+import org.deidentifier.arx.io.CSVSyntax;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -240,6 +251,107 @@ public class TestDataHandle extends AbstractTest {
         
     }
     
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testSaving() throws IllegalArgumentException, IOException {
+        
+        final Data.DefaultData data = Data.create();
+        data.add("age", "gender", "zipcode", "comment");
+        data.add("34", "male", "81667", "a;b");
+        data.add("45", "female", "81675", "say \"hi\"");
+        data.add("66", "male", "81925", "");
+        data.add("70", "female", "81931", "line\nbreak");
+        data.add("34", "female", "81931", "plain");
+        data.add("70", "male", "81931", "plain");
+        data.add("45", "male", "81931", "plain");
+        data.getDefinition().setAttributeType("age", Hierarchy.create(new String[][] { { "34", "<50", "*" }, { "45", "<50", "*" }, { "66", ">=50", "*" }, { "70", ">=50", "*" } }));
+        data.getDefinition().setAttributeType("gender", AttributeType.IDENTIFYING_ATTRIBUTE);
+        data.getDefinition().setAttributeType("zipcode", Hierarchy.create(new String[][] { { "81667", "8166*", "816**", "81***", "8****", "*****" }, { "81675", "8167*", "816**", "81***", "8****", "*****" }, { "81925", "8192*", "819**", "81***", "8****", "*****" }, { "81931", "8193*", "819**", "81***", "8****", "*****" } }));
+        data.getDefinition().setAttributeType("comment", AttributeType.INSENSITIVE_ATTRIBUTE);
+        
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addCriterion(new KAnonymity(2));
+        config.setMaxOutliers(0.5d);
+        final DataHandle outHandle = new ARXAnonymizer().anonymize(data, config).getOutput(false);
+        outHandle.sort(true, 3);
+        
+        // Compare with writing rows one by one
+        for (CSVSyntax syntax : new CSVSyntax[] { new CSVSyntax(), new CSVSyntax(',', '\'', '\'', "\r\n") }) {
+            File expected = File.createTempFile("arx", ".csv");
+            File actual = File.createTempFile("arx", ".csv");
+            expected.deleteOnExit();
+            actual.deleteOnExit();
+            new CSVDataOutput(expected, syntax).write(outHandle.iterator());
+            outHandle.save(actual, syntax);
+            assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+            
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            outHandle.save(stream, syntax);
+            assertArrayEquals(Files.readAllBytes(expected.toPath()), stream.toByteArray());
+        }
+    }
+    
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testSavingBinary() throws IllegalArgumentException, IOException {
+        
+        final Data.DefaultData data = Data.create();
+        data.add("age", "gender", "zipcode", "comment");
+        data.add("34", "male", "81667", "a;b");
+        data.add("45", "female", "81675", "say \"hi\"");
+        data.add("66", "male", "81925", "");
+        data.add("70", "female", "81931", "line\nbreak");
+        data.add("34", "female", "81931", "plain");
+        data.add("70", "male", "81931", "plain");
+        data.add("45", "male", "81931", "plain");
+        data.getDefinition().setAttributeType("age", Hierarchy.create(new String[][] { { "34", "<50", "*" }, { "45", "<50", "*" }, { "66", ">=50", "*" }, { "70", ">=50", "*" } }));
+        data.getDefinition().setAttributeType("gender", AttributeType.IDENTIFYING_ATTRIBUTE);
+        data.getDefinition().setAttributeType("zipcode", Hierarchy.create(new String[][] { { "81667", "8166*", "816**", "81***", "8****", "*****" }, { "81675", "8167*", "816**", "81***", "8****", "*****" }, { "81925", "8192*", "819**", "81***", "8****", "*****" }, { "81931", "8193*", "819**", "81***", "8****", "*****" } }));
+        data.getDefinition().setAttributeType("comment", AttributeType.INSENSITIVE_ATTRIBUTE);
+        
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addCriterion(new KAnonymity(2));
+        config.setMaxOutliers(0.5d);
+        final DataHandle outHandle = new ARXAnonymizer().anonymize(data, config).getOutput(false);
+        outHandle.sort(true, 3);
+        
+        // Compare input and output with the re-imported data
+        for (DataHandle handle : new DataHandle[] { data.getHandle(), outHandle }) {
+            File file = File.createTempFile("arx", ".bin");
+            file.deleteOnExit();
+            handle.saveBinary(file);
+            
+            DataSource source = DataSource.createBinarySource(file);
+            for (int column = 0; column < handle.getNumColumns(); column++) {
+                source.addColumn(handle.getAttributeName(column));
+            }
+            String[][] expected = iteratorToArray(handle.iterator());
+            assertTrue(Arrays.deepEquals(expected, iteratorToArray(Data.create(source).getHandle().iterator())));
+            
+            BinaryDataInput input = new BinaryDataInput(file);
+            assertTrue(Arrays.deepEquals(expected, iteratorToArray(input.iterator())));
+            RowSet outliers = input.getOutliers();
+            for (int row = 0; row < handle.getNumRows(); row++) {
+                assertEquals(handle.isOutlier(row), outliers.contains(row));
+            }
+            
+            // Empty aliases are ignored
+            source = DataSource.createBinarySource(file);
+            source.addColumn(0, "");
+            assertEquals(handle.getAttributeName(0), Data.create(source).getHandle().getAttributeName(0));
+        }
+    }
+    
     /**
      * Test case
      *
@@ -272,6 +384,35 @@ public class TestDataHandle extends AbstractTest {
         
     }
     
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testSortingDataTypes() throws IllegalArgumentException, IOException {
+        
+        final Data.DefaultData data = Data.create();
+        data.add("number", "date");
+        data.add("10", "01.02.2015");
+        data.add("9", "15.01.2016");
+        data.add("100", "01.02.2015");
+        data.add("9", "01.01.2014");
+        data.add("10", "31.12.2013");
+        data.getDefinition().setDataType("number", DataType.INTEGER);
+        data.getDefinition().setDataType("date", DataType.createDate("dd.MM.yyyy"));
+        final DataHandle inHandle = data.getHandle();
+        
+        inHandle.sort(false, 0, 1);
+        final String[][] expected1 = { { "number", "date" }, { "100", "01.02.2015" }, { "10", "01.02.2015" }, { "10", "31.12.2013" }, { "9", "15.01.2016" }, { "9", "01.01.2014" } };
+        assertTrue(Arrays.deepEquals(iteratorToArray(inHandle.iterator()), expected1));
+        
+        inHandle.sort(true, 1);
+        final String[][] expected2 = { { "number", "date" }, { "10", "31.12.2013" }, { "9", "01.01.2014" }, { "100", "01.02.2015" }, { "10", "01.02.2015" }, { "9", "15.01.2016" } };
+        assertTrue(Arrays.deepEquals(iteratorToArray(inHandle.iterator()), expected2));
+    }
+    
     /**
      * Test case
      *
@@ -17,20 +17,38 @@
 
 package org.deidentifier.arx.test;
 
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataSource;
+import org.deidentifier.arx.DataType;
 import org.junit.Test;
 
 import cern.colt.Arrays;
 
 /**
- * Tests for importing more complex csv files
+ * Tests for importing more complex csv files, sharded and compressed csv files and from JDBC sources
  * 
  * @author Fabian Prasser
  */
@@ -52,4 +70,131 @@ public class TestDataImport extends AbstractTest {
             System.out.println(Arrays.toString(result.get(result.size() - 1)));
         }
     }
+    
+    /**
+     * Test importing multiple compressed files
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testShards() throws IOException {
+        
+        // Split into compressed shards with a header each
+        File directory = File.createTempFile("arx", "");
+        directory.delete();
+        directory.mkdir();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream("data/adult.csv"), StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        Writer writer = null;
+        int lines = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (lines++ % 5000 == 0) {
+                if (writer != null) {
+                    writer.close();
+                }
+                File file = new File(directory, "adult-" + (lines / 5000) + ".csv.gz");
+                file.deleteOnExit();
+                writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)), StandardCharsets.UTF_8);
+                writer.write(header + "\n");
+            }
+            writer.write(line + "\n");
+        }
+        writer.close();
+        reader.close();
+        directory.deleteOnExit();
+        
+        // Compare
+        DataSource source = DataSource.createCSVSource(directory.getAbsolutePath(), "*.csv.gz", StandardCharsets.UTF_8, ';', true);
+        for (String attribute : header.split(";")) {
+            source.addColumn(attribute);
+        }
+        List<String> expected = getRows(Data.create("data/adult.csv", StandardCharsets.UTF_8, ';'));
+        assertEquals(expected, getRows(Data.create(source)));
+        assertEquals(expected.subList(0, 5001), getRows(Data.create(new File(directory, "adult-0.csv.gz"), StandardCharsets.UTF_8, ';')));
+    }
+    
+    /**
+     * Test streaming and parallel imports from JDBC sources
+     *
+     * @throws IOException
+     * @throws SQLException
+     * @throws ClassNotFoundException
+     */
+    @Test
+    public void testJDBC() throws IOException, SQLException, ClassNotFoundException {
+        
+        // Create database
+        Class.forName("org.sqlite.JDBC");
+        File file = File.createTempFile("arx", ".db");
+        file.deleteOnExit();
+        String url = "jdbc:sqlite:" + file.getAbsolutePath();
+        Connection connection = DriverManager.getConnection(url);
+        Statement statement = connection.createStatement();
+        statement.execute("CREATE TABLE test (id INTEGER, age INTEGER, zipcode TEXT, gender TEXT)");
+        statement.close();
+        connection.setAutoCommit(false);
+        PreparedStatement insert = connection.prepareStatement("INSERT INTO test VALUES (?, ?, ?, ?)");
+        for (int i = 0; i < 10000; i++) {
+            if (i % 1000 == 0) {
+                insert.setNull(1, Types.INTEGER);
+            } else {
+                insert.setInt(1, i * 7);
+            }
+            insert.setInt(2, 18 + i % 60);
+            insert.setString(3, String.valueOf(81600 + i % 100));
+            insert.setString(4, i % 2 == 0 ? "male" : "female");
+            insert.execute();
+        }
+        insert.close();
+        connection.commit();
+        connection.close();
+        
+        // Import
+        List<String> expected = getJDBCRows(url, 0, 1);
+        assertEquals(10001, expected.size());
+        assertEquals("[gender, renamed, zipcode]", expected.get(0));
+        assertEquals(expected, getJDBCRows(url, 100, 1));
+        
+        // Order is undefined for parallel imports
+        List<String> actual = getJDBCRows(url, 100, 4);
+        assertEquals(expected.get(0), actual.get(0));
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+    }
+    
+    /**
+     * Imports rows from the given database
+     * 
+     * @param url
+     * @param fetchSize
+     * @param numConnections
+     * @return
+     * @throws SQLException
+     * @throws IOException
+     */
+    private List<String> getJDBCRows(String url, int fetchSize, int numConnections) throws SQLException, IOException {
+        DataSource source = DataSource.createJDBCSource(url, "test");
+        source.addColumn("gender", DataType.STRING);
+        source.addColumn("age", "renamed", DataType.INTEGER);
+        source.addColumn(2, DataType.STRING);
+        source.setFetchSize(fetchSize);
+        source.setParallelScan("id", numConnections);
+        return getRows(Data.create(source));
+    }
+    
+    /**
+     * Returns all rows of the given data
+     * 
+     * @param data
+     * @return
+     */
+    private List<String> getRows(Data data) {
+        Iterator<String[]> iter = data.getHandle().iterator();
+        List<String> result = new ArrayList<String>();
+        while (iter.hasNext()) {
+            result.add(Arrays.toString(iter.next()));
+        }
+        return result;
+    }
 }
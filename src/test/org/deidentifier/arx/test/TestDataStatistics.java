@@ -17,25 +17,40 @@
 
 package org.deidentifier.arx.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.deidentifier.arx.ARXAnonymizer;
 import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLogisticRegressionConfiguration;
 import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataScale;
 import org.deidentifier.arx.DataSubset;
 import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.aggregates.StatisticsClassification;
 import org.deidentifier.arx.aggregates.StatisticsContingencyTable;
 import org.deidentifier.arx.aggregates.StatisticsContingencyTable.Entry;
 import org.deidentifier.arx.aggregates.StatisticsFrequencyDistribution;
+import org.deidentifier.arx.aggregates.StatisticsSummary;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVHierarchyInput;
+import org.deidentifier.arx.metric.Metric;
 import org.junit.Test;
 
 /**
@@ -87,6 +102,49 @@ public class TestDataStatistics extends AbstractTest {
         
     }
     
+    /**
+     * Pins the classification performance for the adult dataset with a fixed seed,
+     * using one and multiple threads.
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testClassification() throws IllegalArgumentException, IOException, ParseException {
+        
+        // Prepare
+        Data data = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+        String[] features = new String[] { "age", "sex", "race", "education", "marital-status" };
+        for (String attribute : features) {
+            File file = new File("./data/adult_hierarchy_" + attribute + ".csv");
+            data.getDefinition().setAttributeType(attribute, Hierarchy.create(new CSVHierarchyInput(file, StandardCharsets.UTF_8, ';').getHierarchy()));
+        }
+        for (String attribute : new String[] { "workclass", "native-country", "occupation", "salary-class" }) {
+            data.getDefinition().setAttributeType(attribute, AttributeType.INSENSITIVE_ATTRIBUTE);
+        }
+        
+        // Anonymize
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addCriterion(new KAnonymity(5));
+        DataHandle output = new ARXAnonymizer().anonymize(data, config).getOutput();
+        
+        // Check
+        for (int threads : new int[] { 1, 4 }) {
+            ARXLogisticRegressionConfiguration classification = ARXLogisticRegressionConfiguration.create()
+                                                                                                  .setSeed(0x1234)
+                                                                                                  .setNumThreads(threads);
+            StatisticsClassification statistics = output.getStatistics().getClassificationPerformance(features, "salary-class", classification);
+            assertEquals(30162, statistics.getNumMeasurements());
+            assertEquals(0.8104237119554406d, statistics.getAccuracy(), 1e-12);
+            assertEquals(0.2538081557048001d, statistics.getAverageError(), 1e-12);
+            assertEquals(0.8204031562893708d, statistics.getOriginalAccuracy(), 1e-12);
+            assertEquals(0.24131349385168097d, statistics.getOriginalAverageError(), 1e-12);
+            assertEquals(0.7510775147536636d, statistics.getZeroRAccuracy(), 1e-12);
+            assertEquals(0.24892248524633645d, statistics.getZeroRAverageError(), 1e-12);
+        }
+    }
+    
     /**
      * 
      *
@@ -284,6 +342,44 @@ public class TestDataStatistics extends AbstractTest {
         assertTrue(Arrays.equals(frequency, distribution.frequency));
     }
     
+    /**
+     * Compares summary statistics with statistics computed by commons math.
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testSummaryStatistics() throws IllegalArgumentException, IOException {
+        
+        this.provider.createDataDefinition();
+        this.provider.getData().getDefinition().setDataType("age", DataType.INTEGER);
+        DataHandle handle = this.provider.getData().getHandle();
+        
+        // Compute
+        StatisticsSummary<?> summary = handle.getStatistics().getSummaryStatistics(false).get("age");
+        DescriptiveStatistics expected = new DescriptiveStatistics();
+        for (int row = 0; row < handle.getNumRows(); row++) {
+            expected.addValue(Double.valueOf(handle.getValue(row, 0)));
+        }
+        
+        // Check
+        assertEquals(DataScale.RATIO, summary.getScale());
+        assertEquals(7, summary.getNumberOfMeasuresAsString());
+        assertEquals("34", summary.getModeAsString());
+        assertEquals("45", summary.getMedianAsString());
+        assertEquals("34", summary.getMinAsString());
+        assertEquals("70", summary.getMaxAsString());
+        assertEquals(expected.getMean(), summary.getArithmeticMeanAsDouble(), 1e-9);
+        assertEquals(expected.getVariance(), summary.getSampleVarianceAsDouble(), 1e-9);
+        assertEquals(expected.getPopulationVariance(), summary.getPopulationVarianceAsDouble(), 1e-9);
+        assertEquals(expected.getGeometricMean(), summary.getGeometricMeanAsDouble(), 1e-9);
+        assertEquals(expected.getMax() - expected.getMin(), summary.getRangeAsDouble(), 1e-9);
+        
+        // Kurtosis is not available if negative
+        assertTrue(expected.getKurtosis() < 0d);
+        assertTrue(Double.isNaN(summary.getKurtosisAsDouble()));
+    }
+    
     /**
      * Checks the two arrays regarding equality, treating a double[][]
      * as a set of comparable double[]'s
@@ -0,0 +1,169 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXListener;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.exceptions.RollbackRequiredException;
+import org.deidentifier.arx.io.CSVHierarchyInput;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Test for local recoding with multiple threads.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestLocalRecodingMultiThreaded extends AbstractTest {
+
+    /** The privacy parameter */
+    private static final int K = 5;
+
+    /**
+     * Returns the adult dataset.
+     *
+     * @return
+     * @throws IOException
+     */
+    private static Data getData() throws IOException {
+        Data data = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+        DataHandle handle = data.getHandle();
+        for (int column = 0; column < handle.getNumColumns(); column++) {
+            String attribute = handle.getAttributeName(column);
+            File file = new File("./data/adult_hierarchy_" + attribute + ".csv");
+            data.getDefinition().setAttributeType(attribute, Hierarchy.create(new CSVHierarchyInput(file, StandardCharsets.UTF_8, ';').getHierarchy()));
+        }
+        return data;
+    }
+
+    /**
+     * Returns the number of outliers and checks that all other records are k-anonymous.
+     *
+     * @param handle
+     * @return
+     */
+    private static int getNumOutliers(DataHandle handle) {
+        int outliers = 0;
+        Map<String, Integer> classes = new HashMap<String, Integer>();
+        for (int row = 0; row < handle.getNumRows(); row++) {
+            if (handle.isOutlier(row)) {
+                outliers++;
+            } else {
+                StringBuilder key = new StringBuilder();
+                for (int column = 0; column < handle.getNumColumns(); column++) {
+                    key.append(handle.getValue(row, column)).append('\t');
+                }
+                Integer count = classes.get(key.toString());
+                classes.put(key.toString(), count == null ? 1 : count + 1);
+            }
+        }
+        for (Integer count : classes.values()) {
+            assertTrue("Equivalence class smaller than k", count >= K);
+        }
+        return outliers;
+    }
+
+    /**
+     * Optimizes the output of k-anonymization with the given number of threads.
+     *
+     * @param numThreads
+     * @param iterative
+     * @throws IOException
+     * @throws RollbackRequiredException
+     */
+    private void test(int numThreads, boolean iterative) throws IOException, RollbackRequiredException {
+
+        // Anonymize
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(K));
+        ARXResult result = new ARXAnonymizer().anonymize(getData(), config);
+        DataHandle output = result.getOutput();
+        int before = getNumOutliers(output);
+        assertTrue("No outliers", before > 0);
+
+        // Optimize
+        final double[] progress = new double[] { 0d };
+        ARXListener listener = new ARXListener() {
+            @Override
+            public void progress(double value) {
+                assertTrue("Progress out of bounds", value >= 0d && value <= 1d);
+                progress[0] = value;
+            }
+        };
+        int optimized;
+        if (iterative) {
+            result.optimizeIterative(output, 0.05d, 10, 0.05d, numThreads, listener);
+            optimized = before - getNumOutliers(output);
+        } else {
+            optimized = result.optimize(output, 0.5d, numThreads, listener);
+            assertEquals(before - optimized, getNumOutliers(output));
+        }
+
+        // Check
+        assertTrue("No records optimized", optimized > 0);
+        assertTrue("No progress reported", progress[0] > 0d);
+    }
+
+    /**
+     * Test with multiple threads.
+     *
+     * @throws IOException
+     * @throws RollbackRequiredException
+     */
+    @Test
+    public void testMultiThreaded() throws IOException, RollbackRequiredException {
+        test(4, false);
+    }
+
+    /**
+     * Test with multiple threads and multiple iterations.
+     *
+     * @throws IOException
+     * @throws RollbackRequiredException
+     */
+    @Test
+    public void testMultiThreadedIterative() throws IOException, RollbackRequiredException {
+        test(4, true);
+    }
+
+    /**
+     * Test with a single thread.
+     *
+     * @throws IOException
+     * @throws RollbackRequiredException
+     */
+    @Test
+    public void testSingleThreaded() throws IOException, RollbackRequiredException {
+        test(1, false);
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -24,6 +25,14 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,6 +40,7 @@ import org.deidentifier.arx.ARXAnonymizer;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXPopulationModel;
 import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.ARXSolverConfiguration;
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.Data;
 import org.deidentifier.arx.DataHandle;
@@ -38,6 +48,9 @@ import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.io.CSVHierarchyInput;
 import org.deidentifier.arx.metric.Metric;
 import org.deidentifier.arx.metric.Metric.AggregateFunction;
+import org.deidentifier.arx.risk.RiskEstimateBuilder;
+import org.deidentifier.arx.risk.RiskModelAttributes.QuasiIdentifierRisk;
+import org.deidentifier.arx.risk.RiskModelHistogram;
 import org.deidentifier.arx.risk.RiskModelPopulationUniqueness;
 import org.deidentifier.arx.risk.RiskModelPopulationUniqueness.PopulationUniquenessModel;
 import org.junit.Test;
@@ -210,6 +223,184 @@ public class TestRiskMetrics {
         return Integer.compare((int) (val1 * 10000d), (int) (val2 * 10000d));
     }
     
+    /**
+     * Test attribute risks of input and output data.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testAttributeRisks() throws IOException {
+        
+        Data data = getDataObject("./data/adult.csv");
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true));
+        config.addCriterion(new KAnonymity(5));
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+        
+        // Compare
+        assertAttributeRisks(data.getHandle());
+        assertAttributeRisks(result.getOutput());
+    }
+    
+    /**
+     * Compares attribute risks with risks computed for each set of attributes separately.
+     *
+     * @param handle
+     */
+    private void assertAttributeRisks(DataHandle handle) {
+        
+        // Compute risks of all sets
+        ARXPopulationModel population = ARXPopulationModel.create(handle.getNumRows(), 0.1d);
+        QuasiIdentifierRisk[] risks = handle.getRiskEstimator(population).getSampleBasedAttributeRisks().getAttributeRisks();
+        Map<Set<String>, double[]> values = new HashMap<Set<String>, double[]>();
+        for (QuasiIdentifierRisk risk : risks) {
+            RiskEstimateBuilder builder = handle.getRiskEstimator(population, risk.getIdentifier());
+            values.put(risk.getIdentifier(), new double[] { builder.getSampleBasedReidentificationRisk().getHighestRisk(),
+                                                            builder.getSampleBasedReidentificationRisk().getAverageRisk(),
+                                                            builder.getSampleBasedUniquenessRisk().getFractionOfUniqueTuples() });
+        }
+        assertEquals((1 << handle.getDefinition().getQuasiIdentifyingAttributes().size()) - 1, values.size());
+        
+        // Compare with averages over all supersets
+        for (QuasiIdentifierRisk risk : risks) {
+            double[] expected = new double[3];
+            int count = 0;
+            for (Entry<Set<String>, double[]> entry : values.entrySet()) {
+                if (entry.getKey().containsAll(risk.getIdentifier())) {
+                    for (int i = 0; i < expected.length; i++) {
+                        expected[i] += entry.getValue()[i];
+                    }
+                    count++;
+                }
+            }
+            assertEquals(expected[0] / count, risk.getHighestReidentificationRisk(), 1e-9);
+            assertEquals(expected[1] / count, risk.getAverageReidentificationRisk(), 1e-9);
+            assertEquals(expected[2] / count, risk.getFractionOfUniqueTuples(), 1e-9);
+        }
+    }
+    
+    /**
+     * Test that population-based attribute risks do not depend on the number of threads.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testAttributeRisksNumThreads() throws IOException {
+        
+        DataHandle handle = getDataObject("./data/adult.csv").getHandle();
+        ARXPopulationModel population = ARXPopulationModel.create(handle.getNumRows(), 0.1d);
+        Set<String> qis = new HashSet<String>(Arrays.asList("age", "sex", "race", "education"));
+        
+        // Compute with a single thread
+        Map<Set<String>, QuasiIdentifierRisk> expected = new HashMap<Set<String>, QuasiIdentifierRisk>();
+        ARXSolverConfiguration config = ARXSolverConfiguration.create().numThreads(1);
+        for (QuasiIdentifierRisk risk : handle.getRiskEstimator(population, qis, config).getPopulationBasedAttributeRisks().getAttributeRisks()) {
+            expected.put(risk.getIdentifier(), risk);
+        }
+        assertEquals((1 << qis.size()) - 1, expected.size());
+        
+        // Compare with multiple threads
+        config = ARXSolverConfiguration.create().numThreads(4);
+        for (QuasiIdentifierRisk risk : handle.getRiskEstimator(population, qis, config).getPopulationBasedAttributeRisks().getAttributeRisks()) {
+            QuasiIdentifierRisk other = expected.get(risk.getIdentifier());
+            assertEquals(other.getHighestReidentificationRisk(), risk.getHighestReidentificationRisk(), 0d);
+            assertEquals(other.getAverageReidentificationRisk(), risk.getAverageReidentificationRisk(), 0d);
+            assertEquals(other.getFractionOfUniqueTuples(), risk.getFractionOfUniqueTuples(), 0d);
+        }
+    }
+    
+    /**
+     * Test the models for population uniqueness, which are evaluated concurrently
+     * and cached, using the adult dataset.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testPopulationUniquenessModels() throws IOException {
+        
+        DataHandle handle = getDataObject("./data/adult.csv").getHandle();
+        for (double fraction : new double[] { 0.05d, 0.2d }) {
+            
+            // Estimate
+            ARXPopulationModel population = ARXPopulationModel.create(handle.getNumRows(), fraction);
+            RiskModelPopulationUniqueness model = handle.getRiskEstimator(population).getPopulationBasedUniquenessRisk();
+            double dankar = model.getNumUniqueTuplesDankar();
+            double pitman = model.getNumUniqueTuplesPitman();
+            double snb = model.getNumUniqueTuplesSNB();
+            double zayatz = model.getNumUniqueTuplesZayatz();
+            
+            // Decision rule
+            if (fraction <= 0.1d) {
+                assertEquals(pitman != 0d ? pitman : zayatz, dankar, 0d);
+            } else {
+                assertEquals(snb != 0d ? Math.min(snb, zayatz) : zayatz, dankar, 0d);
+            }
+            
+            // Cached estimates
+            RiskModelHistogram classes = handle.getRiskEstimator(population).getEquivalenceClassModel();
+            model = new RiskModelPopulationUniqueness(population, classes, ARXSolverConfiguration.create());
+            assertEquals(dankar, model.getNumUniqueTuplesDankar(), 0d);
+            assertEquals(pitman, model.getNumUniqueTuplesPitman(), 0d);
+            assertEquals(snb, model.getNumUniqueTuplesSNB(), 0d);
+            assertEquals(zayatz, model.getNumUniqueTuplesZayatz(), 0d);
+        }
+    }
+    
+    /**
+     * Test the equivalence classes of input and output data.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testEquivalenceClasses() throws IOException {
+        
+        Data data = getDataObject("./data/adult.csv");
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true));
+        config.addCriterion(new KAnonymity(5));
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+        DataHandle input = data.getHandle();
+        DataHandle output = result.getOutput();
+        
+        // Compare
+        assertEquivalenceClasses(input);
+        assertEquivalenceClasses(output);
+        assertEquivalenceClasses(output.getView());
+    }
+    
+    /**
+     * Compares the histogram of equivalence class sizes with classes built from strings.
+     *
+     * @param handle
+     */
+    private void assertEquivalenceClasses(DataHandle handle) {
+        
+        // Build classes
+        Set<String> qis = handle.getDefinition().getQuasiIdentifyingAttributes();
+        Map<List<String>, Integer> classes = new HashMap<List<String>, Integer>();
+        for (int row = 0; row < handle.getNumRows(); row++) {
+            if (!handle.isOutlier(row)) {
+                List<String> key = new ArrayList<String>();
+                for (String qi : qis) {
+                    key.add(handle.getValue(row, handle.getColumnIndexOf(qi)));
+                }
+                Integer count = classes.get(key);
+                classes.put(key, count == null ? 1 : count + 1);
+            }
+        }
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        for (int size : classes.values()) {
+            Integer count = expected.get(size);
+            expected.put(size, count == null ? 1 : count + 1);
+        }
+        
+        // Compare
+        int[] histogram = handle.getRiskEstimator(ARXPopulationModel.create(handle.getNumRows(), 0.1d)).getEquivalenceClassModel().getHistogram();
+        Map<Integer, Integer> actual = new HashMap<Integer, Integer>();
+        for (int i = 0; i < histogram.length; i += 2) {
+            actual.put(histogram[i], histogram[i + 1]);
+        }
+        assertEquals(expected, actual);
+    }
+    
     /**
      * Test highest individual risk using the test dataset.
      */
@@ -0,0 +1,184 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXListener;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.ARXSearchStatistics;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVHierarchyInput;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Test for statistics about the search process.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class TestSearchStatistics extends AbstractTest {
+
+    /**
+     * Returns the adult dataset.
+     *
+     * @param sensitive
+     * @return
+     * @throws IOException
+     */
+    private static Data getData(String sensitive) throws IOException {
+        Data data = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+        for (int column = 0; column < data.getHandle().getNumColumns(); column++) {
+            String attribute = data.getHandle().getAttributeName(column);
+            if (attribute.equals(sensitive)) {
+                data.getDefinition().setAttributeType(attribute, AttributeType.SENSITIVE_ATTRIBUTE);
+            } else {
+                File file = new File("./data/adult_hierarchy_" + attribute + ".csv");
+                data.getDefinition().setAttributeType(attribute, Hierarchy.create(new CSVHierarchyInput(file, StandardCharsets.UTF_8, ';').getHierarchy()));
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Returns the number of transformations that have been checked.
+     *
+     * @param result
+     * @return
+     */
+    private static int getNumChecked(ARXResult result) {
+        int checked = 0;
+        for (ARXNode[] level : result.getLattice().getLevels()) {
+            for (ARXNode node : level) {
+                checked += node.isChecked() ? 1 : 0;
+            }
+        }
+        return checked;
+    }
+
+    /**
+     * Anonymizes the dataset and performs basic consistency checks.
+     *
+     * @param config
+     * @param sensitive
+     * @return
+     * @throws IOException
+     */
+    private ARXSearchStatistics test(ARXConfiguration config, String sensitive) throws IOException {
+
+        // Anonymize
+        ARXResult result = new ARXAnonymizer().anonymize(getData(sensitive), config);
+        ARXSearchStatistics statistics = result.getSearchStatistics();
+        assertNotNull(statistics);
+
+        // Compare
+        assertTrue("Too few checks", statistics.getNumberOfChecks() >= getNumChecked(result));
+        assertEquals(statistics.getNumberOfChecks(), statistics.getNumberOfUnoptimizedTransitions() +
+                                                     statistics.getNumberOfRollups() +
+                                                     statistics.getNumberOfSnapshotTransitions());
+        assertTrue("Too many lookups", statistics.getNumberOfSnapshotHits() + statistics.getNumberOfSnapshotMisses() <= statistics.getNumberOfChecks());
+        assertTrue("Too many evictions", statistics.getNumberOfSnapshotsEvicted() <= statistics.getNumberOfSnapshotsStored());
+        assertTrue("Invalid number of classes", statistics.getAverageNumberOfClasses() <= statistics.getMaximalNumberOfClasses());
+        assertTrue("Invalid number of rows", statistics.getNumberOfRowsScanned() >= statistics.getNumberOfUnoptimizedTransitions());
+        return statistics;
+    }
+
+    /**
+     * Test with k-anonymity.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testKAnonymity() throws IOException {
+        ARXSearchStatistics statistics = test(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(5)), null);
+        assertTrue("Unexpected class-based criteria", statistics.getNumberOfClassesRejected().isEmpty());
+    }
+
+    /**
+     * Test with l-diversity.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLDiversity() throws IOException {
+        DistinctLDiversity criterion = new DistinctLDiversity("occupation", 5);
+        ARXSearchStatistics statistics = test(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(criterion), "occupation");
+        assertTrue("No classes rejected", statistics.getNumberOfClassesRejected().get(criterion) > 0);
+    }
+
+    /**
+     * Test with concurrent checks.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testConcurrentChecks() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(5));
+        config.setNumConcurrentChecks(4);
+        test(config, null);
+    }
+
+    /**
+     * Test with statistics obtained while the search is being performed.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStatisticsDuringSearch() throws IOException {
+        
+        // Poll statistics whenever progress is reported
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final long[] checks = new long[] { 0, 0 };
+        anonymizer.setListener(new ARXListener() {
+            @Override
+            public void progress(double progress) {
+                ARXSearchStatistics statistics = anonymizer.getSearchStatistics();
+                assertNotNull(statistics);
+                assertTrue("Checks decreased", statistics.getNumberOfChecks() >= checks[0]);
+                checks[0] = statistics.getNumberOfChecks();
+                checks[1]++;
+            }
+        });
+        
+        // Anonymize
+        assertNull(anonymizer.getSearchStatistics());
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(5));
+        ARXResult result = anonymizer.anonymize(getData(null), config);
+        assertNull(anonymizer.getSearchStatistics());
+        
+        // Compare
+        assertTrue("Not polled", checks[1] > 0);
+        assertTrue("No checks", checks[0] > 0);
+        assertTrue("Too many checks", checks[0] <= result.getSearchStatistics().getNumberOfChecks());
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVHierarchyInput;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Tests pruning with lower bounds of the non-monotonic non-uniform entropy metric.
+ * Optima and losses have been obtained with the implementation that did not provide
+ * lower bounds for unchecked transformations.
+ *
+ * @author Fabian Prasser
+ */
+public class TestUtilityMetricsEntropyPruning extends AbstractTest {
+
+    /**
+     * Returns the adult dataset.
+     *
+     * @return
+     * @throws IOException
+     */
+    private static Data getData() throws IOException {
+        Data data = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+        DataHandle handle = data.getHandle();
+        for (int column = 0; column < handle.getNumColumns(); column++) {
+            String attribute = handle.getAttributeName(column);
+            File file = new File("./data/adult_hierarchy_" + attribute + ".csv");
+            data.getDefinition().setAttributeType(attribute, Hierarchy.create(new CSVHierarchyInput(file, StandardCharsets.UTF_8, ';').getHierarchy()));
+        }
+        return data;
+    }
+
+    /**
+     * Anonymizes the adult dataset and checks that transformations have been pruned
+     * and that the optimum and its loss are unchanged.
+     *
+     * @param suppressionLimit
+     * @param k
+     * @param transformation
+     * @param loss
+     * @throws IOException
+     */
+    private void test(double suppressionLimit, int k, int[] transformation, String loss) throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(suppressionLimit, Metric.createEntropyMetric(false));
+        config.addCriterion(new KAnonymity(k));
+        ARXResult result = new ARXAnonymizer().anonymize(getData(), config);
+        ARXNode optimum = result.getGlobalOptimum();
+        assertTrue("Nothing pruned", result.getSearchStatistics().getNumberOfPrunedTransformations() > 0);
+        assertArrayEquals(transformation, optimum.getTransformation());
+        assertEquals(loss, optimum.getMaximumInformationLoss().toString());
+        assertEquals(loss, optimum.getMinimumInformationLoss().toString());
+    }
+
+    /**
+     * Test with 5-anonymity and 10% suppression.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testK5Suppression10() throws IOException {
+        test(0.1d, 5, new int[] { 0, 0, 1, 1, 3, 2, 2, 0, 1 }, "251519.360573678");
+    }
+
+    /**
+     * Test with 100-anonymity and 10% suppression.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testK100Suppression10() throws IOException {
+        test(0.1d, 100, new int[] { 1, 0, 1, 2, 3, 2, 2, 1, 1 }, "353204.98690739064");
+    }
+
+    /**
+     * Test with 5-anonymity and 4% suppression.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testK5Suppression4() throws IOException {
+        test(0.04d, 5, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, "264971.5825580817");
+    }
+
+    /**
+     * Test with 100-anonymity and 4% suppression.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testK100Suppression4() throws IOException {
+        test(0.04d, 100, new int[] { 1, 1, 1, 1, 3, 2, 2, 1, 1 }, "383803.4034066361");
+    }
+}
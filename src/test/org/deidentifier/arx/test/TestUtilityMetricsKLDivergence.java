@@ -0,0 +1,125 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVHierarchyInput;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Test;
+
+/**
+ * Tests for the KL-Divergence metric. Optima and losses have been obtained with the
+ * implementation that evaluates each input row separately.
+ *
+ * @author Fabian Prasser
+ */
+public class TestUtilityMetricsKLDivergence extends AbstractTest {
+
+    /**
+     * Returns the adult dataset.
+     *
+     * @return
+     * @throws IOException
+     */
+    private static Data getData() throws IOException {
+        Data data = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+        DataHandle handle = data.getHandle();
+        for (int column = 0; column < handle.getNumColumns(); column++) {
+            String attribute = handle.getAttributeName(column);
+            File file = new File("./data/adult_hierarchy_" + attribute + ".csv");
+            data.getDefinition().setAttributeType(attribute, Hierarchy.create(new CSVHierarchyInput(file, StandardCharsets.UTF_8, ';').getHierarchy()));
+        }
+        return data;
+    }
+
+    /**
+     * Anonymizes the adult dataset and checks the optimum and its loss, as well as
+     * whether transformations have been pruned based on lower bounds.
+     *
+     * @param suppressionLimit
+     * @param k
+     * @param transformation
+     * @param loss
+     * @param pruned
+     * @throws IOException
+     */
+    private void test(double suppressionLimit, int k, int[] transformation, double loss, boolean pruned) throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(suppressionLimit, Metric.createKLDivergenceMetric());
+        config.addCriterion(new KAnonymity(k));
+        ARXResult result = new ARXAnonymizer().anonymize(getData(), config);
+        ARXNode optimum = result.getGlobalOptimum();
+        assertEquals(pruned, result.getSearchStatistics().getNumberOfPrunedTransformations() > 0);
+        assertArrayEquals(transformation, optimum.getTransformation());
+        assertEquals(loss, (Double) optimum.getMaximumInformationLoss().getValue(), 1e-9);
+        assertEquals(loss, (Double) optimum.getMinimumInformationLoss().getValue(), 1e-9);
+    }
+
+    /**
+     * Test with 5-anonymity and suppression.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testK5WithSuppression() throws IOException {
+        test(0.04d, 5, new int[] { 1, 4, 0, 0, 3, 0, 0, 2, 0 }, 26.52253353262517d, true);
+    }
+
+    /**
+     * Test with 5-anonymity without suppression.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testK5WithoutSuppression() throws IOException {
+        test(0d, 5, new int[] { 1, 4, 1, 1, 3, 2, 0, 2, 0 }, 57.95047233774244d, false);
+    }
+
+    /**
+     * Test with 100-anonymity and suppression.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testK100WithSuppression() throws IOException {
+        test(0.04d, 100, new int[] { 1, 4, 0, 2, 3, 1, 0, 2, 0 }, 45.3046742850069d, true);
+    }
+
+    /**
+     * Test with 100-anonymity without suppression.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testK100WithoutSuppression() throws IOException {
+        test(0d, 100, new int[] { 1, 4, 0, 2, 3, 2, 2, 2, 1 }, 61.16044187268597d, false);
+    }
+}
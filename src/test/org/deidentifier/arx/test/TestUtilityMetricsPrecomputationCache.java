@@ -0,0 +1,109 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVHierarchyInput;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.metric.v2.PrecomputationCache;
+import org.junit.Test;
+
+/**
+ * Tests that cardinalities and domain shares are shared between anonymization processes.
+ *
+ * @author Fabian Prasser
+ */
+public class TestUtilityMetricsPrecomputationCache extends AbstractTest {
+
+    /**
+     * Returns the adult dataset.
+     *
+     * @return
+     * @throws IOException
+     */
+    private static Data getData() throws IOException {
+        Data data = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+        DataHandle handle = data.getHandle();
+        for (int column = 0; column < handle.getNumColumns(); column++) {
+            String attribute = handle.getAttributeName(column);
+            File file = new File("./data/adult_hierarchy_" + attribute + ".csv");
+            data.getDefinition().setAttributeType(attribute, Hierarchy.create(new CSVHierarchyInput(file, StandardCharsets.UTF_8, ';').getHierarchy()));
+        }
+        return data;
+    }
+
+    /**
+     * Anonymizes the adult dataset twice with the given metric and checks that the cache is
+     * hit by the second process, which must find the same optimum with the same loss.
+     *
+     * @param metric
+     * @throws IOException
+     */
+    private void test(Metric<?> metric) throws IOException {
+
+        // First run
+        PrecomputationCache.clear();
+        ARXConfiguration config = ARXConfiguration.create(0.04d, metric).addCriterion(new KAnonymity(5));
+        ARXNode optimum1 = new ARXAnonymizer().anonymize(getData(), config).getGlobalOptimum();
+        long hits = PrecomputationCache.getNumHits();
+
+        // Second run
+        config = ARXConfiguration.create(0.04d, metric).addCriterion(new KAnonymity(5));
+        ARXNode optimum2 = new ARXAnonymizer().anonymize(getData(), config).getGlobalOptimum();
+
+        // Check
+        assertTrue("Cache not hit", PrecomputationCache.getNumHits() > hits);
+        assertArrayEquals(optimum1.getTransformation(), optimum2.getTransformation());
+        assertEquals(optimum1.getMaximumInformationLoss(), optimum2.getMaximumInformationLoss());
+        assertEquals(optimum1.getMinimumInformationLoss(), optimum2.getMinimumInformationLoss());
+    }
+
+    /**
+     * Test with a metric based on cardinalities.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCardinalities() throws IOException {
+        test(Metric.createPrecomputedEntropyMetric(0.1d, true));
+    }
+
+    /**
+     * Test with a metric based on domain shares.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDomainShares() throws IOException {
+        test(Metric.createLossMetric());
+    }
+}